@@ -0,0 +1,237 @@
+package com.mrcrayfish.configured.benchmark;
+
+import com.electronwill.nightconfig.core.CommentedConfig;
+import com.electronwill.nightconfig.core.ConfigSpec;
+import com.electronwill.nightconfig.toml.TomlFormat;
+import com.mrcrayfish.configured.network.ConfigData;
+import com.mrcrayfish.configured.network.ConfigDelta;
+import com.mrcrayfish.configured.network.ConfigSchema;
+import com.mrcrayfish.configured.network.ConfiguredCodecs;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.FriendlyByteBuf;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Benchmarks each step of syncing a server config: writing it as TOML, encoding and decoding it
+ * on a network buffer, parsing it on the server and checking it against the spec. The binary
+ * schema format and deltas are benchmarked next to TOML so the formats can be compared. This is
+ * the baseline for any change to the format or compression of config data.
+ * <p>
+ * Most mods have fewer than a hundred values, while the largest configs in big modpacks reach a
+ * few thousand, so configs of 100, 1,000 and 10,000 values are used. Every value has a comment,
+ * since most of a real config file is comments. The size of the payload of each format is printed
+ * when a trial starts, next to the timings in the output.
+ *
+ * Author: MrCrayfish
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConfigSyncBenchmark
+{
+    @Param({"100", "1000", "10000"})
+    private int size;
+
+    private CommentedConfig config;
+    private ConfigSpec spec;
+    private ConfigSchema schema;
+    private byte[] toml;
+    private ConfigDelta delta;
+    private FriendlyByteBuf buffer;
+    private FriendlyByteBuf encodedBytes;
+    private FriendlyByteBuf encodedToml;
+    private FriendlyByteBuf encodedSchema;
+    private FriendlyByteBuf encodedDelta;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        SyntheticConfig synthetic = new SyntheticConfig(this.size, 4);
+        this.config = CommentedConfig.inMemory();
+        this.spec = new ConfigSpec();
+        Map<List<String>, Object> changes = new HashMap<>();
+        for(SyntheticConfig.Value<?> value : synthetic.getValues())
+        {
+            // Enums are stored by name in a config file
+            Object object = value.get() instanceof Enum<?> e ? e.name() : value.get();
+            this.config.set(value.getPath(), object);
+            this.config.setComment(value.getPath(), " The value of " + value.getName() + ".\n Allowed values: any");
+            if(object instanceof List<?> list)
+            {
+                this.spec.defineList(value.getPath(), list, e -> e instanceof String);
+            }
+            else
+            {
+                this.spec.define(value.getPath(), object);
+            }
+            // A typical edit only changes a handful of values
+            if(changes.size() < 5 && !(object instanceof List<?>))
+            {
+                changes.put(value.getPath(), object);
+            }
+        }
+        this.schema = ConfigSchema.of(this.spec, () -> synthetic.getValues().stream().collect(HashMap<List<String>, Object>::new, (map, value) -> map.put(value.getPath(), value.getDefault()), HashMap::putAll));
+        this.toml = this.writeToml();
+        this.delta = ConfigDelta.create(ConfigDelta.hash(this.config), changes);
+        this.buffer = new FriendlyByteBuf(Unpooled.buffer());
+        this.encodedBytes = this.encode(buf -> ConfiguredCodecs.BYTE_ARRAY.encode(buf, this.toml));
+        this.encodedToml = this.encode(buf -> ConfiguredCodecs.CONFIG_DATA.encode(buf, ConfigData.of(this.config)));
+        this.encodedSchema = this.encode(buf -> ConfiguredCodecs.CONFIG_DATA.encode(buf, ConfigData.of(this.config, this.schema)));
+        this.encodedDelta = this.encode(buf -> ConfigDelta.STREAM_CODEC.encode(buf, this.delta));
+
+        System.out.printf("%nPayload sizes for %d values: TOML %d B, byte array %d B, config data %d B, schema %d B, delta of %d values %d B%n",
+            this.size, this.toml.length, this.encodedBytes.readableBytes(), this.encodedToml.readableBytes(),
+            this.encodedSchema.readableBytes(), changes.size(), this.encodedDelta.readableBytes());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        this.buffer.release();
+        this.encodedBytes.release();
+        this.encodedToml.release();
+        this.encodedSchema.release();
+        this.encodedDelta.release();
+    }
+
+    /**
+     * Writes the config like the client does before syncing it to the server
+     */
+    @Benchmark
+    public byte[] writeToml()
+    {
+        ByteArrayOutputStream stream = new ByteArrayOutputStream();
+        TomlFormat.instance().createWriter().write(this.config, stream);
+        return stream.toByteArray();
+    }
+
+    @Benchmark
+    public int encodeByteArray()
+    {
+        this.buffer.clear();
+        ConfiguredCodecs.BYTE_ARRAY.encode(this.buffer, this.toml);
+        return this.buffer.writerIndex();
+    }
+
+    @Benchmark
+    public byte[] decodeByteArray()
+    {
+        this.encodedBytes.readerIndex(0);
+        return ConfiguredCodecs.BYTE_ARRAY.decode(this.encodedBytes);
+    }
+
+    /**
+     * Writes the config as TOML directly into the buffer, compressing it if it is over the
+     * default compression threshold
+     */
+    @Benchmark
+    public int encodeConfigData()
+    {
+        this.buffer.clear();
+        ConfiguredCodecs.CONFIG_DATA.encode(this.buffer, ConfigData.of(this.config));
+        return this.buffer.writerIndex();
+    }
+
+    @Benchmark
+    public ConfigData decodeConfigData()
+    {
+        this.encodedToml.readerIndex(0);
+        return ConfiguredCodecs.CONFIG_DATA.decode(this.encodedToml);
+    }
+
+    @Benchmark
+    public int encodeSchemaData()
+    {
+        this.buffer.clear();
+        ConfiguredCodecs.CONFIG_DATA.encode(this.buffer, ConfigData.of(this.config, this.schema));
+        return this.buffer.writerIndex();
+    }
+
+    /**
+     * Decodes the binary values and builds a config from them, which replaces parsing TOML
+     */
+    @Benchmark
+    public CommentedConfig decodeAndReadSchemaData()
+    {
+        this.encodedSchema.readerIndex(0);
+        return ConfiguredCodecs.CONFIG_DATA.decode(this.encodedSchema).read(this.schema);
+    }
+
+    /**
+     * Parses the TOML like the server does after receiving a sync
+     */
+    @Benchmark
+    public CommentedConfig parseToml()
+    {
+        return TomlFormat.instance().createParser().parse(new ByteArrayInputStream(this.toml));
+    }
+
+    @Benchmark
+    public boolean isCorrect()
+    {
+        return this.spec.isCorrect(this.config);
+    }
+
+    /**
+     * Corrects a config that is already correct, which is the usual case when applying a sync
+     */
+    @Benchmark
+    public int correct()
+    {
+        return this.spec.correct(this.config);
+    }
+
+    /**
+     * Hashes the values of the config, which the server does to check requests and deltas
+     */
+    @Benchmark
+    public long hash()
+    {
+        return ConfigDelta.hash(this.config);
+    }
+
+    @Benchmark
+    public int encodeDelta()
+    {
+        this.buffer.clear();
+        ConfigDelta.STREAM_CODEC.encode(this.buffer, this.delta);
+        return this.buffer.writerIndex();
+    }
+
+    @Benchmark
+    public ConfigDelta decodeDelta()
+    {
+        this.encodedDelta.readerIndex(0);
+        return ConfigDelta.STREAM_CODEC.decode(this.encodedDelta);
+    }
+
+    private FriendlyByteBuf encode(Consumer<FriendlyByteBuf> encoder)
+    {
+        FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer());
+        encoder.accept(buf);
+        return buf;
+    }
+}
@@ -0,0 +1,133 @@
+package com.mrcrayfish.configured.benchmark;
+
+import com.mrcrayfish.configured.api.IConfigEntry;
+import com.mrcrayfish.configured.api.IConfigValue;
+import com.mrcrayfish.configured.client.screen.ConfigScreen;
+import com.mrcrayfish.configured.client.screen.list.ListTypes;
+import com.mrcrayfish.configured.util.ConfigHelper;
+import net.minecraft.network.chat.Component;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the operations that walk the tree of a config. These run when a config screen is
+ * opened, searched, saved or has its defaults restored, so their cost grows with the size of the
+ * config and is felt as a stutter on the client. Run against configs of 100 to 100,000 values
+ * nested at different depths.
+ * <p>
+ * The config screen is only constructed and never initialised, so no window or font is needed.
+ *
+ * Author: MrCrayfish
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConfigTreeBenchmark
+{
+    @Param({"100", "1000", "10000", "100000"})
+    private int size;
+
+    @Param({"1", "4", "8"})
+    private int depth;
+
+    private SyntheticConfig config;
+    private IConfigEntry root;
+    private IConfigEntry unchangedRoot;
+    private ConfigScreen screen;
+    private List<String> names;
+    private List<IConfigValue<List<Object>>> lists;
+
+    @SuppressWarnings("unchecked")
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        this.config = new SyntheticConfig(this.size, this.depth);
+        this.config.changeEvery(50);
+        this.root = this.config.getRoot();
+        this.unchangedRoot = new SyntheticConfig(this.size, this.depth).getRoot();
+        this.screen = new ConfigScreen(null, Component.literal("Benchmark"), this.config);
+        this.names = this.config.getValues().stream().map(IConfigValue::getName).toList();
+        this.lists = this.config.getValues().stream()
+            .filter(value -> value.getDefault() instanceof List<?>)
+            .map(value -> (IConfigValue<List<Object>>) (IConfigValue<?>) value)
+            .toList();
+    }
+
+    @Benchmark
+    public List<IConfigEntry> gatherAllConfigEntries()
+    {
+        return ConfigHelper.gatherAllConfigEntries(this.root);
+    }
+
+    @Benchmark
+    public List<IConfigValue<?>> gatherAllConfigValues()
+    {
+        return ConfigHelper.gatherAllConfigValues(this.root);
+    }
+
+    @Benchmark
+    public int getChangedValues()
+    {
+        return ConfigHelper.getChangedValues(this.root).size();
+    }
+
+    /**
+     * Checks a config with no changes, so the whole tree is walked
+     */
+    @Benchmark
+    public boolean isChanged()
+    {
+        return this.screen.isChanged(this.unchangedRoot);
+    }
+
+    /**
+     * Checks a config with no changes, so the whole tree is walked. The screen does this for the
+     * current folder to update the restore button.
+     */
+    @Benchmark
+    public boolean isModified()
+    {
+        return this.screen.isModified(this.unchangedRoot);
+    }
+
+    /**
+     * Creates the label of every value, like the screen does when its entries are constructed
+     */
+    @Benchmark
+    public void createLabel(Blackhole blackhole)
+    {
+        for(String name : this.names)
+        {
+            blackhole.consume(ConfigScreen.createLabel(name));
+        }
+    }
+
+    /**
+     * Gets the type of every list value, which is cached after the first time
+     */
+    @Benchmark
+    public void getListType(Blackhole blackhole)
+    {
+        for(IConfigValue<List<Object>> list : this.lists)
+        {
+            blackhole.consume(ListTypes.getType(list));
+        }
+    }
+}
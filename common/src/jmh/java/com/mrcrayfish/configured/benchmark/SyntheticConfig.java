@@ -0,0 +1,366 @@
+package com.mrcrayfish.configured.benchmark;
+
+import com.mrcrayfish.configured.api.ConfigType;
+import com.mrcrayfish.configured.api.IConfigEntry;
+import com.mrcrayfish.configured.api.IConfigValue;
+import com.mrcrayfish.configured.api.IModConfig;
+import com.mrcrayfish.configured.api.ValueEntry;
+import net.minecraft.network.chat.Component;
+
+import org.jetbrains.annotations.Nullable;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * A config made of plain values for benchmarking, without any mod loader or config library behind
+ * it. Values are spread evenly over folders nested to the given depth, and cycle through the types
+ * of values a real config contains: booleans, numbers, strings, enums and lists.
+ *
+ * Author: MrCrayfish
+ */
+public class SyntheticConfig implements IModConfig
+{
+    private static final String[] WORDS = {"max", "spawn", "distance", "enable", "particle", "chance", "loot", "table", "render", "cooldown", "damage", "multiplier"};
+
+    private final Folder root;
+    private final List<Value<?>> values = new ArrayList<>();
+
+    /**
+     * @param size  the number of values in the config
+     * @param depth how deeply the values are nested in folders. A depth of zero puts all the values
+     *              in the root.
+     */
+    public SyntheticConfig(int size, int depth)
+    {
+        this.root = new Folder("root", List.of(), true);
+        int branching = depth > 0 ? Math.max(2, (int) Math.ceil(Math.pow(size, 1.0 / (depth + 1)))) : 1;
+        for(int i = 0; i < size; i++)
+        {
+            List<String> path = new ArrayList<>();
+            Folder folder = this.root;
+            int index = i;
+            for(int level = 0; level < depth; level++)
+            {
+                String name = "category" + (index % branching);
+                index /= branching;
+                path.add(name);
+                folder = folder.getOrCreate(name, List.copyOf(path));
+            }
+            path.add(createName(i));
+            Value<?> value = createValue(i, List.copyOf(path));
+            this.values.add(value);
+            folder.children.put(value.getName(), new ValueEntry(value));
+        }
+    }
+
+    /**
+     * @return all the values of the config in the order they were created
+     */
+    public List<Value<?>> getValues()
+    {
+        return this.values;
+    }
+
+    /**
+     * Changes every n-th value so it's different from its initial and default value
+     */
+    public void changeEvery(int n)
+    {
+        for(int i = 0; i < this.values.size(); i += n)
+        {
+            this.values.get(i).change();
+        }
+    }
+
+    /**
+     * Sets every value back to its initial value
+     */
+    public void reset()
+    {
+        this.values.forEach(Value::reset);
+    }
+
+    @Override
+    public void update(IConfigEntry entry) {}
+
+    @Override
+    public IConfigEntry getRoot()
+    {
+        return this.root;
+    }
+
+    @Override
+    public ConfigType getType()
+    {
+        return ConfigType.CLIENT;
+    }
+
+    @Override
+    public String getFileName()
+    {
+        return "synthetic.toml";
+    }
+
+    @Override
+    public String getModId()
+    {
+        return "synthetic";
+    }
+
+    @Override
+    public void loadWorldConfig(Path path, Consumer<IModConfig> result) {}
+
+    /**
+     * Creates a camel case name like a real config value would have, for example "maxSpawnDistance12"
+     */
+    static String createName(int index)
+    {
+        StringBuilder builder = new StringBuilder(WORDS[index % WORDS.length]);
+        for(int i = 1; i <= index % 3 + 1; i++)
+        {
+            String word = WORDS[(index / (i * 7) + i) % WORDS.length];
+            builder.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+        }
+        return builder.append(index).toString();
+    }
+
+    /**
+     * Creates a list value of item ids, like the block or item lists some mods have
+     *
+     * @param size the number of elements in the list
+     */
+    public static Value<List<String>> createList(int size)
+    {
+        List<String> list = new ArrayList<>(size);
+        for(int i = 0; i < size; i++)
+        {
+            list.add("minecraft:" + createName(i).toLowerCase(Locale.ENGLISH));
+        }
+        return new Value<>("blockList", List.of("blockList"), List.copyOf(list), value -> {
+            List<String> copy = new ArrayList<>(value);
+            copy.remove(copy.size() - 1);
+            return copy;
+        });
+    }
+
+    private static Value<?> createValue(int index, List<String> path)
+    {
+        String name = path.get(path.size() - 1);
+        return switch(index % 6)
+        {
+            case 0 -> new Value<>(name, path, true, value -> !value);
+            case 1 -> new Value<>(name, path, index, value -> value + 1);
+            case 2 -> new Value<>(name, path, index * 0.5, value -> value + 0.5);
+            case 3 -> new Value<>(name, path, "value" + index, value -> value + "!");
+            case 4 -> new Value<>(name, path, Type.values()[index % Type.values().length], value -> Type.values()[(value.ordinal() + 1) % Type.values().length]);
+            default -> new Value<>(name, path, List.of("minecraft:stone", "minecraft:dirt", "minecraft:oak_log"), value -> {
+                List<String> list = new ArrayList<>(value);
+                list.add("minecraft:sand");
+                return list;
+            });
+        };
+    }
+
+    public enum Type
+    {
+        NONE, LOW, MEDIUM, HIGH
+    }
+
+    public static class Value<T> implements IConfigValue<T>
+    {
+        private final String name;
+        private final List<String> path;
+        private final T defaultValue;
+        private final UnaryOperator<T> changer;
+        private final T initialValue;
+        private T value;
+
+        private Value(String name, List<String> path, T defaultValue, UnaryOperator<T> changer)
+        {
+            this.name = name;
+            this.path = path;
+            this.defaultValue = defaultValue;
+            this.changer = changer;
+            this.initialValue = defaultValue;
+            this.value = defaultValue;
+        }
+
+        private void change()
+        {
+            this.value = this.changer.apply(this.value);
+        }
+
+        private void reset()
+        {
+            this.value = this.initialValue;
+        }
+
+        @Override
+        public T get()
+        {
+            return this.value;
+        }
+
+        @Override
+        public T getDefault()
+        {
+            return this.defaultValue;
+        }
+
+        @Override
+        public void set(T value)
+        {
+            this.value = value;
+        }
+
+        @Override
+        public boolean isValid(T value)
+        {
+            return value != null;
+        }
+
+        @Override
+        public boolean isDefault()
+        {
+            return Objects.equals(this.value, this.defaultValue);
+        }
+
+        @Override
+        public boolean isChanged()
+        {
+            return !Objects.equals(this.value, this.initialValue);
+        }
+
+        @Override
+        public void restore()
+        {
+            this.value = this.defaultValue;
+        }
+
+        @Nullable
+        @Override
+        public Component getComment()
+        {
+            return null;
+        }
+
+        @Nullable
+        @Override
+        public String getTranslationKey()
+        {
+            return null;
+        }
+
+        @Nullable
+        @Override
+        public Component getValidationHint()
+        {
+            return null;
+        }
+
+        @Override
+        public String getName()
+        {
+            return this.name;
+        }
+
+        @Override
+        public List<String> getPath()
+        {
+            return this.path;
+        }
+
+        @Override
+        public void cleanCache() {}
+
+        @Override
+        public boolean requiresWorldRestart()
+        {
+            return false;
+        }
+
+        @Override
+        public boolean requiresGameRestart()
+        {
+            return false;
+        }
+    }
+
+    private static class Folder implements IConfigEntry
+    {
+        private final String name;
+        private final List<String> path;
+        private final boolean root;
+        private final Map<String, IConfigEntry> children = new LinkedHashMap<>();
+        private List<IConfigEntry> childList;
+
+        private Folder(String name, List<String> path, boolean root)
+        {
+            this.name = name;
+            this.path = path;
+            this.root = root;
+        }
+
+        private Folder getOrCreate(String name, List<String> path)
+        {
+            this.childList = null;
+            return (Folder) this.children.computeIfAbsent(name, key -> new Folder(key, path, false));
+        }
+
+        @Override
+        public List<IConfigEntry> getChildren()
+        {
+            if(this.childList == null || this.childList.size() != this.children.size())
+            {
+                this.childList = List.copyOf(this.children.values());
+            }
+            return this.childList;
+        }
+
+        @Override
+        public boolean isRoot()
+        {
+            return this.root;
+        }
+
+        @Override
+        public boolean isLeaf()
+        {
+            return false;
+        }
+
+        @Nullable
+        @Override
+        public IConfigValue<?> getValue()
+        {
+            return null;
+        }
+
+        @Override
+        public String getEntryName()
+        {
+            return this.name;
+        }
+
+        @Nullable
+        @Override
+        public Component getTooltip()
+        {
+            return null;
+        }
+
+        @Nullable
+        @Override
+        public String getTranslationKey()
+        {
+            return null;
+        }
+    }
+}
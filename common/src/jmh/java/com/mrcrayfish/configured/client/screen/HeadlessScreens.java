@@ -0,0 +1,50 @@
+package com.mrcrayfish.configured.client.screen;
+
+import net.minecraft.client.gui.Font;
+import net.minecraft.client.gui.font.FontSet;
+import net.minecraft.client.gui.screens.Screen;
+import net.minecraft.resources.ResourceLocation;
+
+import java.lang.reflect.Field;
+
+/**
+ * Prepares screens so their logic can run without a game window. Screens normally get their font
+ * when they are initialised by the game, so instead they are given a font without any glyph
+ * providers. Every character of the font is the missing glyph, which has a fixed width, so text
+ * can still be measured and split but not drawn. Nothing that draws or needs the game instance can
+ * be called on a prepared screen.
+ *
+ * Author: MrCrayfish
+ */
+public final class HeadlessScreens
+{
+    public static final Font FONT = createFont();
+
+    private HeadlessScreens() {}
+
+    /**
+     * Gives the screen the headless font
+     *
+     * @return the given screen
+     */
+    public static <T extends Screen> T prepare(T screen)
+    {
+        try
+        {
+            Field field = Screen.class.getDeclaredField("font");
+            field.setAccessible(true);
+            field.set(screen, FONT);
+            return screen;
+        }
+        catch(ReflectiveOperationException e)
+        {
+            throw new IllegalStateException("Failed to set the font of the screen", e);
+        }
+    }
+
+    private static Font createFont()
+    {
+        FontSet fontSet = new FontSet(null, new ResourceLocation("configured", "headless"));
+        return new Font(location -> fontSet, false);
+    }
+}
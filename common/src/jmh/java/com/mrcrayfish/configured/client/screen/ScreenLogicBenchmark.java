@@ -0,0 +1,165 @@
+package com.mrcrayfish.configured.client.screen;
+
+import com.mrcrayfish.configured.benchmark.SyntheticConfig;
+import com.mrcrayfish.configured.client.util.ScreenUtil;
+import net.minecraft.ChatFormatting;
+import net.minecraft.network.chat.Component;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks the logic of the config screens that runs while a player uses them: constructing the
+ * entries of a folder, searching, updating the search suggestion and updating the state of the
+ * buttons. Screens are prepared with {@link HeadlessScreens} so they run without a game window.
+ * The values are all in the root folder of the config, which is the worst case for a screen.
+ * <p>
+ * Drawing can't be benchmarked this way since it needs the game instance and a render thread.
+ *
+ * Author: MrCrayfish
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ScreenLogicBenchmark
+{
+    @Param({"100", "1000", "10000"})
+    private int size;
+
+    private SyntheticConfig config;
+    private ConfigScreen configScreen;
+    private SyntheticConfig.Value<List<String>> largeList;
+    private EditListScreen<String> editListScreen;
+    private ChangeEnumScreen changeEnumScreen;
+    private List<ChangeEnumScreen.Entry> enumEntries;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        this.config = new SyntheticConfig(this.size, 0);
+        this.configScreen = HeadlessScreens.prepare(new ConfigScreen(null, Component.literal("Benchmark"), this.config));
+        List<ListMenuScreen.Item> entries = new ArrayList<>();
+        this.configScreen.constructEntries(entries);
+        this.configScreen.entries = List.copyOf(entries);
+
+        this.largeList = SyntheticConfig.createList(this.size);
+        this.editListScreen = HeadlessScreens.prepare(new EditListScreen<>(null, this.config, Component.literal("Benchmark"), this.largeList));
+
+        this.changeEnumScreen = HeadlessScreens.prepare(new ChangeEnumScreen(null, this.config, Component.literal("Benchmark"), ChatFormatting.RED, null, value -> {}));
+        this.enumEntries = new ArrayList<>();
+        for(ChatFormatting formatting : ChatFormatting.values())
+        {
+            this.enumEntries.add(this.changeEnumScreen.new Entry(formatting));
+        }
+    }
+
+    /**
+     * Constructs the items of the root folder, which happens every time the screen is opened or
+     * resized
+     */
+    @Benchmark
+    public List<ListMenuScreen.Item> constructEntries()
+    {
+        List<ListMenuScreen.Item> entries = new ArrayList<>();
+        this.configScreen.constructEntries(entries);
+        return entries;
+    }
+
+    /**
+     * Searches the items of the screen, which happens on every key typed into the search box
+     */
+    @Benchmark
+    public Collection<ListMenuScreen.Item> search()
+    {
+        return this.configScreen.getSearchResults("spawn", false);
+    }
+
+    /**
+     * Searches all the values of the config, creating an item for each of them
+     */
+    @Benchmark
+    public Collection<ListMenuScreen.Item> deepSearch()
+    {
+        return this.configScreen.getSearchResults("spawn", true);
+    }
+
+    /**
+     * Finds the suggestion shown after the text in the search box, also updated on every key typed
+     */
+    @Benchmark
+    public String searchSuggestion()
+    {
+        return ScreenUtil.findSearchSuggestion("spawnD", this.configScreen.entries);
+    }
+
+    /**
+     * Updates the state of the buttons, which happens after every change made on the screen. The
+     * config has no changes, so the whole config is checked.
+     */
+    @Benchmark
+    public void updateButtons()
+    {
+        this.configScreen.updateButtons();
+    }
+
+    /**
+     * Opens the list editor for a large list, which converts every element to a string
+     */
+    @Benchmark
+    public EditListScreen<String> createEditListScreen()
+    {
+        return new EditListScreen<>(null, this.config, Component.literal("Benchmark"), this.largeList);
+    }
+
+    /**
+     * Checks if a large list was modified, which happens when the list editor is closed. The list
+     * has not been modified, so every element is compared.
+     */
+    @Benchmark
+    public boolean isListModified()
+    {
+        return this.editListScreen.isModified();
+    }
+
+    /**
+     * Creates the entries of the enum selection screen and filters them like a search does
+     */
+    @Benchmark
+    public List<ChangeEnumScreen.Entry> searchEnum()
+    {
+        List<ChangeEnumScreen.Entry> entries = new ArrayList<>();
+        for(ChatFormatting formatting : ChatFormatting.values())
+        {
+            entries.add(this.changeEnumScreen.new Entry(formatting));
+        }
+        String query = "re";
+        return entries.stream().filter(entry -> entry.getFormattedLabel().getString().toLowerCase(Locale.ENGLISH).contains(query)).toList();
+    }
+
+    /**
+     * Finds the suggestion for the search box of the enum selection screen
+     */
+    @Benchmark
+    public String searchEnumSuggestion()
+    {
+        return ScreenUtil.findSearchSuggestion("Dark", this.enumEntries);
+    }
+}
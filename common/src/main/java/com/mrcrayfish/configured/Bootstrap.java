@@ -1,5 +1,8 @@
 package com.mrcrayfish.configured;
 
+import com.mrcrayfish.configured.impl.framework.handler.FrameworkServerHandler;
+import com.mrcrayfish.configured.platform.Services;
+
 /**
  * Author: MrCrayfish
  */
@@ -8,5 +11,9 @@ public class Bootstrap
     public static void init()
     {
         Config.load();
+        if(Services.PLATFORM.isModLoaded("framework"))
+        {
+            FrameworkServerHandler.init();
+        }
     }
 }
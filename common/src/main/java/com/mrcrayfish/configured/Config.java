@@ -6,16 +6,17 @@ import com.electronwill.nightconfig.core.file.CommentedFileConfig;
 import com.google.common.collect.ImmutableSet;
 import com.mrcrayfish.configured.api.Environment;
 import com.mrcrayfish.configured.platform.Services;
+import com.mrcrayfish.configured.util.ConfigWatcher;
 import net.minecraft.ChatFormatting;
 import net.minecraft.Util;
 
 import java.io.File;
+import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collections;
 import java.util.List;
 import java.util.Set;
-import java.util.UUID;
 import java.util.regex.Pattern;
 
 /**
@@ -25,12 +26,20 @@ public class Config
 {
     private static final Pattern UUID_PATTERN = Pattern.compile("^[\\da-fA-F]{8}\\b-[\\da-fA-F]{4}\\b-[\\da-fA-F]{4}\\b-[\\da-fA-F]{4}\\b-[\\da-fA-F]{12}$");
 
+    private static final int DEFAULT_BACKUP_DEPTH = 5;
+    private static final int DEFAULT_COMPRESSION_THRESHOLD = 1024;
+    private static final int DEFAULT_REQUEST_BURST = 5;
+    private static final int DEFAULT_REQUESTS_PER_MINUTE = 20;
+    private static final int DEFAULT_STATS_LOG_INTERVAL = 10;
+
     private static CommentedFileConfig clientConfig;
     private static final ConfigSpec CLIENT_SPEC = Util.make(() -> {
         ConfigSpec spec = new ConfigSpec();
         spec.define("forceConfiguredMenu", false);
         spec.define("includeFoldersInSearch", false);
         spec.defineRestrictedEnum("changedFormatting", ChatFormatting.ITALIC, ImmutableSet.copyOf(ChatFormatting.values()), EnumGetMethod.NAME_IGNORECASE);
+        spec.defineInRange("backupDepth", DEFAULT_BACKUP_DEPTH, 0, 100);
+        spec.defineInRange("compressionThreshold", DEFAULT_COMPRESSION_THRESHOLD, -1, Integer.MAX_VALUE);
         return spec;
     });
 
@@ -42,23 +51,91 @@ public class Config
             return e instanceof String s && UUID_PATTERN.matcher(s).matches();
         });
         spec.define("broadcastLogs", true);
+        spec.defineInRange("backupDepth", DEFAULT_BACKUP_DEPTH, 0, 100);
+        spec.defineInRange("compressionThreshold", DEFAULT_COMPRESSION_THRESHOLD, -1, Integer.MAX_VALUE);
+        spec.defineInRange("requestBurst", DEFAULT_REQUEST_BURST, 1, 1000);
+        spec.defineInRange("requestsPerMinute", DEFAULT_REQUESTS_PER_MINUTE, 1, 6000);
+        spec.defineInRange("statsLogInterval", DEFAULT_STATS_LOG_INTERVAL, 0, 24 * 60);
         return spec;
     });
 
+    private static volatile ClientSettings clientSettings = ClientSettings.DEFAULT;
+    private static volatile DeveloperSettings developerSettings = DeveloperSettings.DEFAULT;
+
     public static void load()
     {
         Path configPath = Services.PLATFORM.getConfigPath();
         clientConfig = createConfig(new File(configPath.toFile(), "configured-client.toml"));
-        clientConfig.load();
-        CLIENT_SPEC.correct(clientConfig);
-        clientConfig.save();
+        loadClientConfig();
+        watch(clientConfig, Config::loadClientConfig);
 
         if(Services.PLATFORM.getEnvironment() == Environment.DEDICATED_SERVER)
         {
             developerConfig = createConfig(new File(configPath.toFile(), "configured-developer.toml"));
-            developerConfig.load();
-            DEVELOPER_SPEC.correct(developerConfig);
-            developerConfig.save();
+            loadDeveloperConfig();
+            watch(developerConfig, Config::loadDeveloperConfig);
+        }
+    }
+
+    private static void loadClientConfig()
+    {
+        load(clientConfig, CLIENT_SPEC);
+        clientSettings = new ClientSettings(
+            clientConfig.get("forceConfiguredMenu"),
+            clientConfig.get("includeFoldersInSearch"),
+            clientConfig.getEnumOrElse("changedFormatting", ChatFormatting.ITALIC, EnumGetMethod.NAME_IGNORECASE),
+            clientConfig.getIntOrElse("backupDepth", DEFAULT_BACKUP_DEPTH),
+            clientConfig.getIntOrElse("compressionThreshold", DEFAULT_COMPRESSION_THRESHOLD)
+        );
+    }
+
+    private static void loadDeveloperConfig()
+    {
+        load(developerConfig, DEVELOPER_SPEC);
+        developerSettings = new DeveloperSettings(
+            developerConfig.get("enabled"),
+            ImmutableSet.copyOf(developerConfig.<List<String>>getOrElse("developers", Collections.emptyList())),
+            developerConfig.get("broadcastLogs"),
+            developerConfig.getIntOrElse("backupDepth", DEFAULT_BACKUP_DEPTH),
+            developerConfig.getIntOrElse("compressionThreshold", DEFAULT_COMPRESSION_THRESHOLD),
+            developerConfig.getIntOrElse("requestBurst", DEFAULT_REQUEST_BURST),
+            developerConfig.getIntOrElse("requestsPerMinute", DEFAULT_REQUESTS_PER_MINUTE),
+            developerConfig.getIntOrElse("statsLogInterval", DEFAULT_STATS_LOG_INTERVAL)
+        );
+    }
+
+    private static void load(CommentedFileConfig config, ConfigSpec spec)
+    {
+        config.load();
+        if(spec.correct(config) > 0)
+        {
+            config.save();
+            ConfigWatcher.recordWrite(config.getNioPath());
+        }
+    }
+
+    /**
+     * Reloads the settings when the file is edited while the game is running
+     */
+    private static void watch(CommentedFileConfig config, Runnable reload)
+    {
+        try
+        {
+            ConfigWatcher.watch(config.getNioPath(), () -> {
+                try
+                {
+                    reload.run();
+                    Constants.LOG.info("Reloaded {}", config.getNioPath().getFileName());
+                }
+                catch(Exception e)
+                {
+                    Constants.LOG.error("Failed to reload {}", config.getNioPath().getFileName(), e);
+                }
+            });
+        }
+        catch(IOException e)
+        {
+            Constants.LOG.error("Failed to watch {}", config.getNioPath(), e);
         }
     }
 
@@ -74,35 +151,93 @@ public class Config
 
     public static boolean isForceConfiguredMenu()
     {
-        return clientConfig.get("forceConfiguredMenu");
+        return clientSettings.forceConfiguredMenu();
     }
 
     public static boolean isIncludeFoldersInSearch()
     {
-        return clientConfig.get("includeFoldersInSearch");
+        return clientSettings.includeFoldersInSearch();
     }
 
     public static ChatFormatting getChangedFormatting()
     {
-        return clientConfig.getEnumOrElse("changedFormatting", ChatFormatting.ITALIC, EnumGetMethod.NAME_IGNORECASE);
+        return clientSettings.changedFormatting();
+    }
+
+    /**
+     * Gets the number of backups kept for each config file. Dedicated servers use the value from
+     * the developer config.
+     */
+    public static int getBackupDepth()
+    {
+        return developerConfig != null ? developerSettings.backupDepth() : clientSettings.backupDepth();
     }
 
     public static boolean isDeveloperEnabled()
     {
-        return developerConfig != null && developerConfig.<Boolean>get("enabled");
+        return developerSettings.enabled();
     }
 
-    public static List<String> getDevelopers()
+    public static Set<String> getDevelopers()
     {
-        if(developerConfig != null)
-        {
-            return developerConfig.getOrElse("developers", Collections.emptyList());
-        }
-        return Collections.emptyList();
+        return developerSettings.developers();
     }
 
     public static boolean shouldBroadcastLogs()
     {
-        return developerConfig != null && developerConfig.<Boolean>get("broadcastLogs");
+        return developerSettings.broadcastLogs();
+    }
+
+    /**
+     * Gets the size in bytes at which config data sent over the network is compressed, or -1 if
+     * it should never be compressed. Dedicated servers use the value from the developer config.
+     */
+    public static int getCompressionThreshold()
+    {
+        return developerConfig != null ? developerSettings.compressionThreshold() : clientSettings.compressionThreshold();
+    }
+
+    /**
+     * Gets the number of syncs or requests of a server config a player can send in quick
+     * succession before being limited by {@link #getRequestsPerMinute()}
+     */
+    public static int getRequestBurst()
+    {
+        return developerSettings.requestBurst();
+    }
+
+    /**
+     * Gets the rate at which a player can sync or request a server config once they have used up
+     * their burst
+     */
+    public static int getRequestsPerMinute()
+    {
+        return developerSettings.requestsPerMinute();
+    }
+
+    /**
+     * Gets the interval in minutes at which a summary of the network stats is logged, or 0 if it
+     * should not be logged
+     */
+    public static int getStatsLogInterval()
+    {
+        return developerSettings.statsLogInterval();
+    }
+
+    /**
+     * An immutable copy of configured-client.toml. Settings are read every frame while rendering,
+     * so they are copied into plain fields instead of being looked up from the config.
+     */
+    private record ClientSettings(boolean forceConfiguredMenu, boolean includeFoldersInSearch, ChatFormatting changedFormatting, int backupDepth, int compressionThreshold)
+    {
+        private static final ClientSettings DEFAULT = new ClientSettings(false, false, ChatFormatting.ITALIC, DEFAULT_BACKUP_DEPTH, DEFAULT_COMPRESSION_THRESHOLD);
+    }
+
+    /**
+     * An immutable copy of configured-developer.toml. Only loaded on dedicated servers.
+     */
+    private record DeveloperSettings(boolean enabled, Set<String> developers, boolean broadcastLogs, int backupDepth, int compressionThreshold, int requestBurst, int requestsPerMinute, int statsLogInterval)
+    {
+        private static final DeveloperSettings DEFAULT = new DeveloperSettings(false, Set.of(), false, DEFAULT_BACKUP_DEPTH, DEFAULT_COMPRESSION_THRESHOLD, DEFAULT_REQUEST_BURST, DEFAULT_REQUESTS_PER_MINUTE, DEFAULT_STATS_LOG_INTERVAL);
     }
 }
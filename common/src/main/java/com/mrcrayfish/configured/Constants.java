@@ -8,4 +8,10 @@ public class Constants
     public static final String MOD_ID = "configured";
     public static final String MOD_NAME = "Configured";
     public static final Logger LOG = LoggerFactory.getLogger(MOD_NAME);
+
+    /**
+     * The version of the network protocol, which must be increased whenever the format of a message
+     * changes. A client and server only talk to each other if they have the same version.
+     */
+    public static final int PROTOCOL_VERSION = 7;
 }
\ No newline at end of file
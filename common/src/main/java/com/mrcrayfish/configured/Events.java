@@ -1,6 +1,15 @@
 package com.mrcrayfish.configured;
 
+import com.mojang.brigadier.CommandDispatcher;
+import com.mrcrayfish.configured.command.ConfiguredCommand;
+import com.mrcrayfish.configured.network.ChunkedTransfer;
+import com.mrcrayfish.configured.network.ConfigManifest;
+import com.mrcrayfish.configured.network.NetworkStats;
+import com.mrcrayfish.configured.network.RequestLimiter;
+import com.mrcrayfish.configured.network.SyncBroadcaster;
 import com.mrcrayfish.configured.platform.Services;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.server.MinecraftServer;
 import net.minecraft.server.level.ServerPlayer;
 
 /**
@@ -12,4 +21,24 @@ public class Events
     {
         Services.PLATFORM.sendSessionData(player);
     }
+
+    public static void onPlayerLoggedOut(ServerPlayer player)
+    {
+        ChunkedTransfer.SERVER.disconnect(player.getUUID());
+        NetworkStats.onPlayerLoggedOut(player);
+    }
+
+    public static void onServerTickEnd(MinecraftServer server)
+    {
+        SyncBroadcaster.flush(server);
+        ChunkedTransfer.SERVER.tick();
+        RequestLimiter.tick();
+        ConfigManifest.tick(server);
+        NetworkStats.tick();
+    }
+
+    public static void onRegisterCommands(CommandDispatcher<CommandSourceStack> dispatcher)
+    {
+        ConfiguredCommand.register(dispatcher);
+    }
 }
@@ -0,0 +1,132 @@
+package com.mrcrayfish.configured.api;
+
+import com.mrcrayfish.configured.Constants;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Posted after Configured has changed the values of a config, with the exact paths of the values
+ * that changed. The reload event of the config is still fired as usual, but it doesn't say what
+ * changed, so mods that build caches from large configs can listen to this instead and only
+ * rebuild the parts that depend on the changed values.
+ * <p>
+ * The event is posted on the thread that applied the changes, which is the client thread for
+ * changes made from the config screens and the server thread for changes synced from a player.
+ * <p>
+ * Example usage:
+ * <pre>{@code
+ * ConfigChangedEvent.register(event -> {
+ *     if(event.getModId().equals("example") && event.isChanged("blocks", "blockList")) {
+ *         rebuildBlockCache();
+ *     }
+ * });
+ * }</pre>
+ *
+ * Author: MrCrayfish
+ */
+public final class ConfigChangedEvent
+{
+    private static final List<Listener> LISTENERS = new CopyOnWriteArrayList<>();
+
+    private final String modId;
+    private final String fileName;
+    private final Set<List<String>> changedPaths;
+
+    private ConfigChangedEvent(String modId, String fileName, Set<List<String>> changedPaths)
+    {
+        this.modId = modId;
+        this.fileName = fileName;
+        this.changedPaths = Set.copyOf(changedPaths);
+    }
+
+    /**
+     * @return the id of the mod that owns the config
+     */
+    public String getModId()
+    {
+        return this.modId;
+    }
+
+    /**
+     * @return the file name of the config
+     */
+    public String getFileName()
+    {
+        return this.fileName;
+    }
+
+    /**
+     * @return an unmodifiable set of the full paths of the values that changed
+     */
+    public Set<List<String>> getChangedPaths()
+    {
+        return this.changedPaths;
+    }
+
+    /**
+     * @param path the full path of a value
+     * @return true if the value at the given path changed
+     */
+    public boolean isChanged(String... path)
+    {
+        return this.changedPaths.contains(List.of(path));
+    }
+
+    /**
+     * @param path the path of a category
+     * @return true if any value in the category at the given path, or in its subcategories, changed
+     */
+    public boolean isCategoryChanged(String... path)
+    {
+        List<String> prefix = List.of(path);
+        return this.changedPaths.stream().anyMatch(changed -> changed.size() > prefix.size() && changed.subList(0, prefix.size()).equals(prefix));
+    }
+
+    /**
+     * Registers a listener to be notified when the values of a config are changed by Configured
+     */
+    public static void register(Listener listener)
+    {
+        LISTENERS.add(listener);
+    }
+
+    public static void unregister(Listener listener)
+    {
+        LISTENERS.remove(listener);
+    }
+
+    /**
+     * Posts the event to all registered listeners. Nothing is posted if no values changed. This
+     * should only be called by implementations of {@link IModConfig} and Configured itself.
+     *
+     * @param modId        the id of the mod that owns the config
+     * @param fileName     the file name of the config
+     * @param changedPaths the full paths of the values that changed
+     */
+    public static void post(String modId, String fileName, Set<List<String>> changedPaths)
+    {
+        if(changedPaths.isEmpty() || LISTENERS.isEmpty())
+            return;
+
+        ConfigChangedEvent event = new ConfigChangedEvent(modId, fileName, changedPaths);
+        for(Listener listener : LISTENERS)
+        {
+            try
+            {
+                listener.onConfigChanged(event);
+            }
+            catch(RuntimeException e)
+            {
+                Constants.LOG.error("A listener threw an exception while handling the changes to config {}", fileName, e);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    public interface Listener
+    {
+        void onConfigChanged(ConfigChangedEvent event);
+    }
+}
@@ -3,6 +3,7 @@ package com.mrcrayfish.configured.api;
 import net.minecraft.network.chat.Component;
 
 import org.jetbrains.annotations.Nullable;
+import java.util.List;
 
 /**
  * @param <T> A Temporary Data Holder that allows to make changes to a Config File without actually changing the config file.
@@ -76,6 +77,17 @@ public interface IConfigValue<T>
      */
     String getName();
 
+    /**
+     * @return the full path of keys to this value in the config file, or null if the value is not
+     * stored in a file based config. Used to apply changes directly to config files, for example
+     * when updating the same config in multiple worlds.
+     */
+    @Nullable
+    default List<String> getPath()
+    {
+        return null;
+    }
+
     /**
      * If your config has a cache this is when it should be cleaned
      */
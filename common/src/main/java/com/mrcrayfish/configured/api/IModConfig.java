@@ -113,4 +113,16 @@ public interface IModConfig
      * screen.
      */
     default void requestFromServer() {}
+
+    /**
+     * Gets the path of the file this config is stored in. This is used to manage backups of the
+     * config. World configs should only return a path while they are loaded.
+     *
+     * @return the path of the config file, or null if the config is not stored in a file or not loaded
+     */
+    @Nullable
+    default Path getFilePath()
+    {
+        return null;
+    }
 }
@@ -6,6 +6,8 @@ import com.mrcrayfish.configured.api.ConfigType;
 import com.mrcrayfish.configured.api.IModConfig;
 import com.mrcrayfish.configured.api.IModConfigProvider;
 import com.mrcrayfish.configured.api.ModContext;
+import com.mrcrayfish.configured.impl.framework.FrameworkModConfig;
+import com.mrcrayfish.configured.network.ChunkedTransfer;
 import com.mrcrayfish.configured.platform.Services;
 import net.minecraft.client.KeyMapping;
 import net.minecraft.client.gui.components.AbstractSelectionList;
@@ -33,6 +35,23 @@ public class ClientHandler
         }
     }
 
+    public static void onClientTickEnd()
+    {
+        ChunkedTransfer.CLIENT.tick();
+    }
+
+    /**
+     * Called on the client thread when the client disconnects from a server
+     */
+    public static void onClientDisconnect()
+    {
+        ChunkedTransfer.CLIENT.disconnect(ChunkedTransfer.SERVER_CONNECTION);
+        if(Services.PLATFORM.isModLoaded("framework"))
+        {
+            FrameworkModConfig.clearPendingFullSyncs();
+        }
+    }
+
     public static Set<IModConfigProvider> getProviders()
     {
         init();
@@ -0,0 +1,337 @@
+package com.mrcrayfish.configured.client;
+
+import com.mrcrayfish.configured.api.IConfigEntry;
+import com.mrcrayfish.configured.api.IConfigValue;
+import net.minecraft.network.chat.Component;
+
+import org.jetbrains.annotations.Nullable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Records the changes made to the values of a config while it is being edited. Every edit made
+ * through the config screens goes through the journal, which allows edits to be undone and redone,
+ * and keeps track of which values differ from their initial value. This means saving only has to
+ * look at the values that were actually edited instead of walking the entire config.
+ * <p>
+ * A journal is created when a config screen is opened and shared with all the screens that edit
+ * the same config.
+ *
+ * Author: MrCrayfish
+ */
+public class EditJournal
+{
+    private static final int MAX_HISTORY = 256;
+
+    private final Deque<Edit> undoStack = new ArrayDeque<>();
+    private final Deque<Edit> redoStack = new ArrayDeque<>();
+    private final Set<IConfigValue<?>> changedValues = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /**
+     * Sets the value of the holder and records the change
+     *
+     * @param value    the value holder
+     * @param newValue the new value
+     */
+    public <T> void set(IConfigValue<T> value, T newValue)
+    {
+        this.set(value, newValue, false);
+    }
+
+    /**
+     * Sets the value of the holder and records the change. If merge is true and the last recorded
+     * edit was also a merged edit of the same value, the change is combined with it so a single
+     * undo reverts both. This is used for text fields which update the value on every key press.
+     *
+     * @param value    the value holder
+     * @param newValue the new value
+     * @param merge    if the change should be merged with the previous edit
+     */
+    public <T> void set(IConfigValue<T> value, T newValue, boolean merge)
+    {
+        Object before = copy(value.get());
+        if(Objects.equals(before, newValue))
+            return;
+
+        value.set(newValue);
+        Change change = new Change(value, before, copy(value.get()));
+        Edit last = this.undoStack.peek();
+        if(merge && last != null && last.mergeable && last.changes.size() == 1 && last.changes.get(0).value == value)
+        {
+            this.undoStack.pop();
+            Change merged = new Change(value, last.changes.get(0).before, change.after);
+            if(!Objects.equals(merged.before, merged.after))
+            {
+                this.undoStack.push(new Edit(List.of(merged), true));
+            }
+            this.redoStack.clear();
+            this.updateChanged(value);
+            return;
+        }
+        this.push(new Edit(List.of(change), merge));
+        this.updateChanged(value);
+    }
+
+    /**
+     * Restores the value of the holder to its default and records the change
+     *
+     * @param value the value holder
+     */
+    public void restore(IConfigValue<?> value)
+    {
+        this.restoreAll(List.of(value));
+    }
+
+    /**
+     * Restores the values of the holders to their defaults and records the changes as a single
+     * edit, so they can all be undone at once.
+     *
+     * @param values the value holders
+     */
+    public void restoreAll(Collection<IConfigValue<?>> values)
+    {
+        List<Change> changes = new ArrayList<>();
+        for(IConfigValue<?> value : values)
+        {
+            Object before = copy(value.get());
+            value.restore();
+            Object after = copy(value.get());
+            if(!Objects.equals(before, after))
+            {
+                changes.add(new Change(value, before, after));
+            }
+            this.updateChanged(value);
+        }
+        if(!changes.isEmpty())
+        {
+            this.push(new Edit(List.copyOf(changes), false));
+        }
+    }
+
+    /**
+     * Reverts the last edit
+     *
+     * @return the values that were affected, or an empty list if there was nothing to undo
+     */
+    public List<IConfigValue<?>> undo()
+    {
+        Edit edit = this.undoStack.poll();
+        if(edit == null)
+            return List.of();
+
+        List<IConfigValue<?>> affected = new ArrayList<>();
+        for(int i = edit.changes.size() - 1; i >= 0; i--)
+        {
+            Change change = edit.changes.get(i);
+            apply(change.value, change.before);
+            this.updateChanged(change.value);
+            affected.add(change.value);
+        }
+        // Merging must not continue after an undo
+        this.redoStack.push(new Edit(edit.changes, false));
+        return affected;
+    }
+
+    /**
+     * Applies the last undone edit again
+     *
+     * @return the values that were affected, or an empty list if there was nothing to redo
+     */
+    public List<IConfigValue<?>> redo()
+    {
+        Edit edit = this.redoStack.poll();
+        if(edit == null)
+            return List.of();
+
+        List<IConfigValue<?>> affected = new ArrayList<>();
+        for(Change change : edit.changes)
+        {
+            apply(change.value, change.after);
+            this.updateChanged(change.value);
+            affected.add(change.value);
+        }
+        this.undoStack.push(edit);
+        return affected;
+    }
+
+    public boolean canUndo()
+    {
+        return !this.undoStack.isEmpty();
+    }
+
+    public boolean canRedo()
+    {
+        return !this.redoStack.isEmpty();
+    }
+
+    /**
+     * @return true if any value is different from its value when editing started
+     */
+    public boolean hasChanges()
+    {
+        return !this.changedValues.isEmpty();
+    }
+
+    /**
+     * @return the values that are different from their value when editing started
+     */
+    public Set<IConfigValue<?>> getChangedValues()
+    {
+        return Collections.unmodifiableSet(this.changedValues);
+    }
+
+    /**
+     * Creates a config entry containing only the changed values. Passing this to
+     * {@link com.mrcrayfish.configured.api.IModConfig#update(IConfigEntry)} saves the changes
+     * without having to check every value in the config.
+     *
+     * @return a root entry with the changed values as its children
+     */
+    public IConfigEntry toEntry()
+    {
+        List<IConfigEntry> children = this.changedValues.stream().<IConfigEntry>map(ValueEntry::new).toList();
+        return new ChangesEntry(children);
+    }
+
+    private void push(Edit edit)
+    {
+        this.undoStack.push(edit);
+        this.redoStack.clear();
+        if(this.undoStack.size() > MAX_HISTORY)
+        {
+            this.undoStack.pollLast();
+        }
+    }
+
+    private void updateChanged(IConfigValue<?> value)
+    {
+        if(value.isChanged())
+        {
+            this.changedValues.add(value);
+        }
+        else
+        {
+            this.changedValues.remove(value);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static void apply(IConfigValue<?> value, Object object)
+    {
+        ((IConfigValue<Object>) value).set(copy(object));
+    }
+
+    /**
+     * Lists are copied since the list held by the value may be modified
+     */
+    private static Object copy(Object object)
+    {
+        return object instanceof List<?> list ? new ArrayList<>(list) : object;
+    }
+
+    private record Change(IConfigValue<?> value, Object before, Object after) {}
+
+    private record Edit(List<Change> changes, boolean mergeable) {}
+
+    private record ChangesEntry(List<IConfigEntry> children) implements IConfigEntry
+    {
+        @Override
+        public List<IConfigEntry> getChildren()
+        {
+            return this.children;
+        }
+
+        @Override
+        public boolean isRoot()
+        {
+            return true;
+        }
+
+        @Override
+        public boolean isLeaf()
+        {
+            return false;
+        }
+
+        @Nullable
+        @Override
+        public IConfigValue<?> getValue()
+        {
+            return null;
+        }
+
+        @Override
+        public String getEntryName()
+        {
+            return "Root";
+        }
+
+        @Nullable
+        @Override
+        public Component getTooltip()
+        {
+            return null;
+        }
+
+        @Nullable
+        @Override
+        public String getTranslationKey()
+        {
+            return null;
+        }
+    }
+
+    private record ValueEntry(IConfigValue<?> value) implements IConfigEntry
+    {
+        @Override
+        public List<IConfigEntry> getChildren()
+        {
+            return List.of();
+        }
+
+        @Override
+        public boolean isRoot()
+        {
+            return false;
+        }
+
+        @Override
+        public boolean isLeaf()
+        {
+            return true;
+        }
+
+        @Override
+        public IConfigValue<?> getValue()
+        {
+            return this.value;
+        }
+
+        @Override
+        public String getEntryName()
+        {
+            return this.value.getName();
+        }
+
+        @Nullable
+        @Override
+        public Component getTooltip()
+        {
+            return this.value.getComment();
+        }
+
+        @Nullable
+        @Override
+        public String getTranslationKey()
+        {
+            return this.value.getTranslationKey();
+        }
+    }
+}
@@ -3,6 +3,8 @@ package com.mrcrayfish.configured.client;
 import com.mrcrayfish.configured.Constants;
 import com.mrcrayfish.configured.api.IModConfig;
 import com.mrcrayfish.configured.client.screen.IEditing;
+import com.mrcrayfish.configured.jfr.ConfigLoadEvent;
+import com.mrcrayfish.configured.util.ConfigHelper;
 import net.minecraft.client.gui.screens.Screen;
 
 /**
@@ -33,7 +35,14 @@ public class EditingTracker
             if(this.editingConfig == null)
             {
                 this.editingConfig = editing.getActiveConfig();
+                ConfigLoadEvent event = new ConfigLoadEvent(this.editingConfig, false);
+                event.begin();
                 this.editingConfig.startEditing();
+                if(event.shouldCommit())
+                {
+                    event.valueCount = ConfigHelper.gatherAllConfigValues(this.editingConfig).size();
+                    event.commit();
+                }
                 Constants.LOG.info("Started editing '" + this.editingConfig.getFileName() + "'");
             }
             else if(editing.getActiveConfig() == null)
@@ -0,0 +1,70 @@
+package com.mrcrayfish.configured.client;
+
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.multiplayer.ServerData;
+import net.minecraft.resources.ResourceLocation;
+
+import org.jetbrains.annotations.Nullable;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caches the data of server configs that were requested from a server, keyed by the address of
+ * the server and the id of the config. Requests include the hash of the cached data, and the
+ * server only sends the data again if its config has changed since. The cache only lives as long
+ * as the game and keeps the most recently used configs.
+ *
+ * Author: MrCrayfish
+ */
+public final class ServerConfigCache
+{
+    private static final int MAX_ENTRIES = 32;
+    private static final Map<Key, Entry> CACHE = new LinkedHashMap<>(16, 0.75F, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest)
+        {
+            return this.size() > MAX_ENTRIES;
+        }
+    };
+
+    private ServerConfigCache() {}
+
+    /**
+     * @return the hash of the cached data of the config on the current server, or 0 if not cached
+     */
+    public static long getHash(ResourceLocation id)
+    {
+        Entry entry = CACHE.get(new Key(getServerKey(), id));
+        return entry != null ? entry.hash : 0;
+    }
+
+    /**
+     * Gets the cached data of the config on the current server
+     *
+     * @param id   the id of the config
+     * @param hash the hash the server has for the config
+     * @return the data, or null if it's not cached or the hash doesn't match
+     */
+    @Nullable
+    public static byte[] get(ResourceLocation id, long hash)
+    {
+        Entry entry = CACHE.get(new Key(getServerKey(), id));
+        return entry != null && entry.hash == hash ? entry.data : null;
+    }
+
+    public static void put(ResourceLocation id, long hash, byte[] data)
+    {
+        CACHE.put(new Key(getServerKey(), id), new Entry(hash, data));
+    }
+
+    private static String getServerKey()
+    {
+        ServerData data = Minecraft.getInstance().getCurrentServer();
+        return data != null ? data.ip : "";
+    }
+
+    private record Key(String server, ResourceLocation id) {}
+
+    private record Entry(long hash, byte[] data) {}
+}
@@ -1,14 +1,17 @@
 package com.mrcrayfish.configured.client;
 
 import com.mrcrayfish.configured.util.ConfigHelper;
+import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.entity.player.Player;
 
 import org.jetbrains.annotations.Nullable;
+import java.util.Map;
 
 public class SessionData
 {
     private static boolean developer;
     private static boolean lan;
+    private static Map<ResourceLocation, Long> manifest = Map.of();
 
     public static void setDeveloper(boolean enabled)
     {
@@ -29,4 +32,17 @@ public class SessionData
     {
         return lan;
     }
+
+    public static void setManifest(Map<ResourceLocation, Long> manifest)
+    {
+        SessionData.manifest = Map.copyOf(manifest);
+    }
+
+    /**
+     * @return the hash of the config in the manifest sent by the server, or 0 if not listed
+     */
+    public static long getManifestHash(ResourceLocation id)
+    {
+        return manifest.getOrDefault(id, 0L);
+    }
 }
@@ -0,0 +1,126 @@
+package com.mrcrayfish.configured.client.screen;
+
+import com.google.common.collect.ImmutableList;
+import com.mrcrayfish.configured.Constants;
+import com.mrcrayfish.configured.api.IModConfig;
+import com.mrcrayfish.configured.client.screen.widget.IconButton;
+import com.mrcrayfish.configured.client.util.ScreenUtil;
+import com.mrcrayfish.configured.util.ConfigBackups;
+import net.minecraft.ChatFormatting;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.gui.GuiGraphics;
+import net.minecraft.client.gui.components.Button;
+import net.minecraft.client.gui.components.events.GuiEventListener;
+import net.minecraft.client.gui.screens.Screen;
+import net.minecraft.network.chat.CommonComponents;
+import net.minecraft.network.chat.Component;
+
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.time.format.FormatStyle;
+import java.util.List;
+
+/**
+ * Lists the backups of a config file and allows them to be restored
+ *
+ * Author: MrCrayfish
+ */
+public class BackupScreen extends ListMenuScreen implements IEditing
+{
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofLocalizedDateTime(FormatStyle.MEDIUM).withZone(ZoneId.systemDefault());
+
+    private final IModConfig config;
+    private final Path file;
+    private final Screen exitScreen;
+
+    /**
+     * @param parent     the screen to return to when going back
+     * @param exitScreen the screen to open after a backup has been restored
+     * @param config     the config to restore backups for
+     * @param file       the path of the config file
+     */
+    public BackupScreen(Screen parent, Screen exitScreen, IModConfig config, Path file)
+    {
+        super(parent, Component.translatable("configured.gui.backups_title", Component.literal(config.getFileName()).withStyle(ChatFormatting.BOLD, ChatFormatting.GOLD)), 24);
+        this.config = config;
+        this.file = file;
+        this.exitScreen = exitScreen;
+    }
+
+    @Override
+    public IModConfig getActiveConfig()
+    {
+        return this.config;
+    }
+
+    @Override
+    protected void constructEntries(List<Item> entries)
+    {
+        List<ConfigBackups.Backup> backups = ConfigBackups.getBackups(this.file);
+        if(backups.isEmpty())
+        {
+            entries.add(new TitleItem(Component.translatable("configured.gui.no_backups").withStyle(ChatFormatting.GRAY)));
+            return;
+        }
+        backups.forEach(backup -> entries.add(new BackupItem(backup)));
+    }
+
+    @Override
+    protected void init()
+    {
+        super.init();
+        this.addRenderableWidget(ScreenUtil.button(this.width / 2 - 75, this.height - 29, 150, 20, CommonComponents.GUI_BACK, button -> this.minecraft.setScreen(this.parent)));
+    }
+
+    public class BackupItem extends Item
+    {
+        private final ConfigBackups.Backup backup;
+        private final Component size;
+        private final Button restoreButton;
+
+        public BackupItem(ConfigBackups.Backup backup)
+        {
+            super(DATE_FORMAT.format(backup.time()));
+            this.backup = backup;
+            this.size = Component.translatable("configured.gui.backup_size", String.format("%.1f", backup.size() / 1024.0)).withStyle(ChatFormatting.DARK_GRAY);
+            this.restoreButton = new IconButton(0, 0, 0, 0, 60, Component.translatable("configured.gui.restore"), onPress -> this.showRestoreScreen());
+        }
+
+        private void showRestoreScreen()
+        {
+            ConfirmationScreen confirmScreen = new ActiveConfirmationScreen(BackupScreen.this, BackupScreen.this.config, Component.translatable("configured.gui.restore_backup_message"), ConfirmationScreen.Icon.WARNING, result -> {
+                if(!result)
+                    return true;
+                ConfigBackups.restore(BackupScreen.this.file, this.backup).whenComplete((unused, throwable) -> {
+                    if(throwable != null) {
+                        Constants.LOG.error("Failed to restore backup of config file {}", BackupScreen.this.file, throwable);
+                    }
+                });
+                // The open config screens hold the old values, so leave the config entirely
+                Minecraft.getInstance().setScreen(BackupScreen.this.exitScreen);
+                return false;
+            });
+            confirmScreen.setPositiveText(Component.translatable("configured.gui.restore").withStyle(ChatFormatting.GOLD, ChatFormatting.BOLD));
+            confirmScreen.setNegativeText(CommonComponents.GUI_CANCEL);
+            Minecraft.getInstance().setScreen(confirmScreen);
+        }
+
+        @Override
+        public List<? extends GuiEventListener> children()
+        {
+            return ImmutableList.of(this.restoreButton);
+        }
+
+        @Override
+        public void render(GuiGraphics graphics, int x, int top, int left, int width, int height, int mouseX, int mouseY, boolean selected, float partialTicks)
+        {
+            if(x % 2 != 0) graphics.fill(left, top, left + width, top + 22, 0x55000000);
+            graphics.drawString(Minecraft.getInstance().font, this.label, left + 5, top + 2, 0xFFFFFF);
+            graphics.drawString(Minecraft.getInstance().font, this.size, left + 5, top + 12, 0xFFFFFF);
+            this.restoreButton.setX(left + width - 61);
+            this.restoreButton.setY(top + 1);
+            this.restoreButton.render(graphics, mouseX, mouseY, partialTicks);
+        }
+    }
+}
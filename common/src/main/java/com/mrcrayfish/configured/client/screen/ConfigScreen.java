@@ -9,10 +9,12 @@ import com.mrcrayfish.configured.api.ConfigType;
 import com.mrcrayfish.configured.api.IConfigEntry;
 import com.mrcrayfish.configured.api.IConfigValue;
 import com.mrcrayfish.configured.api.IModConfig;
+import com.mrcrayfish.configured.client.EditJournal;
 import com.mrcrayfish.configured.client.screen.widget.CheckBoxButton;
 import com.mrcrayfish.configured.client.screen.widget.ConfiguredButton;
 import com.mrcrayfish.configured.client.screen.widget.IconButton;
 import com.mrcrayfish.configured.client.util.ScreenUtil;
+import com.mrcrayfish.configured.jfr.ConfigSaveEvent;
 import com.mrcrayfish.configured.util.ConfigHelper;
 import joptsimple.internal.Strings;
 import net.minecraft.ChatFormatting;
@@ -35,17 +37,24 @@ import net.minecraft.resources.ResourceLocation;
 import net.minecraft.util.FormattedCharSequence;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
+import org.lwjgl.glfw.GLFW;
 
 import org.jetbrains.annotations.Nullable;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Author: MrCrayfish
@@ -72,16 +81,26 @@ public class ConfigScreen extends ListMenuScreen implements IEditing
 
     protected final IConfigEntry folderEntry;
     protected final IModConfig config;
+    protected final EditJournal journal;
     protected final Map<String, String> cachedTextMap = new HashMap<>();
     protected Button saveButton;
     protected Button restoreButton;
+    @Nullable
+    protected Button undoButton;
+    @Nullable
+    protected Button redoButton;
+    @Nullable
+    protected Button backupsButton;
     protected CheckBoxButton deepSearchCheckBox;
+    @Nullable
+    private Consumer<Set<IConfigValue<?>>> saveCallback;
 
-    private ConfigScreen(Screen parent, Component title, IModConfig config, IConfigEntry folderEntry)
+    private ConfigScreen(Screen parent, Component title, IModConfig config, IConfigEntry folderEntry, EditJournal journal)
     {
         super(parent, title, 24);
         this.config = config;
         this.folderEntry = folderEntry;
+        this.journal = journal;
     }
 
     public ConfigScreen(Screen parent, Component title, IModConfig config)
@@ -89,6 +108,7 @@ public class ConfigScreen extends ListMenuScreen implements IEditing
         super(parent, title, 24);
         this.config = config;
         this.folderEntry = config.getRoot();
+        this.journal = new EditJournal();
     }
 
     @Override
@@ -97,6 +117,14 @@ public class ConfigScreen extends ListMenuScreen implements IEditing
         return this.config;
     }
 
+    /**
+     * Sets a callback that receives the changed values after the config has been saved
+     */
+    public void setSaveCallback(@Nullable Consumer<Set<IConfigValue<?>>> saveCallback)
+    {
+        this.saveCallback = saveCallback;
+    }
+
     @Override
     public void removed()
     {
@@ -172,15 +200,20 @@ public class ConfigScreen extends ListMenuScreen implements IEditing
         {
             this.saveButton = this.addRenderableWidget(new IconButton(this.width / 2 - 140, this.height - 29, 22, 0, 90, Component.translatable("configured.gui.save"), (button) ->
             {
+                Set<IConfigValue<?>> changedValues = Set.copyOf(this.journal.getChangedValues());
                 this.saveConfig();
-                if(ConfigHelper.getChangedValues(this.folderEntry).stream().anyMatch(IConfigValue::requiresGameRestart))
+                if(this.saveCallback != null && !changedValues.isEmpty())
+                {
+                    this.saveCallback.accept(changedValues);
+                }
+                if(changedValues.stream().anyMatch(IConfigValue::requiresGameRestart))
                 {
                     ConfirmationScreen confirm = new ConfirmationScreen(this.parent, Component.translatable("configured.gui.game_restart_needed"), ConfirmationScreen.Icon.INFO, result -> true);
                     confirm.setPositiveText(Component.translatable("configured.gui.close"));
                     confirm.setNegativeText(null);
                     this.minecraft.setScreen(confirm);
                 }
-                else if(this.minecraft.level != null && ConfigHelper.getChangedValues(this.folderEntry).stream().anyMatch(IConfigValue::requiresWorldRestart))
+                else if(this.minecraft.level != null && changedValues.stream().anyMatch(IConfigValue::requiresWorldRestart))
                 {
                     ConfirmationScreen confirm = new ConfirmationScreen(this.parent, Component.translatable("configured.gui.world_restart_needed"), ConfirmationScreen.Icon.INFO, result -> true);
                     confirm.setPositiveText(Component.translatable("configured.gui.close"));
@@ -201,7 +234,7 @@ public class ConfigScreen extends ListMenuScreen implements IEditing
             }));
             this.addRenderableWidget(ScreenUtil.button(this.width / 2 + 50, this.height - 29, 90, 20, CommonComponents.GUI_CANCEL, (button) ->
             {
-                if(this.isChanged(this.folderEntry))
+                if(this.journal.hasChanges())
                 {
                     this.minecraft.setScreen(new ActiveConfirmationScreen(this, ConfigScreen.this.config, Component.translatable("configured.gui.unsaved_changes"), ConfirmationScreen.Icon.WARNING, result -> {
                         if(!result) return true;
@@ -214,7 +247,14 @@ public class ConfigScreen extends ListMenuScreen implements IEditing
                     this.minecraft.setScreen(this.parent);
                 }
             }));
-            this.updateButtons();
+
+            Path file = this.config.getFilePath();
+            if(!this.config.isReadOnly() && file != null)
+            {
+                this.backupsButton = this.addRenderableWidget(new IconButton(this.width - 30, 14, 22, 0, button -> {
+                    this.minecraft.setScreen(new BackupScreen(this, this.parent, this.config, file));
+                }));
+            }
         }
         else
         {
@@ -234,23 +274,100 @@ public class ConfigScreen extends ListMenuScreen implements IEditing
             this.addRenderableWidget(ScreenUtil.button(this.width / 2 + 2, this.height - 29, 128, 20, CommonComponents.GUI_BACK, button -> this.minecraft.setScreen(this.parent)));
         }
 
+        if(!this.config.isReadOnly())
+        {
+            // Sit directly left of the footer row, or move up to the header if the window is too narrow
+            int footerLeft = this.width / 2 - (this.folderEntry.isRoot() ? 140 : 130);
+            int undoX = footerLeft - 46;
+            int undoY = this.height - 29;
+            if(undoX < 10)
+            {
+                undoX = 10;
+                undoY = 14;
+            }
+            this.undoButton = this.addRenderableWidget(ScreenUtil.button(undoX, undoY, 20, 20, Component.literal("\u21B6"), button -> this.undo()));
+            this.undoButton.setTooltip(Tooltip.create(Component.translatable("configured.gui.undo")));
+            this.redoButton = this.addRenderableWidget(ScreenUtil.button(undoX + 22, undoY, 20, 20, Component.literal("\u21B7"), button -> this.redo()));
+            this.redoButton.setTooltip(Tooltip.create(Component.translatable("configured.gui.redo")));
+        }
+        this.updateButtons();
+
         this.deepSearchCheckBox = new CheckBoxButton(this.width / 2 + 115, 25, button -> this.updateSearchResults());
         this.addRenderableWidget(this.deepSearchCheckBox);
     }
 
+    @Override
+    public boolean keyPressed(int key, int scanCode, int modifiers)
+    {
+        if(super.keyPressed(key, scanCode, modifiers))
+            return true;
+
+        if(Screen.hasControlDown() && !this.config.isReadOnly())
+        {
+            if(key == GLFW.GLFW_KEY_Z && !Screen.hasShiftDown())
+            {
+                this.undo();
+                return true;
+            }
+            if(key == GLFW.GLFW_KEY_Y || (key == GLFW.GLFW_KEY_Z && Screen.hasShiftDown()))
+            {
+                this.redo();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void undo()
+    {
+        this.refreshItems(this.journal.undo());
+    }
+
+    private void redo()
+    {
+        this.refreshItems(this.journal.redo());
+    }
+
+    /**
+     * Updates the widgets of the items for the given values after they were changed by undo/redo
+     */
+    private void refreshItems(List<IConfigValue<?>> values)
+    {
+        if(values.isEmpty())
+            return;
+
+        Set<IConfigValue<?>> changed = Collections.newSetFromMap(new IdentityHashMap<>());
+        changed.addAll(values);
+        changed.forEach(value -> this.cachedTextMap.remove(value.getName()));
+        Stream.concat(this.entries.stream(), this.list.children().stream()).distinct().forEach(item -> {
+            if(item instanceof ConfigItem<?> configItem && changed.contains(configItem.holder)) {
+                configItem.onResetValue();
+            }
+        });
+        this.updateButtons();
+    }
+
     private void saveConfig()
     {
         // Don't need to save if nothing changed
-        if(!this.isChanged(this.folderEntry) || this.config == null)
+        if(!this.journal.hasChanges() || this.config == null)
             return;
-        this.config.update(this.folderEntry);
+
+        // Only the values that were edited need to be checked when saving
+        ConfigSaveEvent event = new ConfigSaveEvent(this.config);
+        event.changedCount = this.journal.getChangedValues().size();
+        event.begin();
+        this.config.update(this.journal.toEntry());
+        event.commit();
     }
 
     private void showRestoreScreen()
     {
         ConfirmationScreen confirmScreen = new ActiveConfirmationScreen(ConfigScreen.this, ConfigScreen.this.config, Component.translatable("configured.gui.restore_message"), ConfirmationScreen.Icon.WARNING, result -> {
             if(!result) return true;
-            this.restoreDefaults(this.folderEntry);
+            List<IConfigValue<?>> values = new ArrayList<>();
+            this.gatherValues(this.folderEntry, values);
+            this.journal.restoreAll(values);
             this.updateButtons();
             return true;
         });
@@ -259,27 +376,35 @@ public class ConfigScreen extends ListMenuScreen implements IEditing
         Minecraft.getInstance().setScreen(confirmScreen);
     }
 
-    private void restoreDefaults(IConfigEntry entry)
+    private void gatherValues(IConfigEntry entry, List<IConfigValue<?>> values)
     {
         for(IConfigEntry child : entry.getChildren())
         {
             if(child.isLeaf())
             {
                 IConfigValue<?> value = child.getValue();
-                if(value != null) value.restore();
+                if(value != null) values.add(value);
                 continue;
             }
-            this.restoreDefaults(child);
+            this.gatherValues(child, values);
         }
     }
 
-    private void updateButtons()
+    void updateButtons()
     {
+        if(this.undoButton != null)
+        {
+            this.undoButton.active = this.journal.canUndo();
+        }
+        if(this.redoButton != null)
+        {
+            this.redoButton.active = this.journal.canRedo();
+        }
         if(this.folderEntry.isRoot())
         {
             if(this.saveButton != null)
             {
-                this.saveButton.active = !this.config.isReadOnly() && this.isChanged(this.folderEntry);
+                this.saveButton.active = !this.config.isReadOnly() && this.journal.hasChanges();
             }
             if(this.restoreButton != null)
             {
@@ -305,13 +430,30 @@ public class ConfigScreen extends ListMenuScreen implements IEditing
         {
             this.setActiveTooltip(Component.translatable("configured.gui.deep_search"));
         }
+        else if(this.backupsButton != null && this.backupsButton.isMouseOver(mouseX, mouseY))
+        {
+            this.setActiveTooltip(Component.translatable("configured.gui.backups"));
+        }
     }
 
     @Override
     protected Collection<Item> getSearchResults(String s)
+    {
+        return this.getSearchResults(s, this.deepSearchCheckBox.isSelected());
+    }
+
+    /**
+     * Gets the items with a label containing the search query
+     *
+     * @param s          the search query
+     * @param deepSearch true to search all the values in this folder and its sub folders, otherwise
+     *                   only the items shown on this screen are searched
+     * @return the matching items
+     */
+    Collection<Item> getSearchResults(String s, boolean deepSearch)
     {
         List<Item> entries = this.entries;
-        if(this.deepSearchCheckBox.isSelected())
+        if(deepSearch)
         {
             List<Item> allEntries = new ArrayList<>();
             ConfigHelper.gatherAllConfigEntries(this.folderEntry).forEach(entry -> {
@@ -323,12 +465,14 @@ public class ConfigScreen extends ListMenuScreen implements IEditing
             allEntries.sort(SORT_ALPHABETICALLY);
             entries = allEntries;
         }
+        boolean includeFolders = Config.isIncludeFoldersInSearch();
+        String query = s.toLowerCase(Locale.ENGLISH);
         return entries.stream().filter(item -> {
             if(item instanceof IIgnoreSearch)
                 return false;
-            if(item instanceof FolderItem && !Config.isIncludeFoldersInSearch())
+            if(item instanceof FolderItem && !includeFolders)
                 return false;
-            return item.getLabel().toLowerCase(Locale.ENGLISH).contains(s.toLowerCase(Locale.ENGLISH));
+            return item.getLabel().toLowerCase(Locale.ENGLISH).contains(query);
         }).collect(Collectors.toList());
     }
 
@@ -341,7 +485,7 @@ public class ConfigScreen extends ListMenuScreen implements IEditing
             super(createLabelForFolderEntry(entry));
             this.button = new IconButton(10, 5, 11, 33, 0, Component.literal(this.getLabel()).withStyle(ChatFormatting.BOLD).withStyle(ChatFormatting.WHITE), onPress -> {
                 Component newTitle = ConfigScreen.this.title.copy().append(Component.literal(" > ").withStyle(ChatFormatting.GOLD, ChatFormatting.BOLD)).append(this.getLabel());
-                ConfigScreen.this.minecraft.setScreen(new ConfigScreen(ConfigScreen.this, newTitle, ConfigScreen.this.config, entry));
+                ConfigScreen.this.minecraft.setScreen(new ConfigScreen(ConfigScreen.this, newTitle, ConfigScreen.this.config, entry, ConfigScreen.this.journal));
             });
             if(entry.getTooltip() != null)
             {
@@ -391,7 +535,7 @@ public class ConfigScreen extends ListMenuScreen implements IEditing
             //TODO I need custom widths!
             int maxTooltipWidth = Math.max(ConfigScreen.this.width / 2 - 43, 170);
             this.resetButton = new IconButton(0, 0, 0, 0, onPress -> {
-                this.holder.restore();
+                ConfigScreen.this.journal.restore(this.holder);
                 this.onResetValue();
                 ConfigScreen.this.updateButtons();
             });
@@ -526,7 +670,7 @@ public class ConfigScreen extends ListMenuScreen implements IEditing
                     if(holder.isValid((T) n))
                     {
                         this.textField.setTextColor(14737632);
-                        holder.set((T) n);
+                        ConfigScreen.this.journal.set(holder, (T) n, true);
                         ConfigScreen.this.updateButtons();
                         this.setValidationHint(null);
                     }
@@ -601,7 +745,7 @@ public class ConfigScreen extends ListMenuScreen implements IEditing
         {
             super(holder);
             this.button = ScreenUtil.button(10, 5, 46, 20, CommonComponents.optionStatus(holder.get()), button -> {
-                holder.set(!holder.get());
+                ConfigScreen.this.journal.set(holder, !holder.get());
                 button.setMessage(CommonComponents.optionStatus(holder.get()));
                 ConfigScreen.this.updateButtons();
             });
@@ -636,7 +780,7 @@ public class ConfigScreen extends ListMenuScreen implements IEditing
             this.button = ScreenUtil.button(10, 5, 46, 20, buttonText, button -> Minecraft.getInstance().setScreen(new EditStringScreen(ConfigScreen.this, ConfigScreen.this.config, this.label, holder.get(), s -> {
                 return holder.isValid(s) ? Pair.of(true, CommonComponents.EMPTY) : Pair.of(false, holder.getValidationHint());
             }, s -> {
-                holder.set(s);
+                ConfigScreen.this.journal.set(holder, s);
                 ConfigScreen.this.updateButtons();
             })));
             this.eventListeners.add(this.button);
@@ -660,7 +804,7 @@ public class ConfigScreen extends ListMenuScreen implements IEditing
         {
             super(holder);
             Component buttonText = ConfigScreen.this.config.isReadOnly() ? Component.translatable("configured.gui.view") : Component.translatable("configured.gui.edit");
-            this.button = ScreenUtil.button(10, 5, 46, 20, buttonText, button -> Minecraft.getInstance().setScreen(new EditListScreen(ConfigScreen.this, ConfigScreen.this.config, this.label, holder)));
+            this.button = ScreenUtil.button(10, 5, 46, 20, buttonText, button -> Minecraft.getInstance().setScreen(new EditListScreen(ConfigScreen.this, ConfigScreen.this.config, this.label, holder, ConfigScreen.this.journal)));
             this.eventListeners.add(this.button);
         }
 
@@ -683,7 +827,7 @@ public class ConfigScreen extends ListMenuScreen implements IEditing
             super(holder);
             Component buttonText = ConfigScreen.this.config.isReadOnly() ? Component.translatable("configured.gui.view") : Component.translatable("configured.gui.change");
             this.button = ScreenUtil.button(10, 5, 46, 20, buttonText, button -> Minecraft.getInstance().setScreen(new ChangeEnumScreen(ConfigScreen.this, ConfigScreen.this.config, this.label, holder.get(), holder, e -> {
-                holder.set(e);
+                ConfigScreen.this.journal.set(holder, e);
                 ConfigScreen.this.updateButtons();
             })));
             this.eventListeners.add(this.button);
@@ -4,6 +4,7 @@ import com.google.common.collect.ImmutableList;
 import com.mojang.blaze3d.vertex.PoseStack;
 import com.mrcrayfish.configured.api.IConfigValue;
 import com.mrcrayfish.configured.api.IModConfig;
+import com.mrcrayfish.configured.client.EditJournal;
 import com.mrcrayfish.configured.client.screen.list.IListType;
 import com.mrcrayfish.configured.client.screen.list.ListTypes;
 import com.mrcrayfish.configured.client.screen.widget.ConfiguredButton;
@@ -24,6 +25,7 @@ import net.minecraft.network.chat.Component;
 import net.minecraft.resources.ResourceLocation;
 import org.apache.commons.lang3.tuple.Pair;
 
+import org.jetbrains.annotations.Nullable;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -40,14 +42,25 @@ public class EditListScreen<T> extends Screen implements IEditing
     private final List<StringHolder> values = new ArrayList<>();
     private final IConfigValue<List<T>> holder;
     private final IListType<T> listType;
+    @Nullable
+    private final EditJournal journal;
     private ObjectList list;
 
     public EditListScreen(Screen parent, IModConfig config, Component titleIn, IConfigValue<List<T>> holder)
+    {
+        this(parent, config, titleIn, holder, null);
+    }
+
+    /**
+     * @param journal the journal to record the change to the list in, or null to set it directly
+     */
+    public EditListScreen(Screen parent, IModConfig config, Component titleIn, IConfigValue<List<T>> holder, @Nullable EditJournal journal)
     {
         super(titleIn);
         this.parent = parent;
         this.config = config;
         this.holder = holder;
+        this.journal = journal;
         this.listType = ListTypes.getType(holder);
         this.initialValues.addAll(holder.get().stream().map(o -> new StringHolder(this.listType.getStringParser().apply(o))).toList());
         this.values.addAll(this.initialValues);
@@ -62,7 +75,14 @@ public class EditListScreen<T> extends Screen implements IEditing
         {
             this.addRenderableWidget(new IconButton(this.width / 2 - 140, this.height - 29, 0, 44, 90, Component.translatable("configured.gui.apply"), (button) -> {
                 List<T> newValues = this.values.stream().map(StringHolder::getValue).map(s -> this.listType.getValueParser().apply(s)).collect(Collectors.toList());
-                this.holder.set(newValues);
+                if(this.journal != null)
+                {
+                    this.journal.set(this.holder, newValues);
+                }
+                else
+                {
+                    this.holder.set(newValues);
+                }
                 this.minecraft.setScreen(this.parent);
             }));
             this.addRenderableWidget(new IconButton(this.width / 2 - 45, this.height - 29, 22, 33, 90, Component.translatable("configured.gui.add_value"), (button) -> {
@@ -6,6 +6,8 @@ import com.mojang.blaze3d.vertex.PoseStack;
 import com.mrcrayfish.configured.Constants;
 import com.mrcrayfish.configured.client.screen.widget.IconButton;
 import com.mrcrayfish.configured.client.util.ScreenUtil;
+import com.mrcrayfish.configured.jfr.ScreenInitEvent;
+import com.mrcrayfish.configured.jfr.ScreenSearchEvent;
 import com.mrcrayfish.configured.util.ConfigHelper;
 import net.minecraft.ChatFormatting;
 import net.minecraft.client.gui.ComponentPath;
@@ -64,9 +66,20 @@ public abstract class ListMenuScreen extends TooltipScreen
     protected void init()
     {
         // Constructs a list of entries and adds them to an option list
+        ScreenInitEvent event = new ScreenInitEvent(this.getClass().getSimpleName());
+        event.begin();
         List<Item> entries = new ArrayList<>();
         this.constructEntries(entries);
         this.entries = ImmutableList.copyOf(entries); //Should this still be immutable?
+        if(event.shouldCommit())
+        {
+            if(this instanceof IEditing editing && editing.getActiveConfig() != null)
+            {
+                event.fileName = editing.getActiveConfig().getFileName();
+            }
+            event.entryCount = this.entries.size();
+            event.commit();
+        }
         this.list = new EntryList(this.entries);
         //this.list.setRenderBackground(!ConfigHelper.isPlayingGame());
         this.addWidget(this.list);
@@ -82,8 +95,13 @@ public abstract class ListMenuScreen extends TooltipScreen
     protected void updateSearchResults()
     {
         String query = this.searchTextField.getValue();
+        ScreenSearchEvent event = new ScreenSearchEvent(this.getClass().getSimpleName(), query.length());
+        event.begin();
         ScreenUtil.updateSearchTextFieldSuggestion(this.searchTextField, query, this.entries);
-        this.list.replaceEntries(query.isEmpty() ? this.entries : this.getSearchResults(query));
+        Collection<Item> results = query.isEmpty() ? this.entries : this.getSearchResults(query);
+        this.list.replaceEntries(results);
+        event.resultCount = results.size();
+        event.commit();
         if(!query.isEmpty())
         {
             this.list.setScrollAmount(0);
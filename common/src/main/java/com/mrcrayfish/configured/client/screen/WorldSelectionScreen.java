@@ -5,20 +5,28 @@ import com.google.common.hash.Hashing;
 import com.mojang.blaze3d.platform.NativeImage;
 import com.mojang.blaze3d.systems.RenderSystem;
 import com.mojang.blaze3d.vertex.PoseStack;
+import com.mrcrayfish.configured.Constants;
+import com.mrcrayfish.configured.api.IConfigValue;
 import com.mrcrayfish.configured.api.IModConfig;
+import com.mrcrayfish.configured.client.screen.widget.CheckBoxButton;
 import com.mrcrayfish.configured.client.screen.widget.IconButton;
 import com.mrcrayfish.configured.client.util.ScreenUtil;
+import com.mrcrayfish.configured.jfr.ConfigLoadEvent;
 import com.mrcrayfish.configured.platform.Services;
+import com.mrcrayfish.configured.util.ConfigHelper;
+import com.mrcrayfish.configured.util.WorldConfigUpdater;
 import net.minecraft.ChatFormatting;
 import net.minecraft.Util;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.GuiGraphics;
 import net.minecraft.client.gui.components.Button;
+import net.minecraft.client.gui.components.Tooltip;
 import net.minecraft.client.gui.components.events.GuiEventListener;
 import net.minecraft.client.gui.screens.Screen;
 import net.minecraft.client.renderer.texture.DynamicTexture;
 import net.minecraft.network.chat.CommonComponents;
 import net.minecraft.network.chat.Component;
+import net.minecraft.network.chat.MutableComponent;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.level.storage.LevelResource;
 import net.minecraft.world.level.storage.LevelStorageException;
@@ -26,13 +34,25 @@ import net.minecraft.world.level.storage.LevelStorageSource;
 import net.minecraft.world.level.storage.LevelSummary;
 import org.apache.commons.io.file.PathUtils;
 
+import org.jetbrains.annotations.Nullable;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
  * Author: MrCrayfish
@@ -43,6 +63,18 @@ public class WorldSelectionScreen extends ListMenuScreen
     private static final ResourceLocation MISSING_ICON = new ResourceLocation("textures/misc/unknown_server.png");
 
     private final IModConfig config;
+    private final Map<String, Path> worldConfigPaths = new ConcurrentHashMap<>();
+    @Nullable
+    private List<LevelSummary> levels;
+    @Nullable
+    private LoadedWorld loadedWorld;
+    @Nullable
+    private WorldItem loadingItem;
+    private final Map<String, String> selectedWorlds = new LinkedHashMap<>();
+    private final Set<String> pendingUpdates = new HashSet<>();
+    private final Map<String, WorldConfigUpdater.Result> updateResults = new HashMap<>();
+    @Nullable
+    private Button editSelectedButton;
 
     public WorldSelectionScreen(Screen parent, IModConfig config, Component title)
     {
@@ -55,8 +87,13 @@ public class WorldSelectionScreen extends ListMenuScreen
     {
         try
         {
-            LevelStorageSource source = Minecraft.getInstance().getLevelSource();
-            List<LevelSummary> levels = new ArrayList<>(source.loadLevelSummaries(source.findLevelCandidates()).join());
+            // Level summaries are only loaded once since this screen is returned to after editing
+            if(this.levels == null)
+            {
+                LevelStorageSource source = Minecraft.getInstance().getLevelSource();
+                this.levels = List.copyOf(source.loadLevelSummaries(source.findLevelCandidates()).join());
+            }
+            List<LevelSummary> levels = new ArrayList<>(this.levels);
             if(levels.size() > 6)
             {
                 entries.add(new TitleItem(Component.translatable("configured.gui.title.recently_played").withStyle(ChatFormatting.BOLD, ChatFormatting.YELLOW)));
@@ -79,7 +116,67 @@ public class WorldSelectionScreen extends ListMenuScreen
     protected void init()
     {
         super.init();
-        this.addRenderableWidget(ScreenUtil.button(this.width / 2 - 75, this.height - 29, 150, 20, CommonComponents.GUI_BACK, button -> this.minecraft.setScreen(this.parent)));
+        if(this.config.isReadOnly())
+        {
+            this.addRenderableWidget(ScreenUtil.button(this.width / 2 - 75, this.height - 29, 150, 20, CommonComponents.GUI_BACK, button -> this.minecraft.setScreen(this.parent)));
+            return;
+        }
+        this.editSelectedButton = this.addRenderableWidget(ScreenUtil.button(this.width / 2 - 152, this.height - 29, 150, 20, CommonComponents.EMPTY, button -> this.editSelectedWorlds()));
+        this.editSelectedButton.setTooltip(Tooltip.create(Component.translatable("configured.gui.edit_selected_info")));
+        this.addRenderableWidget(ScreenUtil.button(this.width / 2 + 2, this.height - 29, 150, 20, CommonComponents.GUI_BACK, button -> this.minecraft.setScreen(this.parent)));
+        this.updateEditSelectedButton();
+    }
+
+    private void updateEditSelectedButton()
+    {
+        if(this.editSelectedButton != null)
+        {
+            this.editSelectedButton.setMessage(Component.translatable("configured.gui.edit_selected", this.selectedWorlds.size()));
+            this.editSelectedButton.active = !this.selectedWorlds.isEmpty() && this.loadingItem == null;
+        }
+    }
+
+    /**
+     * Opens the config of the first selected world for editing. Once saved, the changes are also
+     * applied to the config of the other selected worlds.
+     */
+    private void editSelectedWorlds()
+    {
+        if(this.selectedWorlds.isEmpty())
+            return;
+
+        String levelId = this.selectedWorlds.keySet().iterator().next();
+        Map<String, String> others = new LinkedHashMap<>(this.selectedWorlds);
+        others.remove(levelId);
+        this.entries.stream()
+                .filter(item -> item instanceof WorldItem worldItem && worldItem.levelId.equals(levelId))
+                .findFirst()
+                .ifPresent(item -> ((WorldItem) item).loadWorldConfig(levelId, item.getLabel(), others));
+    }
+
+    /**
+     * Applies the changed values to the config of the given worlds in parallel. The result for
+     * each world is shown in its row once the update has finished.
+     *
+     * @param worlds a map of the level ids to the names of the worlds
+     * @param values the changed values
+     */
+    private void applyToWorlds(Map<String, String> worlds, Set<IConfigValue<?>> values)
+    {
+        Map<List<String>, Object> changes = WorldConfigUpdater.getChanges(values);
+        if(changes.isEmpty())
+            return;
+
+        String fileName = this.config.getFileName();
+        worlds.forEach((levelId, name) -> {
+            this.updateResults.remove(levelId);
+            this.pendingUpdates.add(levelId);
+            WorldConfigUpdater.apply(name, () -> this.getWorldConfigPath(levelId).resolve(fileName), changes).thenAcceptAsync(result -> {
+                this.pendingUpdates.remove(levelId);
+                this.updateResults.put(levelId, result);
+            }, this.minecraft);
+        });
+        this.selectedWorlds.clear();
     }
 
     @Override
@@ -116,18 +213,69 @@ public class WorldSelectionScreen extends ListMenuScreen
         });
     }
 
+    /**
+     * Checks if the config currently holds the data of the given world and the file has not been
+     * modified since it was loaded, in which case it does not need to be loaded again.
+     */
+    private boolean isWorldLoaded(String levelId)
+    {
+        LoadedWorld loaded = this.loadedWorld;
+        if(loaded == null || !loaded.levelId.equals(levelId))
+            return false;
+
+        Path file = this.config.getFilePath();
+        if(file == null || !file.equals(loaded.file))
+            return false;
+
+        try
+        {
+            return Files.getLastModifiedTime(file).equals(loaded.modified);
+        }
+        catch(IOException e)
+        {
+            return false;
+        }
+    }
+
+    /**
+     * Resolves the server config folder of the given world. This requires taking the session lock
+     * of the world, so the result is cached for the lifetime of this screen.
+     */
+    private Path getWorldConfigPath(String levelId) throws IOException
+    {
+        Path cached = this.worldConfigPaths.get(levelId);
+        if(cached != null && Files.isDirectory(cached))
+            return cached;
+
+        try(LevelStorageSource.LevelStorageAccess storageAccess = Minecraft.getInstance().getLevelSource().createAccess(levelId))
+        {
+            Path worldConfigPath = storageAccess.getLevelPath(SERVER_CONFIG_FOLDER);
+            PathUtils.createParentDirectories(worldConfigPath);
+            if(!Files.isDirectory(worldConfigPath))
+                Files.createDirectory(worldConfigPath);
+            this.worldConfigPaths.put(levelId, worldConfigPath);
+            return worldConfigPath;
+        }
+    }
+
+    private record LoadedWorld(String levelId, Path file, FileTime modified) {}
+
     public class WorldItem extends Item
     {
+        private final String levelId;
         private final Component worldName;
         private final Component folderName;
         private final ResourceLocation iconId;
         private Path iconFile;
         private final DynamicTexture texture;
         private final Button modifyButton;
+        @Nullable
+        private final CheckBoxButton selectCheckBox;
 
         public WorldItem(LevelSummary summary)
         {
             super(summary.getLevelName());
+            this.levelId = summary.getLevelId();
             this.worldName = Component.literal(summary.getLevelName());
             this.folderName = Component.literal(summary.getLevelId()).withStyle(ChatFormatting.DARK_GRAY);
             this.iconId = new ResourceLocation("minecraft", "worlds/" + Util.sanitizeName(summary.getLevelId(), ResourceLocation::validPathChar) + "/" + Hashing.sha1().hashUnencodedChars(summary.getLevelId()) + "/icon");
@@ -137,8 +285,27 @@ public class WorldSelectionScreen extends ListMenuScreen
             }
             this.texture = this.loadWorldIcon();
             this.modifyButton = new IconButton(0, 0, 0, this.getIconV(), 60, this.getButtonLabel(), onPress -> {
-                this.loadWorldConfig(summary.getLevelId(), summary.getLevelName());
+                this.loadWorldConfig(summary.getLevelId(), summary.getLevelName(), Map.of());
             });
+            if(!WorldSelectionScreen.this.config.isReadOnly())
+            {
+                this.selectCheckBox = new CheckBoxButton(0, 0, button -> {
+                    if(((CheckBoxButton) button).isSelected())
+                    {
+                        WorldSelectionScreen.this.selectedWorlds.put(summary.getLevelId(), summary.getLevelName());
+                    }
+                    else
+                    {
+                        WorldSelectionScreen.this.selectedWorlds.remove(summary.getLevelId());
+                    }
+                    WorldSelectionScreen.this.updateEditSelectedButton();
+                });
+                this.selectCheckBox.setSelected(WorldSelectionScreen.this.selectedWorlds.containsKey(summary.getLevelId()));
+            }
+            else
+            {
+                this.selectCheckBox = null;
+            }
         }
 
         private Component getButtonLabel()
@@ -162,6 +329,10 @@ public class WorldSelectionScreen extends ListMenuScreen
         @Override
         public List<? extends GuiEventListener> children()
         {
+            if(this.selectCheckBox != null)
+            {
+                return ImmutableList.of(this.selectCheckBox, this.modifyButton);
+            }
             return ImmutableList.of(this.modifyButton);
         }
 
@@ -173,12 +344,50 @@ public class WorldSelectionScreen extends ListMenuScreen
             RenderSystem.setShaderColor(1.0F, 1.0F, 1.0F, 1.0F);
             graphics.blit(this.texture != null ? this.iconId : MISSING_ICON, left, top, 24, 24, 0, 0, 64, 64, 64, 64);
             graphics.drawString(WorldSelectionScreen.this.minecraft.font, this.worldName, left + 30, top + 3, 0xFFFFFF);
-            graphics.drawString(WorldSelectionScreen.this.minecraft.font, this.folderName, left + 30, top + 13, 0xFFFFFF);
+            if(WorldSelectionScreen.this.loadingItem == this)
+            {
+                String dots = switch((int) (Util.getMillis() / 300L % 4L)) {
+                    default -> "O o o";
+                    case 1, 3 -> "o O o";
+                    case 2 -> "o o O";
+                };
+                Component label = Component.translatable("configured.gui.requesting_config").append(" " + dots).withStyle(ChatFormatting.GRAY);
+                graphics.drawString(WorldSelectionScreen.this.minecraft.font, label, left + 30, top + 13, 0xFFFFFF);
+            }
+            else
+            {
+                graphics.drawString(WorldSelectionScreen.this.minecraft.font, this.getStatus(), left + 30, top + 13, 0xFFFFFF);
+            }
+            if(this.selectCheckBox != null)
+            {
+                this.selectCheckBox.setX(left + width - 79);
+                this.selectCheckBox.setY(top + 5);
+                this.selectCheckBox.render(graphics, mouseX, mouseY, partialTicks);
+            }
+            this.modifyButton.active = WorldSelectionScreen.this.loadingItem == null;
             this.modifyButton.setX(left + width - 61);
             this.modifyButton.setY(top + 2);
             this.modifyButton.render(graphics, mouseX, mouseY, partialTicks);
         }
 
+        /**
+         * @return the result of updating this world from another world, otherwise the folder name
+         */
+        private Component getStatus()
+        {
+            if(WorldSelectionScreen.this.pendingUpdates.contains(this.levelId))
+            {
+                return Component.translatable("configured.gui.world_update.pending").withStyle(ChatFormatting.GRAY);
+            }
+            WorldConfigUpdater.Result result = WorldSelectionScreen.this.updateResults.get(this.levelId);
+            if(result != null)
+            {
+                String key = "configured.gui.world_update." + result.outcome().name().toLowerCase(Locale.ROOT);
+                return Component.translatable(key).withStyle(result.outcome().isSuccess() ? ChatFormatting.GREEN : ChatFormatting.RED);
+            }
+            return this.folderName;
+        }
+
         private DynamicTexture loadWorldIcon()
         {
             if(this.iconFile == null)
@@ -203,25 +412,89 @@ public class WorldSelectionScreen extends ListMenuScreen
             }
         }
 
-        private void loadWorldConfig(String worldFileName, String worldName)
+        /**
+         * Loads the config of the world on a background thread, since it requires taking the
+         * session lock of the world and parsing the config. The row of the world shows the
+         * progress until the config has been loaded.
+         */
+        private void loadWorldConfig(String worldFileName, String worldName, Map<String, String> otherWorlds)
         {
-            try(LevelStorageSource.LevelStorageAccess storageAccess = Minecraft.getInstance().getLevelSource().createAccess(worldFileName))
+            if(WorldSelectionScreen.this.loadingItem != null)
+                return;
+
+            if(WorldSelectionScreen.this.isWorldLoaded(worldFileName))
             {
-                Path worldConfigPath = storageAccess.getLevelPath(SERVER_CONFIG_FOLDER);
-                PathUtils.createParentDirectories(worldConfigPath);
-                if(!Files.isDirectory(worldConfigPath))
-                    Files.createDirectory(worldConfigPath);
-                WorldSelectionScreen.this.config.loadWorldConfig(worldConfigPath, T -> {
-                    if(Services.PLATFORM.isModLoaded(T.getModId())) {
-                        Component configName = Component.literal(ModConfigSelectionScreen.createLabelFromModConfig(WorldSelectionScreen.this.config));
-                        Component newTitle = Component.literal(worldName).copy().append(Component.literal(" > ").withStyle(ChatFormatting.GOLD, ChatFormatting.BOLD)).append(configName);
-                        WorldSelectionScreen.this.minecraft.setScreen(new ConfigScreen(WorldSelectionScreen.this.parent, newTitle, T));
-                    }
-                });
+                this.openConfigScreen(WorldSelectionScreen.this.config, worldName, otherWorlds);
+                return;
             }
-            catch(IOException e)
+
+            IModConfig config = WorldSelectionScreen.this.config;
+            WorldSelectionScreen.this.loadingItem = this;
+            WorldSelectionScreen.this.loadedWorld = null;
+            WorldSelectionScreen.this.updateEditSelectedButton();
+            CompletableFuture.supplyAsync(() -> {
+                try
+                {
+                    Path worldConfigPath = WorldSelectionScreen.this.getWorldConfigPath(worldFileName);
+                    AtomicReference<IModConfig> result = new AtomicReference<>();
+                    ConfigLoadEvent event = new ConfigLoadEvent(config, true);
+                    event.begin();
+                    config.loadWorldConfig(worldConfigPath, result::set);
+                    if(event.shouldCommit() && result.get() != null)
+                    {
+                        event.valueCount = ConfigHelper.gatherAllConfigValues(result.get()).size();
+                        event.commit();
+                    }
+                    return result.get();
+                }
+                catch(IOException e)
+                {
+                    throw new CompletionException(e);
+                }
+            }, Util.backgroundExecutor()).whenCompleteAsync((loaded, throwable) -> {
+                WorldSelectionScreen.this.loadingItem = null;
+                WorldSelectionScreen.this.updateEditSelectedButton();
+                if(throwable != null)
+                {
+                    Constants.LOG.error("Failed to load world config for {}", worldFileName, throwable);
+                    return;
+                }
+                if(loaded == null)
+                    return;
+
+                // The player left this screen while loading, so unload the config again
+                if(WorldSelectionScreen.this.minecraft.screen != WorldSelectionScreen.this)
+                {
+                    loaded.stopEditing();
+                    return;
+                }
+
+                Path file = loaded.getFilePath();
+                if(file != null)
+                {
+                    try
+                    {
+                        WorldSelectionScreen.this.loadedWorld = new LoadedWorld(worldFileName, file, Files.getLastModifiedTime(file));
+                    }
+                    catch(IOException ignored) {}
+                }
+                this.openConfigScreen(loaded, worldName, otherWorlds);
+            }, WorldSelectionScreen.this.minecraft);
+        }
+
+        private void openConfigScreen(IModConfig config, String worldName, Map<String, String> otherWorlds)
+        {
+            if(Services.PLATFORM.isModLoaded(config.getModId()))
             {
-                e.printStackTrace();
+                Component configName = Component.literal(ModConfigSelectionScreen.createLabelFromModConfig(WorldSelectionScreen.this.config));
+                MutableComponent newTitle = Component.literal(worldName).copy().append(Component.literal(" > ").withStyle(ChatFormatting.GOLD, ChatFormatting.BOLD)).append(configName);
+                ConfigScreen screen = new ConfigScreen(WorldSelectionScreen.this, newTitle, config);
+                if(!otherWorlds.isEmpty())
+                {
+                    newTitle.append(" ").append(Component.translatable("configured.gui.and_other_worlds", otherWorlds.size()).withStyle(ChatFormatting.GRAY));
+                    screen.setSaveCallback(values -> WorldSelectionScreen.this.applyToWorlds(otherWorlds, values));
+                }
+                WorldSelectionScreen.this.minecraft.setScreen(screen);
             }
         }
     }
@@ -31,6 +31,11 @@ public class CheckBoxButton extends AbstractButton
         return this.selected;
     }
 
+    public void setSelected(boolean selected)
+    {
+        this.selected = selected;
+    }
+
     @Override
     public void onPress()
     {
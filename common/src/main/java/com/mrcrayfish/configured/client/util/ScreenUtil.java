@@ -7,10 +7,8 @@ import net.minecraft.client.gui.components.Tooltip;
 import net.minecraft.client.gui.screens.Screen;
 import net.minecraft.network.chat.Component;
 
-import java.util.Comparator;
 import java.util.List;
 import java.util.Locale;
-import java.util.Optional;
 import java.util.function.Predicate;
 
 /**
@@ -80,17 +78,7 @@ public class ScreenUtil
     {
         if(!value.isEmpty())
         {
-            Optional<? extends ILabelProvider> optional = entries.stream().filter(info -> info.getLabel().toLowerCase(Locale.ENGLISH).startsWith(value.toLowerCase(Locale.ENGLISH))).min(Comparator.comparing(ILabelProvider::getLabel));
-            if(optional.isPresent())
-            {
-                int length = value.length();
-                String displayName = optional.get().getLabel();
-                editBox.setSuggestion(displayName.substring(length));
-            }
-            else
-            {
-                editBox.setSuggestion("");
-            }
+            editBox.setSuggestion(findSearchSuggestion(value, entries));
         }
         else
         {
@@ -98,6 +86,29 @@ public class ScreenUtil
         }
     }
 
+    /**
+     * Finds the text to suggest after the user input, which is the rest of the alphabetically first
+     * label that starts with the input.
+     *
+     * @param value   the user input value, which must not be empty
+     * @param entries a list of label providers to test the user input against
+     * @return the rest of the matching label, or an empty string if no label matches
+     */
+    public static String findSearchSuggestion(String value, List<? extends ILabelProvider> entries)
+    {
+        String query = value.toLowerCase(Locale.ENGLISH);
+        String match = null;
+        for(ILabelProvider entry : entries)
+        {
+            String label = entry.getLabel();
+            if(label.toLowerCase(Locale.ENGLISH).startsWith(query) && (match == null || label.compareTo(match) < 0))
+            {
+                match = label;
+            }
+        }
+        return match != null ? match.substring(value.length()) : "";
+    }
+
     public static Button button(int x, int y, int width, int height, Component label, Button.OnPress onPress)
     {
         return Button.builder(label, onPress).pos(x, y).size(width, height).build();
@@ -0,0 +1,54 @@
+package com.mrcrayfish.configured.command;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.mrcrayfish.configured.network.NetworkStats;
+import net.minecraft.ChatFormatting;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+
+import java.util.List;
+
+/**
+ * The <code>/configured</code> command. Only available to operators.
+ *
+ * Author: MrCrayfish
+ */
+public class ConfiguredCommand
+{
+    public static void register(CommandDispatcher<CommandSourceStack> dispatcher)
+    {
+        dispatcher.register(Commands.literal("configured")
+            .requires(source -> source.hasPermission(Commands.LEVEL_ADMINS))
+            .then(Commands.literal("stats")
+                .executes(context -> showStats(context.getSource()))
+                .then(Commands.literal("reset")
+                    .executes(context -> resetStats(context.getSource())))));
+    }
+
+    private static int showStats(CommandSourceStack source)
+    {
+        List<String> types = NetworkStats.getTypeSummaries();
+        if(types.isEmpty())
+        {
+            source.sendSuccess(() -> Component.translatable("configured.command.stats.empty"), false);
+            return 0;
+        }
+        source.sendSuccess(() -> Component.translatable("configured.command.stats.types").withStyle(ChatFormatting.YELLOW), false);
+        types.forEach(line -> source.sendSuccess(() -> Component.literal(line).withStyle(ChatFormatting.GRAY), false));
+        List<String> players = NetworkStats.getPlayerSummaries();
+        if(!players.isEmpty())
+        {
+            source.sendSuccess(() -> Component.translatable("configured.command.stats.players").withStyle(ChatFormatting.YELLOW), false);
+            players.forEach(line -> source.sendSuccess(() -> Component.literal(line).withStyle(ChatFormatting.GRAY), false));
+        }
+        return types.size();
+    }
+
+    private static int resetStats(CommandSourceStack source)
+    {
+        NetworkStats.reset();
+        source.sendSuccess(() -> Component.translatable("configured.command.stats.reset"), true);
+        return 1;
+    }
+}
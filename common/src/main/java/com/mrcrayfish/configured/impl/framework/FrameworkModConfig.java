@@ -2,16 +2,21 @@ package com.mrcrayfish.configured.impl.framework;
 
 import com.electronwill.nightconfig.core.CommentedConfig;
 import com.electronwill.nightconfig.core.Config;
-import com.electronwill.nightconfig.toml.TomlFormat;
 import com.google.common.base.Preconditions;
 import com.google.common.collect.ImmutableMap;
 import com.mrcrayfish.configured.Constants;
+import com.mrcrayfish.configured.api.ConfigChangedEvent;
 import com.mrcrayfish.configured.api.ConfigType;
 import com.mrcrayfish.configured.api.IConfigEntry;
 import com.mrcrayfish.configured.api.IConfigValue;
 import com.mrcrayfish.configured.api.IModConfig;
 import com.mrcrayfish.configured.client.SessionData;
+import com.mrcrayfish.configured.client.ServerConfigCache;
+import com.mrcrayfish.configured.impl.framework.handler.FrameworkClientHandler;
 import com.mrcrayfish.configured.impl.framework.message.MessageFramework;
+import com.mrcrayfish.configured.network.ConfigData;
+import com.mrcrayfish.configured.network.ConfigDelta;
+import com.mrcrayfish.configured.network.ConfigSchema;
 import com.mrcrayfish.configured.platform.Services;
 import com.mrcrayfish.configured.util.ConfigHelper;
 import com.mrcrayfish.framework.api.config.AbstractProperty;
@@ -19,17 +24,19 @@ import com.mrcrayfish.framework.api.config.event.FrameworkConfigEvents;
 import com.mrcrayfish.framework.config.FrameworkConfigManager;
 import it.unimi.dsi.fastutil.Pair;
 import net.minecraft.Util;
+import net.minecraft.resources.ResourceLocation;
 import net.minecraft.world.entity.player.Player;
 import org.apache.commons.lang3.StringUtils;
 
 import org.jetbrains.annotations.Nullable;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
 import java.util.function.Consumer;
 
@@ -51,6 +58,15 @@ public class FrameworkModConfig implements IModConfig
         return builder.build();
     });
 
+    /**
+     * The full data of configs whose changes were sent to the server as a delta or in binary form.
+     * Kept in case the server can't apply them and requests the full config, since server configs
+     * may already be unloaded on the client by then. Only the data of the latest changes to each
+     * config is kept, and all of it is cleared when the client disconnects, so the data belongs to
+     * the current connection.
+     */
+    private static final Map<ResourceLocation, ConfigData> PENDING_FULL_SYNCS = new HashMap<>();
+
     private final FrameworkConfigManager.FrameworkConfigImpl config;
     private final PropertyMap map;
 
@@ -75,15 +91,36 @@ public class FrameworkModConfig implements IModConfig
             return;
 
         // Update the config with new changes
-        CommentedConfig newConfig = CommentedConfig.copy(this.config.getConfig());
+        Map<List<String>, Object> changes = new HashMap<>();
         changedValues.forEach(value -> {
             if(value instanceof FrameworkValue<?> frameworkValue) {
-                newConfig.set(frameworkValue.getPath(), frameworkValue.get());
+                changes.put(frameworkValue.getPath(), frameworkValue.get());
             }
         });
-        this.config.correct(newConfig);
-        ((Config) this.config.getConfig()).putAll(newConfig);
-        this.config.getAllProperties().forEach(AbstractProperty::invalidateCache);
+
+        // The hash of the config before the changes, so the server can check it has the same values
+        long baseHash = this.getType().isServer() && ConfigHelper.isPlayingGame() ? ConfigDelta.getHash(this.config.getConfig()) : 0;
+
+        ConfigHelper.createBackup(this.config.getConfig());
+
+        // Only rewrite the changed values in the file if possible, otherwise do a full write. The
+        // patch doesn't correct the config, so the changed values are validated first.
+        if(changedValues.stream().allMatch(FrameworkModConfig::isValid) && ConfigHelper.patchConfig(this.config.getConfig(), changes))
+        {
+            // Only the changed properties need their cached value to be invalidated
+            changedValues.forEach(IConfigValue::cleanCache);
+        }
+        else
+        {
+            CommentedConfig newConfig = CommentedConfig.copy(this.config.getConfig());
+            changes.forEach(newConfig::set);
+            this.config.correct(newConfig);
+            ((Config) this.config.getConfig()).putAll(newConfig);
+
+            // Correcting may have changed other values, so invalidate all of them
+            this.config.getAllProperties().forEach(AbstractProperty::invalidateCache);
+        }
+        ConfigDelta.invalidateHash(this.config.getConfig());
 
         // Post handling
         if(this.getType().isServer())
@@ -95,7 +132,7 @@ public class FrameworkModConfig implements IModConfig
                 return;
             }
 
-            this.syncToServer();
+            this.syncToServer(changes, baseHash);
 
             if(!ConfigHelper.isRunningLocalServer() && !this.getType().isSync())
             {
@@ -104,8 +141,11 @@ public class FrameworkModConfig implements IModConfig
             }
         }
 
-        Constants.LOG.info("Sending config reloading event for {}", this.getFileName());
-        FrameworkConfigEvents.RELOAD.post().handle(this.config.getSource());
+        ConfigHelper.dispatchReload(this, () -> {
+            Constants.LOG.info("Sending config reloading event for {}", this.getFileName());
+            FrameworkConfigEvents.RELOAD.post().handle(this.config.getSource());
+            ConfigChangedEvent.post(this.getModId(), this.getFileName(), changes.keySet());
+        });
     }
 
     @Override
@@ -157,7 +197,27 @@ public class FrameworkModConfig implements IModConfig
     @Override
     public void restoreDefaults()
     {
+        // Only the values that are not already the default will be changed
+        Set<List<String>> changedPaths = new HashSet<>();
+        for(AbstractProperty<?> property : this.config.getAllProperties())
+        {
+            if(!Objects.equals(property.get(), property.getDefaultValue()))
+            {
+                changedPaths.add(property.getPath());
+            }
+        }
+
+        ConfigHelper.createBackup(this.config.getConfig());
         this.config.restoreDefaults();
+        ConfigDelta.invalidateHash(this.config.getConfig());
+        ConfigChangedEvent.post(this.getModId(), this.getFileName(), changedPaths);
+    }
+
+    @Override
+    @Nullable
+    public Path getFilePath()
+    {
+        return ConfigHelper.getFilePath(this.config.getConfig());
     }
 
     @Override
@@ -200,10 +260,19 @@ public class FrameworkModConfig implements IModConfig
         if(!ConfigHelper.isOperator(player) || !SessionData.isDeveloper(player))
             return;
 
-        Services.PLATFORM.sendFrameworkConfigRequest(this.config.getName());
+        // Open the cached data straight away if the manifest says it's still the same as the server's
+        ResourceLocation id = this.config.getName();
+        long cachedHash = ServerConfigCache.getHash(id);
+        if(cachedHash != 0 && cachedHash == SessionData.getManifestHash(id))
+        {
+            Constants.LOG.debug("Loading Framework config '{}' from cache since it matches the server manifest", id);
+            FrameworkClientHandler.handleResponse(new MessageFramework.Response(cachedHash, null), component -> {});
+            return;
+        }
+        Services.PLATFORM.sendFrameworkConfigRequest(id, cachedHash);
     }
 
-    private void syncToServer()
+    private void syncToServer(Map<List<String>, Object> changes, long baseHash)
     {
         if(this.config.getConfig() == null)
             return;
@@ -224,14 +293,80 @@ public class FrameworkModConfig implements IModConfig
         if(!ConfigHelper.isOperator(player) || !SessionData.isDeveloper(player))
             return;
 
-        ByteArrayOutputStream stream = new ByteArrayOutputStream();
-        TomlFormat.instance().createWriter().write(this.config.getConfig(), stream);
-        Services.PLATFORM.sendFrameworkConfigToServer(this.config.getName(), stream.toByteArray());
+        PENDING_FULL_SYNCS.put(this.config.getName(), ConfigData.copyOf(this.config.getConfig()));
+
+        // Only send the changed values if possible
+        ConfigDelta delta = ConfigDelta.create(baseHash, changes);
+        if(delta != null)
+        {
+            Services.PLATFORM.sendFrameworkConfigDeltaToServer(this.config.getName(), delta);
+            return;
+        }
+        Services.PLATFORM.sendFrameworkConfigToServer(this.config.getName(), ConfigData.of(this.config.getConfig(), getSchema(this.config)));
+    }
+
+    private static <T> boolean isValid(IConfigValue<T> value)
+    {
+        return value.isValid(value.get());
+    }
+
+    /**
+     * Gets the schema of the properties of the given config, which is used to send the data of the
+     * config in binary form.
+     */
+    public static ConfigSchema getSchema(FrameworkConfigManager.FrameworkConfigImpl config)
+    {
+        return ConfigSchema.of(config, () -> config.getAllProperties().stream().collect(HashMap<List<String>, Object>::new, (map, property) -> map.put(property.getPath(), property.getDefaultValue()), HashMap::putAll));
     }
 
+    /**
+     * Sends the full data of a config to the server after the server was unable to apply the delta
+     * of the changes.
+     *
+     * @param id the id of the config
+     * @return true if the config had pending changes and the data was sent
+     */
+    public static boolean sendPendingFullSync(ResourceLocation id)
+    {
+        ConfigData data = PENDING_FULL_SYNCS.remove(id);
+        if(data == null)
+            return false;
+        Services.PLATFORM.sendFrameworkConfigToServer(id, data);
+        return true;
+    }
+
+    /**
+     * Discards the data kept for full syncs. Called when the client disconnects from the server.
+     */
+    public static void clearPendingFullSyncs()
+    {
+        PENDING_FULL_SYNCS.clear();
+    }
+
+    /**
+     * Loads the data of a response into the config. If the server responded that the config has
+     * not been modified, the data cached from a previous request is loaded instead.
+     *
+     * @return true if the data was loaded
+     */
     public boolean loadDataFromResponse(MessageFramework.Response message)
     {
-        return this.config.loadFromData(message.data());
+        ResourceLocation id = this.config.getName();
+        if(!message.isNotModified() && !message.data().isCompatible(getSchema(this.config)))
+        {
+            Constants.LOG.warn("Server sent data for Framework config '{}' that doesn't match the config", id);
+            return false;
+        }
+        byte[] data = message.isNotModified() ? ServerConfigCache.get(id, message.hash()) : message.data().bytes();
+        if(data == null)
+        {
+            Constants.LOG.warn("Server responded that Framework config '{}' was not modified, but it is not cached", id);
+            return false;
+        }
+        if(!this.config.loadFromData(data))
+            return false;
+        ServerConfigCache.put(id, message.hash(), data);
+        return true;
     }
 
     public static class PropertyMap implements FrameworkConfigManager.IMapEntry
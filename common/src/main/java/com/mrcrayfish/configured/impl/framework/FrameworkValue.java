@@ -122,6 +122,7 @@ public class FrameworkValue<T> implements IConfigValue<T>
         return this.property.requiresGameRestart();
     }
 
+    @Override
     @Nullable
     public List<String> getPath()
     {
@@ -1,5 +1,6 @@
 package com.mrcrayfish.configured.impl.framework.handler;
 
+import com.mrcrayfish.configured.Constants;
 import com.mrcrayfish.configured.api.ConfigType;
 import com.mrcrayfish.configured.api.IModConfig;
 import com.mrcrayfish.configured.client.SessionData;
@@ -54,4 +55,13 @@ public class FrameworkClientHandler
         // Finally handle response with loaded config instance
         requestScreen.handleResponse(frameworkConfig, null);
     }
+
+    public static void handleFullSyncRequest(MessageFramework.RequestFullSync message)
+    {
+        Constants.LOG.debug("Server requested full sync of Framework config: {}", message.id());
+        if(!FrameworkModConfig.sendPendingFullSync(message.id()))
+        {
+            Constants.LOG.warn("Server requested a full sync of Framework config '{}' but no changes were pending", message.id());
+        }
+    }
 }
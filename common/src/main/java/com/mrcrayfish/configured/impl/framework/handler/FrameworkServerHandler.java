@@ -3,11 +3,20 @@ package com.mrcrayfish.configured.impl.framework.handler;
 import com.electronwill.nightconfig.core.CommentedConfig;
 import com.electronwill.nightconfig.core.Config;
 import com.electronwill.nightconfig.core.io.ParsingException;
-import com.electronwill.nightconfig.toml.TomlFormat;
 import com.mrcrayfish.configured.Constants;
+import com.mrcrayfish.configured.api.ConfigChangedEvent;
+import com.mrcrayfish.configured.impl.framework.FrameworkModConfig;
+import com.mrcrayfish.configured.network.ConfigData;
+import com.mrcrayfish.configured.network.ConfigDelta;
+import com.mrcrayfish.configured.network.ConfigManifest;
+import com.mrcrayfish.configured.network.ConfigProcessor;
+import com.mrcrayfish.configured.network.NetworkStats;
+import com.mrcrayfish.configured.network.RequestLimiter;
 import com.mrcrayfish.configured.network.ServerPlayHelper;
+import com.mrcrayfish.configured.network.SyncBroadcaster;
 import com.mrcrayfish.configured.impl.framework.message.MessageFramework;
 import com.mrcrayfish.configured.platform.Services;
+import com.mrcrayfish.configured.util.ConfigHelper;
 import com.mrcrayfish.framework.api.config.AbstractProperty;
 import com.mrcrayfish.framework.api.config.ConfigType;
 import com.mrcrayfish.framework.api.config.event.FrameworkConfigEvents;
@@ -15,11 +24,18 @@ import com.mrcrayfish.framework.config.FrameworkConfigManager;
 import com.mrcrayfish.framework.network.Network;
 import com.mrcrayfish.framework.network.message.play.S2CSyncConfigData;
 import net.minecraft.ChatFormatting;
+import net.minecraft.Util;
 import net.minecraft.network.chat.Component;
+import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.level.ServerPlayer;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
+import org.jetbrains.annotations.Nullable;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.function.Consumer;
 
 /**
@@ -27,6 +43,24 @@ import java.util.function.Consumer;
  */
 public class FrameworkServerHandler
 {
+    /**
+     * Framework reloads a config when its file is changed, which makes the cached hash of its
+     * values and the manifest outdated.
+     */
+    public static void init()
+    {
+        FrameworkConfigEvents.RELOAD.register(source -> {
+            for(FrameworkConfigManager.FrameworkConfigImpl config : FrameworkConfigManager.getInstance().getConfigs())
+            {
+                if(config.getSource() == source && config.getConfig() != null)
+                {
+                    ConfigDelta.invalidateHash(config.getConfig());
+                }
+            }
+            ConfigManifest.markDirty();
+        });
+    }
+
     public static void handleServerSync(ServerPlayer player, MessageFramework.Sync message, Consumer<Component> disconnect)
     {
         if(!ServerPlayHelper.canEditServerConfigs(player))
@@ -34,106 +68,277 @@ public class FrameworkServerHandler
 
         Constants.LOG.debug("Received Framework server config sync from player: {}", player.getName().getString());
 
-        FrameworkConfigManager.FrameworkConfigImpl config = FrameworkConfigManager.getInstance().getConfig(message.id());
+        FrameworkConfigManager.FrameworkConfigImpl config = getSyncableConfig(message.id(), disconnect);
         if(config == null)
+            return;
+
+        if(!RequestLimiter.tryAcquire(player, MessageFramework.Sync.TYPE.id(), "framework:" + message.id()))
+            return;
+
+        // The client has a different version of the config, so ask for it as TOML instead
+        if(!message.data().isCompatible(FrameworkModConfig.getSchema(config)))
         {
-            Constants.LOG.error("Client sent data for a config that doesn't exist: {}", message.id());
-            disconnect.accept(Component.translatable("configured.multiplayer.disconnect.bad_config_packet"));
+            Constants.LOG.debug("Config data for '{}' from {} doesn't match the config, requesting full sync", message.id(), player.getName().getString());
+            Services.PLATFORM.sendFrameworkFullSyncRequest(player, message.id());
             return;
         }
 
-        if(config.isReadOnly())
+        // Reading and checking the data is done off the server thread, only applying it is not
+        ConfigProcessor.process(player.server, NetworkStats.timed(MessageFramework.Sync.TYPE.id(), player, () -> {
+            CommentedConfig data = message.data().read(FrameworkModConfig.getSchema(config));
+            return config.isCorrect(data) ? Optional.of(data) : Optional.<CommentedConfig>empty();
+        }), data -> {
+            if(data.isEmpty())
+            {
+                NetworkStats.recordRejected(MessageFramework.Sync.TYPE.id(), player);
+                Constants.LOG.error("Received incorrect Framework config data");
+                disconnect.accept(Component.translatable("configured.multiplayer.disconnect.bad_config_packet"));
+                return;
+            }
+            if(!applySyncData(config, data.get()))
+            {
+                disconnect.accept(Component.translatable("configured.multiplayer.disconnect.bad_config_packet"));
+                return;
+            }
+            if(config.getType().isSync())
+            {
+                queueBroadcast(config);
+            }
+            ConfigManifest.markDirty();
+            ServerPlayHelper.sendMessageToOperators(Component.translatable("configured.chat.config_updated", player.getName(), config.getFileName()).withStyle(ChatFormatting.GRAY, ChatFormatting.ITALIC), player);
+        }, throwable -> {
+            NetworkStats.recordRejected(MessageFramework.Sync.TYPE.id(), player);
+            if(throwable instanceof ParsingException)
+            {
+                Constants.LOG.error("Received malformed Framework config data", throwable);
+            }
+            else
+            {
+                Constants.LOG.error("An exception was thrown when processing Framework config data", throwable);
+            }
+            disconnect.accept(Component.translatable("configured.multiplayer.disconnect.bad_config_packet"));
+        });
+    }
+
+    public static void handleServerSyncDelta(ServerPlayer player, MessageFramework.SyncDelta message, Consumer<Component> disconnect)
+    {
+        if(!ServerPlayHelper.canEditServerConfigs(player))
+            return;
+
+        Constants.LOG.debug("Received Framework server config delta from player: {}", player.getName().getString());
+
+        FrameworkConfigManager.FrameworkConfigImpl config = getSyncableConfig(message.id(), disconnect);
+        if(config == null)
+            return;
+
+        if(!RequestLimiter.tryAcquire(player, MessageFramework.SyncDelta.TYPE.id(), "framework:" + message.id()))
+            return;
+
+        long start = Util.getNanos();
+
+        if(!(config.getConfig() instanceof Config c))
         {
-            Constants.LOG.error("Client sent data for a read-only config '{}'", message.id());
             disconnect.accept(Component.translatable("configured.multiplayer.disconnect.bad_config_packet"));
             return;
         }
 
-        if(!config.getType().isServer() || config.getType() == ConfigType.DEDICATED_SERVER)
+        // The client edited an outdated copy of the config, so ask for the full config instead
+        if(message.delta().baseHash() != ConfigDelta.getHash(c))
         {
-            Constants.LOG.error("Client sent data for a config is not supposed to be updated '{}'", message.id());
-            disconnect.accept(Component.translatable("configured.multiplayer.disconnect.bad_config_packet"));
+            Constants.LOG.debug("Config delta for '{}' from {} is out of date, requesting full sync", message.id(), player.getName().getString());
+            Services.PLATFORM.sendFrameworkFullSyncRequest(player, message.id());
             return;
         }
 
-        if(!config.isLoaded())
+        // The rest of the config matches the hash, so only the changed values need to be checked
+        if(!isValidDelta(config, message.delta().changes()))
         {
-            Constants.LOG.error("Client tried to perform sync update on an unloaded config. Something went wrong...");
+            NetworkStats.recordRejected(MessageFramework.SyncDelta.TYPE.id(), player);
+            Constants.LOG.error("Received incorrect Framework config delta");
             disconnect.accept(Component.translatable("configured.multiplayer.disconnect.bad_config_packet"));
             return;
         }
 
-        if(processSyncData(message, true))
+        Set<List<String>> changedPaths = ConfigHelper.getChangedPaths(c, message.delta().changes());
+        ConfigHelper.createBackup(c);
+        if(!ConfigHelper.patchConfig(c, message.delta().changes()))
         {
-            if(config.getType().isSync())
-            {
-                // Send back using Framework's network
-                Network.getPlayChannel().sendToAll(new S2CSyncConfigData(message.id(), message.data()));
-            }
-            ServerPlayHelper.sendMessageToOperators(Component.translatable("configured.chat.config_updated", player.getName(), config.getFileName()).withStyle(ChatFormatting.GRAY, ChatFormatting.ITALIC), player);
+            message.delta().apply(c);
         }
-        else
+        ConfigDelta.invalidateHash(c);
+        invalidateProperties(config, changedPaths);
+        FrameworkConfigEvents.RELOAD.post().handle(config.getSource());
+        ConfigChangedEvent.post(config.getName().getNamespace(), config.getFileName(), changedPaths);
+        Constants.LOG.debug("Successfully processed sync delta for Framework config: {}", message.id());
+        NetworkStats.recordProcessed(MessageFramework.SyncDelta.TYPE.id(), player, Util.getNanos() - start);
+
+        if(config.getType().isSync())
         {
-            disconnect.accept(Component.translatable("configured.multiplayer.disconnect.bad_config_packet"));
+            queueBroadcast(config);
         }
+        ConfigManifest.markDirty();
+        ServerPlayHelper.sendMessageToOperators(Component.translatable("configured.chat.config_updated", player.getName(), config.getFileName()).withStyle(ChatFormatting.GRAY, ChatFormatting.ITALIC), player);
     }
 
-    private static boolean processSyncData(MessageFramework.Sync message, boolean server)
+    /**
+     * Checks the changed values of a delta against the properties at their paths, instead of
+     * copying and checking the entire config. Fails if a changed value doesn't belong to a property.
+     */
+    private static boolean isValidDelta(FrameworkConfigManager.FrameworkConfigImpl config, Map<List<String>, Object> changes)
     {
-        FrameworkConfigManager.FrameworkConfigImpl config = FrameworkConfigManager.getInstance().getConfig(message.id());
-        if(config == null)
+        int checked = 0;
+        for(AbstractProperty<?> property : config.getAllProperties())
         {
-            Constants.LOG.error("No Framework config exists for the id: {}", message.id());
-            return false;
+            Object value = changes.get(property.getPath());
+            if(value == null)
+                continue;
+            if(!isValidValue(property, value))
+                return false;
+            checked++;
         }
+        return checked == changes.size();
+    }
 
-        if(server)
+    /**
+     * Checks a value received in a delta with the validator of the property. Enums are sent by
+     * name, so they are looked up in the enum of the property first.
+     */
+    @SuppressWarnings("unchecked")
+    private static <T> boolean isValidValue(AbstractProperty<T> property, Object value)
+    {
+        T defaultValue = property.getDefaultValue();
+        Object checked = value;
+        if(defaultValue instanceof Enum<?> e)
         {
-            if(!config.getType().isServer())
-            {
-                Constants.LOG.error("Received sync update for incorrect Framework config: {}", message.id());
+            checked = Arrays.stream(e.getDeclaringClass().getEnumConstants()).filter(constant -> constant.name().equals(value)).findFirst().orElse(null);
+            if(checked == null)
                 return false;
-            }
         }
-        else if(!config.getType().isSync())
+        else if(!(defaultValue instanceof List<?> ? value instanceof List<?> : defaultValue.getClass().isInstance(value)))
+        {
+            return false;
+        }
+        try
+        {
+            return property.isValid((T) checked);
+        }
+        catch(ClassCastException e)
         {
-            Constants.LOG.error("Received sync update for a non-sync Framework config: {}", message.id());
+            // The elements of a list were not of the type of the property
             return false;
         }
+    }
+
+    /**
+     * Queues the current data of the config to be sent to the players, using Framework's network
+     */
+    private static void queueBroadcast(FrameworkConfigManager.FrameworkConfigImpl config)
+    {
+        ResourceLocation id = config.getName();
+        SyncBroadcaster.queue("framework:" + id, false, () -> new S2CSyncConfigData(id, ConfigHelper.getBytes(config.getConfig())), (target, message) -> {
+            Network.getPlayChannel().sendToPlayer(() -> target, message);
+        });
+    }
+
+    /**
+     * Gets the config with the given id if it exists and is allowed to be updated by a client,
+     * otherwise disconnects the client.
+     */
+    @Nullable
+    private static FrameworkConfigManager.FrameworkConfigImpl getSyncableConfig(ResourceLocation id, Consumer<Component> disconnect)
+    {
+        FrameworkConfigManager.FrameworkConfigImpl config = FrameworkConfigManager.getInstance().getConfig(id);
+        if(config == null)
+        {
+            Constants.LOG.error("Client sent data for a config that doesn't exist: {}", id);
+            disconnect.accept(Component.translatable("configured.multiplayer.disconnect.bad_config_packet"));
+            return null;
+        }
 
-        if(config.isReadOnly() || !config.isLoaded())
+        if(config.isReadOnly())
+        {
+            Constants.LOG.error("Client sent data for a read-only config '{}'", id);
+            disconnect.accept(Component.translatable("configured.multiplayer.disconnect.bad_config_packet"));
+            return null;
+        }
+
+        if(!config.getType().isServer() || config.getType() == ConfigType.DEDICATED_SERVER)
         {
-            Constants.LOG.error("Received sync update for incorrect Framework config: {}", message.id());
+            Constants.LOG.error("Client sent data for a config is not supposed to be updated '{}'", id);
+            disconnect.accept(Component.translatable("configured.multiplayer.disconnect.bad_config_packet"));
+            return null;
+        }
+
+        if(!config.isLoaded())
+        {
+            Constants.LOG.error("Client tried to perform sync update on an unloaded config. Something went wrong...");
+            disconnect.accept(Component.translatable("configured.multiplayer.disconnect.bad_config_packet"));
+            return null;
+        }
+        return config;
+    }
+
+    /**
+     * Applies data that has already been read and checked to the config
+     *
+     * @return true if the data was applied
+     */
+    private static boolean applySyncData(FrameworkConfigManager.FrameworkConfigImpl config, CommentedConfig data)
+    {
+        if(config.isReadOnly() || !config.isLoaded() || !(config.getConfig() instanceof Config c))
+        {
+            Constants.LOG.error("Unable to apply sync update since the Framework config is not loaded: {}", config.getName());
             return false;
         }
 
-        try
+        Set<List<String>> changedPaths = ConfigHelper.getChangedPaths(c, data);
+        ConfigHelper.createBackup(c);
+        c.putAll(data);
+        ConfigDelta.invalidateHash(c);
+        invalidateProperties(config, changedPaths);
+        FrameworkConfigEvents.RELOAD.post().handle(config.getSource());
+        ConfigChangedEvent.post(config.getName().getNamespace(), config.getFileName(), changedPaths);
+        Constants.LOG.debug("Successfully processed sync update for Framework config: {}", config.getName());
+        return true;
+    }
+
+    /**
+     * Invalidates the cached values of only the properties at the given paths
+     */
+    private static void invalidateProperties(FrameworkConfigManager.FrameworkConfigImpl config, Set<List<String>> paths)
+    {
+        if(paths.isEmpty())
+            return;
+
+        for(AbstractProperty<?> property : config.getAllProperties())
         {
-            CommentedConfig data = TomlFormat.instance().createParser().parse(new ByteArrayInputStream(message.data()));
-            if(!config.isCorrect(data))
+            if(paths.contains(property.getPath()))
             {
-                Constants.LOG.error("Received incorrect Framework config data");
-                return false;
+                property.invalidateCache();
             }
+        }
+    }
 
-            if(config.getConfig() instanceof Config c)
+    /**
+     * Creates a map of the ids of the configs that can be requested by a developer to the hash of
+     * their values. See {@link ConfigManifest}.
+     */
+    public static Map<ResourceLocation, Long> createManifest()
+    {
+        Map<ResourceLocation, Long> manifest = new HashMap<>();
+        for(FrameworkConfigManager.FrameworkConfigImpl config : FrameworkConfigManager.getInstance().getConfigs())
+        {
+            if(isRequestable(config) && config.isLoaded() && config.getConfig() != null)
             {
-                c.putAll(data);
-                config.getAllProperties().forEach(AbstractProperty::invalidateCache);
-                FrameworkConfigEvents.RELOAD.post().handle(config.getSource());
-                Constants.LOG.debug("Successfully processed sync update for Framework config: {}", message.id());
-                return true;
+                manifest.put(config.getName(), ConfigDelta.getHash(config.getConfig()));
             }
         }
-        catch(ParsingException e)
-        {
-            Constants.LOG.error("Received malformed Framework config data", e);
-        }
-        catch(Exception e)
-        {
-            Constants.LOG.error("An exception was thrown when processing Framework config data", e);
-        }
-        return false;
+        return Map.copyOf(manifest);
+    }
+
+    private static boolean isRequestable(FrameworkConfigManager.FrameworkConfigImpl config)
+    {
+        return config.getType().isServer() && !config.getType().isSync() && config.getType() != ConfigType.DEDICATED_SERVER;
     }
 
     public static void handleRequestConfig(ServerPlayer player, MessageFramework.Request message, Consumer<Component> disconnect)
@@ -151,7 +356,7 @@ public class FrameworkServerHandler
             return;
         }
 
-        if(!config.getType().isServer() || config.getType().isSync() || config.getType() == ConfigType.DEDICATED_SERVER)
+        if(!isRequestable(config))
         {
             Constants.LOG.error("Client tried requesting a Framework config that is not allowed to be requested: '{}'", message.id());
             disconnect.accept(Component.translatable("configured.multiplayer.disconnect.bad_config_packet"));
@@ -165,8 +370,20 @@ public class FrameworkServerHandler
             return;
         }
 
-        ByteArrayOutputStream stream = new ByteArrayOutputStream();
-        TomlFormat.instance().createWriter().write(config.getConfig(), stream);
-        Services.PLATFORM.sendFrameworkConfigResponse(player, stream.toByteArray());
+        if(!RequestLimiter.tryAcquire(player, MessageFramework.Request.TYPE.id(), "framework:" + message.id()))
+            return;
+
+        // Skip sending the data if the client already has the current values cached
+        long start = Util.getNanos();
+        long hash = ConfigDelta.getHash(config.getConfig());
+        if(message.cachedHash() != 0 && message.cachedHash() == hash)
+        {
+            Services.PLATFORM.sendFrameworkConfigResponse(player, hash, null);
+        }
+        else
+        {
+            Services.PLATFORM.sendFrameworkConfigResponse(player, hash, ConfigData.of(config.getConfig()));
+        }
+        NetworkStats.recordProcessed(MessageFramework.Request.TYPE.id(), player, Util.getNanos() - start);
     }
 }
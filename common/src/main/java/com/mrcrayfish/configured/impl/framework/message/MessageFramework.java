@@ -3,6 +3,9 @@ package com.mrcrayfish.configured.impl.framework.message;
 import com.mrcrayfish.configured.Constants;
 import com.mrcrayfish.configured.impl.framework.handler.FrameworkClientHandler;
 import com.mrcrayfish.configured.impl.framework.handler.FrameworkServerHandler;
+import com.mrcrayfish.configured.network.ChunkedTransfer;
+import com.mrcrayfish.configured.network.ConfigData;
+import com.mrcrayfish.configured.network.ConfigDelta;
 import com.mrcrayfish.configured.network.ConfiguredCodecs;
 import com.mrcrayfish.configured.network.message.MessageSessionData;
 import net.minecraft.network.FriendlyByteBuf;
@@ -23,14 +26,44 @@ import java.util.function.Consumer;
  */
 public class MessageFramework
 {
-    public record Sync(ResourceLocation id, byte[] data) implements CustomPacketPayload
+    /**
+     * Handles a message that was received in chunks. Must be called on the main thread.
+     *
+     * @param type        the type of the message
+     * @param data        the reassembled message
+     * @param clientbound if the message was received by the client
+     * @param player      the player that sent the message, or the client player
+     * @param disconnect  disconnects the connection the message was received from
+     * @return true if the message is a message of Framework configs
+     */
+    public static boolean handleChunked(ResourceLocation type, byte[] data, boolean clientbound, @Nullable Player player, Consumer<Component> disconnect)
+    {
+        if(!clientbound && type.equals(Sync.TYPE.id()))
+        {
+            Sync.handle(ChunkedTransfer.decode(Sync.STREAM_CODEC, data), Runnable::run, player, disconnect);
+            return true;
+        }
+        if(!clientbound && type.equals(SyncDelta.TYPE.id()))
+        {
+            SyncDelta.handle(ChunkedTransfer.decode(SyncDelta.STREAM_CODEC, data), Runnable::run, player, disconnect);
+            return true;
+        }
+        if(clientbound && type.equals(Response.TYPE.id()))
+        {
+            Response.handle(ChunkedTransfer.decode(Response.STREAM_CODEC, data), Runnable::run, player, disconnect);
+            return true;
+        }
+        return false;
+    }
+
+    public record Sync(ResourceLocation id, ConfigData data) implements CustomPacketPayload
     {
         public static final CustomPacketPayload.Type<Sync> TYPE = new Type<>(new ResourceLocation(Constants.MOD_ID, "sync_framework_config"));
 
         public static final StreamCodec<RegistryFriendlyByteBuf, Sync> STREAM_CODEC = StreamCodec.composite(
             ResourceLocation.STREAM_CODEC,
             Sync::id,
-            ConfiguredCodecs.BYTE_ARRAY,
+            ConfiguredCodecs.CONFIG_DATA,
             Sync::data,
             Sync::new
         );
@@ -50,13 +83,72 @@ public class MessageFramework
         }
     }
 
-    public record Request(ResourceLocation id) implements CustomPacketPayload
+    public record SyncDelta(ResourceLocation id, ConfigDelta delta) implements CustomPacketPayload
+    {
+        public static final CustomPacketPayload.Type<SyncDelta> TYPE = new Type<>(new ResourceLocation(Constants.MOD_ID, "sync_framework_config_delta"));
+
+        public static final StreamCodec<RegistryFriendlyByteBuf, SyncDelta> STREAM_CODEC = StreamCodec.composite(
+            ResourceLocation.STREAM_CODEC,
+            SyncDelta::id,
+            ConfigDelta.STREAM_CODEC,
+            SyncDelta::delta,
+            SyncDelta::new
+        );
+
+        public static void handle(SyncDelta message, Consumer<Runnable> executor, @Nullable Player player, Consumer<Component> disconnect)
+        {
+            if(player instanceof ServerPlayer serverPlayer)
+            {
+                executor.accept(() -> FrameworkServerHandler.handleServerSyncDelta(serverPlayer, message, disconnect));
+            }
+        }
+
+        @Override
+        public Type<SyncDelta> type()
+        {
+            return TYPE;
+        }
+    }
+
+    /**
+     * Sent by the server if a {@link SyncDelta} could not be applied because the config of the
+     * client was out of date. The client responds by sending the full config.
+     */
+    public record RequestFullSync(ResourceLocation id) implements CustomPacketPayload
+    {
+        public static final CustomPacketPayload.Type<RequestFullSync> TYPE = new Type<>(new ResourceLocation(Constants.MOD_ID, "request_full_framework_config_sync"));
+
+        public static final StreamCodec<RegistryFriendlyByteBuf, RequestFullSync> STREAM_CODEC = StreamCodec.composite(
+            ResourceLocation.STREAM_CODEC,
+            RequestFullSync::id,
+            RequestFullSync::new
+        );
+
+        public static void handle(RequestFullSync message, Consumer<Runnable> executor, @Nullable Player player, Consumer<Component> disconnect)
+        {
+            executor.accept(() -> FrameworkClientHandler.handleFullSyncRequest(message));
+        }
+
+        @Override
+        public Type<RequestFullSync> type()
+        {
+            return TYPE;
+        }
+    }
+
+    /**
+     * Requests the data of a server config. The hash is the hash of the data the client has cached
+     * for the config, or 0 if nothing is cached.
+     */
+    public record Request(ResourceLocation id, long cachedHash) implements CustomPacketPayload
     {
         public static final CustomPacketPayload.Type<Request> TYPE = new CustomPacketPayload.Type<>(new ResourceLocation(Constants.MOD_ID, "request_framework_config"));
 
         public static final StreamCodec<RegistryFriendlyByteBuf, Request> STREAM_CODEC = StreamCodec.composite(
             ResourceLocation.STREAM_CODEC,
             Request::id,
+            ByteBufCodecs.VAR_LONG,
+            Request::cachedHash,
             Request::new
         );
 
@@ -75,15 +167,31 @@ public class MessageFramework
         }
     }
 
-    public record Response(byte[] data) implements CustomPacketPayload
+    /**
+     * The response to a {@link Request}. The data is null if the hash matched the hash of the data
+     * cached by the client, meaning the config has not been modified.
+     */
+    public record Response(long hash, @Nullable ConfigData data) implements CustomPacketPayload
     {
         public static final CustomPacketPayload.Type<Response> TYPE = new CustomPacketPayload.Type<>(new ResourceLocation(Constants.MOD_ID, "response_framework_config"));
 
-        public static final StreamCodec<RegistryFriendlyByteBuf, Response> STREAM_CODEC = StreamCodec.composite(
-            ConfiguredCodecs.BYTE_ARRAY,
-            Response::data,
-            Response::new
-        );
+        public static final StreamCodec<RegistryFriendlyByteBuf, Response> STREAM_CODEC = StreamCodec.ofMember(Response::encode, Response::decode);
+
+        private static void encode(Response message, FriendlyByteBuf buf)
+        {
+            buf.writeLong(message.hash);
+            buf.writeNullable(message.data, ConfiguredCodecs.CONFIG_DATA);
+        }
+
+        private static Response decode(FriendlyByteBuf buf)
+        {
+            return new Response(buf.readLong(), buf.readNullable(ConfiguredCodecs.CONFIG_DATA));
+        }
+
+        public boolean isNotModified()
+        {
+            return this.data == null;
+        }
 
         public static void handle(Response message, Consumer<Runnable> executor, @Nullable Player player, Consumer<Component> disconnect)
         {
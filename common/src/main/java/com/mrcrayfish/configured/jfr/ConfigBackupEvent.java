@@ -0,0 +1,38 @@
+package com.mrcrayfish.configured.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded when a backup of a config file is created before it is overwritten
+ *
+ * Author: MrCrayfish
+ */
+@Name(ConfigBackupEvent.NAME)
+@Label("Config Backup")
+@Category({"Configured", "Config"})
+@Description("A backup of a config file was created")
+@StackTrace(false)
+public class ConfigBackupEvent extends Event
+{
+    public static final String NAME = "configured.ConfigBackup";
+
+    @Name("fileName")
+    @Label("File Name")
+    public final String fileName;
+
+    @Name("bytes")
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+
+    public ConfigBackupEvent(String fileName)
+    {
+        this.fileName = fileName;
+    }
+}
@@ -0,0 +1,48 @@
+package com.mrcrayfish.configured.jfr;
+
+import com.mrcrayfish.configured.api.IModConfig;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded when a config is loaded to be edited, either when a config screen is opened or when
+ * the config of a world is loaded from the world selection screen.
+ *
+ * Author: MrCrayfish
+ */
+@Name(ConfigLoadEvent.NAME)
+@Label("Config Load")
+@Category({"Configured", "Config"})
+@Description("A config was loaded to be edited")
+@StackTrace(false)
+public class ConfigLoadEvent extends Event
+{
+    public static final String NAME = "configured.ConfigLoad";
+
+    @Name("modId")
+    @Label("Mod Id")
+    public final String modId;
+
+    @Name("fileName")
+    @Label("File Name")
+    public final String fileName;
+
+    @Name("world")
+    @Label("World Config")
+    public final boolean world;
+
+    @Name("valueCount")
+    @Label("Value Count")
+    public int valueCount;
+
+    public ConfigLoadEvent(IModConfig config, boolean world)
+    {
+        this.modId = config.getModId();
+        this.fileName = config.getFileName();
+        this.world = world;
+    }
+}
@@ -0,0 +1,39 @@
+package com.mrcrayfish.configured.jfr;
+
+import com.mrcrayfish.configured.api.IModConfig;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded when the reload notification of a config is dispatched to its mod. The duration is the
+ * time the listeners of the mod spent handling the reload.
+ *
+ * Author: MrCrayfish
+ */
+@Name(ConfigReloadEvent.NAME)
+@Label("Config Reload")
+@Category({"Configured", "Config"})
+@Description("The reload notification of a config was dispatched")
+@StackTrace(false)
+public class ConfigReloadEvent extends Event
+{
+    public static final String NAME = "configured.ConfigReload";
+
+    @Name("modId")
+    @Label("Mod Id")
+    public final String modId;
+
+    @Name("fileName")
+    @Label("File Name")
+    public final String fileName;
+
+    public ConfigReloadEvent(IModConfig config)
+    {
+        this.modId = config.getModId();
+        this.fileName = config.getFileName();
+    }
+}
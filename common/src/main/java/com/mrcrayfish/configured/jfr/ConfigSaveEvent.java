@@ -0,0 +1,42 @@
+package com.mrcrayfish.configured.jfr;
+
+import com.mrcrayfish.configured.api.IModConfig;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded when the changes made to a config are saved with {@link IModConfig#update}
+ *
+ * Author: MrCrayfish
+ */
+@Name(ConfigSaveEvent.NAME)
+@Label("Config Save")
+@Category({"Configured", "Config"})
+@Description("The changed values of a config were saved")
+@StackTrace(false)
+public class ConfigSaveEvent extends Event
+{
+    public static final String NAME = "configured.ConfigSave";
+
+    @Name("modId")
+    @Label("Mod Id")
+    public final String modId;
+
+    @Name("fileName")
+    @Label("File Name")
+    public final String fileName;
+
+    @Name("changedCount")
+    @Label("Changed Values")
+    public int changedCount;
+
+    public ConfigSaveEvent(IModConfig config)
+    {
+        this.modId = config.getModId();
+        this.fileName = config.getFileName();
+    }
+}
@@ -0,0 +1,45 @@
+package com.mrcrayfish.configured.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded when a message of Configured is encoded to be sent or decoded after being received.
+ * The duration is the time spent encoding or decoding the message. Chunks of large messages are
+ * recorded individually as the type of message they are part of.
+ *
+ * Author: MrCrayfish
+ */
+@Name(NetworkMessageEvent.NAME)
+@Label("Network Message")
+@Category({"Configured", "Network"})
+@Description("A message was encoded or decoded")
+@StackTrace(false)
+public class NetworkMessageEvent extends Event
+{
+    public static final String NAME = "configured.NetworkMessage";
+
+    @Name("type")
+    @Label("Message Type")
+    public String type;
+
+    @Name("sent")
+    @Label("Sent")
+    @Description("True if the message was encoded to be sent, false if it was received")
+    public final boolean sent;
+
+    @Name("bytes")
+    @Label("Bytes")
+    @DataAmount
+    public int bytes;
+
+    public NetworkMessageEvent(boolean sent)
+    {
+        this.sent = sent;
+    }
+}
@@ -0,0 +1,41 @@
+package com.mrcrayfish.configured.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded when a list screen of Configured is initialised, which constructs all of its entries.
+ * This happens when the screen is opened and every time the window is resized.
+ *
+ * Author: MrCrayfish
+ */
+@Name(ScreenInitEvent.NAME)
+@Label("Screen Init")
+@Category({"Configured", "Screen"})
+@Description("A screen was initialised")
+@StackTrace(false)
+public class ScreenInitEvent extends Event
+{
+    public static final String NAME = "configured.ScreenInit";
+
+    @Name("screen")
+    @Label("Screen")
+    public final String screen;
+
+    @Name("fileName")
+    @Label("File Name")
+    public String fileName;
+
+    @Name("entryCount")
+    @Label("Entry Count")
+    public int entryCount;
+
+    public ScreenInitEvent(String screen)
+    {
+        this.screen = screen;
+    }
+}
@@ -0,0 +1,42 @@
+package com.mrcrayfish.configured.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Recorded when the search results of a list screen are updated, which happens on every change
+ * to the text in the search box
+ *
+ * Author: MrCrayfish
+ */
+@Name(ScreenSearchEvent.NAME)
+@Label("Screen Search")
+@Category({"Configured", "Screen"})
+@Description("The search results of a screen were updated")
+@StackTrace(false)
+public class ScreenSearchEvent extends Event
+{
+    public static final String NAME = "configured.ScreenSearch";
+
+    @Name("screen")
+    @Label("Screen")
+    public final String screen;
+
+    @Name("queryLength")
+    @Label("Query Length")
+    public final int queryLength;
+
+    @Name("resultCount")
+    @Label("Result Count")
+    public int resultCount;
+
+    public ScreenSearchEvent(String screen, int queryLength)
+    {
+        this.screen = screen;
+        this.queryLength = queryLength;
+    }
+}
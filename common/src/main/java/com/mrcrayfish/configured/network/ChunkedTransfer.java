@@ -0,0 +1,308 @@
+package com.mrcrayfish.configured.network;
+
+import com.mrcrayfish.configured.Constants;
+import com.mrcrayfish.configured.network.message.MessageConfigChunk;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.core.RegistryAccess;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.resources.ResourceLocation;
+
+import org.jetbrains.annotations.Nullable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Sends messages carrying config data in chunks when they are too large to be sent in a single
+ * packet. Each chunk carries a sequence number and a checksum of the entire message, and the
+ * receiver reassembles the chunks and decodes the original message once all of them have arrived.
+ * <p>
+ * Messages are not sent straight away but queued per connection, and only a limited number of
+ * chunks are sent to each connection per tick, so a large transfer doesn't flood the outgoing
+ * network queue. Small messages to a connection with a transfer in progress are queued behind it,
+ * so messages always arrive in the order they were sent.
+ * <p>
+ * A large message is encoded once and its chunks are slices of that buffer, so the data isn't
+ * copied again when it's split. The last encoded message is kept until the end of the tick, so a
+ * message broadcast to many players is also only encoded once. The buffer is an unpooled heap
+ * buffer rather than a pooled one, since the network gives no callback once a packet has been
+ * written, so there is no safe point to release it. It is freed by the garbage collector once the
+ * last chunk has been sent.
+ * <p>
+ * The server only accepts chunks from players who can edit server configs, and a connection can
+ * only have a few transfers in progress at once, so a client can't make the server buffer an
+ * unbounded amount of data. The reassembled message is handled like any other message, which is
+ * where it takes a request from the {@link RequestLimiter} of the player, so a chunked sync costs
+ * the same as a small one. The transfers of a player are discarded when they disconnect.
+ * <p>
+ * There is an instance for each side, which must only be used on that side's main thread.
+ *
+ * Author: MrCrayfish
+ */
+public final class ChunkedTransfer
+{
+    /**
+     * The maximum size of a chunk. Serverbound custom payloads are limited to 32 KiB.
+     */
+    public static final int CHUNK_SIZE = 16 * 1024;
+    private static final int CHUNKS_PER_TICK = 4;
+    private static final int MAX_LENGTH = 8 * 1024 * 1024;
+    private static final int MAX_ACTIVE_TRANSFERS = 4;
+    private static final int TRANSFER_TIMEOUT_TICKS = 20 * 60;
+
+    public static final ChunkedTransfer SERVER = new ChunkedTransfer();
+    public static final ChunkedTransfer CLIENT = new ChunkedTransfer();
+
+    /**
+     * The key used by the client for its connection to the server
+     */
+    public static final Object SERVER_CONNECTION = new Object();
+
+    private final Map<Object, Outgoing> outgoing = new LinkedHashMap<>();
+    private final Map<Object, Map<Integer, Incoming>> incoming = new HashMap<>();
+    private int nextTransferId;
+    private long ticks;
+    @Nullable
+    private Object lastMessage;
+    @Nullable
+    private ByteBuf lastEncoded;
+
+    private ChunkedTransfer() {}
+
+    /**
+     * Sends a message to the target, splitting it into chunks if it's too large.
+     *
+     * @param target      a key identifying the connection, the UUID of the player on the server
+     * @param connected   checks if the connection is still open
+     * @param type        the type of the message, used by the receiver to decode it
+     * @param codec       the codec of the message
+     * @param message     the message to send
+     * @param sendMessage sends the message as is
+     * @param sendChunk   sends a chunk of the message
+     * @return the size of the encoded message in bytes, or -1 if it was too large to send
+     */
+    public <T> int send(Object target, BooleanSupplier connected, ResourceLocation type, StreamCodec<? super RegistryFriendlyByteBuf, T> codec, T message, Consumer<T> sendMessage, Consumer<MessageConfigChunk> sendChunk)
+    {
+        ByteBuf data = this.encode(codec, message);
+        int length = data.readableBytes();
+        Outgoing out = this.outgoing.get(target);
+        if(length <= CHUNK_SIZE)
+        {
+            if(out == null)
+            {
+                sendMessage.accept(message);
+                return length;
+            }
+            out.sends.add(() -> sendMessage.accept(message));
+            return length;
+        }
+
+        if(length > MAX_LENGTH)
+        {
+            Constants.LOG.error("Unable to send {} since it is larger than {} bytes", type, MAX_LENGTH);
+            return -1;
+        }
+
+        if(out == null)
+        {
+            out = new Outgoing(connected);
+            this.outgoing.put(target, out);
+        }
+
+        CRC32 crc = new CRC32();
+        crc.update(data.nioBuffer());
+        int checksum = (int) crc.getValue();
+        int transferId = this.nextTransferId++;
+        int count = getChunkCount(length);
+        for(int i = 0; i < count; i++)
+        {
+            int offset = i * CHUNK_SIZE;
+            ByteBuf part = data.slice(offset, Math.min(CHUNK_SIZE, length - offset));
+            MessageConfigChunk chunk = new MessageConfigChunk(transferId, i, count, length, checksum, type, part);
+            out.sends.add(() -> sendChunk.accept(chunk));
+        }
+        Constants.LOG.debug("Sending {} in {} chunks ({} bytes)", type, count, length);
+        return length;
+    }
+
+    /**
+     * Sends the next queued chunks to each connection and discards incomplete transfers that timed
+     * out. Called at the end of every tick.
+     */
+    public void tick()
+    {
+        this.ticks++;
+        this.lastMessage = null;
+        this.lastEncoded = null;
+        Iterator<Outgoing> it = this.outgoing.values().iterator();
+        while(it.hasNext())
+        {
+            Outgoing out = it.next();
+            if(!out.connected.getAsBoolean())
+            {
+                it.remove();
+                continue;
+            }
+            for(int i = 0; i < CHUNKS_PER_TICK && !out.sends.isEmpty(); i++)
+            {
+                out.sends.poll().run();
+            }
+            if(out.sends.isEmpty())
+            {
+                it.remove();
+            }
+        }
+
+        if(!this.incoming.isEmpty())
+        {
+            this.incoming.values().forEach(transfers -> transfers.values().removeIf(transfer -> {
+                if(this.ticks - transfer.lastUpdate > TRANSFER_TIMEOUT_TICKS)
+                {
+                    Constants.LOG.warn("Transfer of {} timed out", transfer.type);
+                    return true;
+                }
+                return false;
+            }));
+            this.incoming.values().removeIf(Map::isEmpty);
+        }
+    }
+
+    /**
+     * Accepts a received chunk. On the server, the caller must check the player is allowed to edit
+     * server configs.
+     *
+     * @param sender a key identifying the connection the chunk was received from, the UUID of the
+     *               player on the server
+     * @param chunk  the received chunk
+     * @return the complete message if this was the last chunk and the message is intact, otherwise null
+     */
+    @Nullable
+    public byte[] receive(Object sender, MessageConfigChunk chunk)
+    {
+        Map<Integer, Incoming> transfers = this.incoming.computeIfAbsent(sender, key -> new HashMap<>());
+        Incoming transfer = transfers.get(chunk.transferId());
+        if(transfer == null)
+        {
+            // The rest of a transfer that was discarded or rejected
+            if(chunk.index() != 0)
+            {
+                Constants.LOG.debug("Discarding chunk {} of {} since its transfer is unknown", chunk.index(), chunk.type());
+                return null;
+            }
+            if(chunk.length() <= 0 || chunk.length() > MAX_LENGTH || chunk.count() != getChunkCount(chunk.length()))
+            {
+                Constants.LOG.warn("Received an invalid chunk of {}", chunk.type());
+                return null;
+            }
+            if(transfers.size() >= MAX_ACTIVE_TRANSFERS)
+            {
+                Constants.LOG.warn("Too many active transfers, discarding chunk of {}", chunk.type());
+                return null;
+            }
+            transfer = new Incoming(chunk.type(), chunk.count(), chunk.length(), chunk.checksum(), Unpooled.buffer(chunk.length(), chunk.length()));
+            transfers.put(chunk.transferId(), transfer);
+        }
+
+        if(chunk.index() != transfer.next || chunk.count() != transfer.count || !chunk.type().equals(transfer.type) || chunk.data().readableBytes() > transfer.data.writableBytes())
+        {
+            Constants.LOG.warn("Received chunk {} of {} out of sequence, discarding transfer", chunk.index(), chunk.type());
+            transfers.remove(chunk.transferId());
+            return null;
+        }
+
+        transfer.data.writeBytes(chunk.data());
+        transfer.next++;
+        transfer.lastUpdate = this.ticks;
+        if(transfer.next < transfer.count)
+            return null;
+
+        transfers.remove(chunk.transferId());
+        byte[] data = transfer.data.array();
+        CRC32 crc = new CRC32();
+        crc.update(data);
+        if(transfer.data.readableBytes() != transfer.length || (int) crc.getValue() != transfer.checksum)
+        {
+            Constants.LOG.warn("Received {} failed the integrity check, discarding it", chunk.type());
+            return null;
+        }
+        return data;
+    }
+
+    /**
+     * Discards the queued and incomplete transfers of a connection. Called when it is closed.
+     *
+     * @param target a key identifying the connection, the UUID of the player on the server
+     */
+    public void disconnect(Object target)
+    {
+        this.outgoing.remove(target);
+        this.incoming.remove(target);
+    }
+
+    /**
+     * Decodes a message that was received in chunks
+     */
+    public static <T> T decode(StreamCodec<? super RegistryFriendlyByteBuf, T> codec, byte[] data)
+    {
+        return codec.decode(new RegistryFriendlyByteBuf(Unpooled.wrappedBuffer(data), RegistryAccess.EMPTY));
+    }
+
+    private static int getChunkCount(int length)
+    {
+        return (length + CHUNK_SIZE - 1) / CHUNK_SIZE;
+    }
+
+    /**
+     * Encodes the message, or returns the buffer of the last message if it is the same message
+     */
+    private <T> ByteBuf encode(StreamCodec<? super RegistryFriendlyByteBuf, T> codec, T message)
+    {
+        if(message != this.lastMessage || this.lastEncoded == null)
+        {
+            ByteBuf buf = Unpooled.buffer();
+            codec.encode(new RegistryFriendlyByteBuf(buf, RegistryAccess.EMPTY), message);
+            this.lastMessage = message;
+            this.lastEncoded = buf;
+        }
+        return this.lastEncoded;
+    }
+
+    private static class Outgoing
+    {
+        private final BooleanSupplier connected;
+        private final Deque<Runnable> sends = new ArrayDeque<>();
+
+        private Outgoing(BooleanSupplier connected)
+        {
+            this.connected = connected;
+        }
+    }
+
+    private static class Incoming
+    {
+        private final ResourceLocation type;
+        private final int count;
+        private final int length;
+        private final int checksum;
+        private final ByteBuf data;
+        private int next;
+        private long lastUpdate;
+
+        private Incoming(ResourceLocation type, int count, int length, int checksum, ByteBuf data)
+        {
+            this.type = type;
+            this.count = count;
+            this.length = length;
+            this.checksum = checksum;
+            this.data = data;
+        }
+    }
+}
@@ -12,5 +12,6 @@ public class ClientPlayHandler
     {
         SessionData.setDeveloper(message.developer());
         SessionData.setLan(message.lan());
+        SessionData.setManifest(message.manifest());
     }
 }
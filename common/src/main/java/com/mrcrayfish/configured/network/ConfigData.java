@@ -0,0 +1,434 @@
+package com.mrcrayfish.configured.network;
+
+import com.electronwill.nightconfig.core.CommentedConfig;
+import com.electronwill.nightconfig.core.UnmodifiableCommentedConfig;
+import com.electronwill.nightconfig.core.UnmodifiableConfig;
+import com.electronwill.nightconfig.toml.TomlFormat;
+import com.mrcrayfish.configured.Config;
+import com.mrcrayfish.configured.util.ConfigHelper;
+import com.mrcrayfish.configured.util.TomlPatcher;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.ByteBufOutputStream;
+import io.netty.handler.codec.DecoderException;
+import io.netty.handler.codec.EncoderException;
+import net.minecraft.network.FriendlyByteBuf;
+
+import org.jetbrains.annotations.Nullable;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * The serialized content of a config that is sent over the network. Data created from a config
+ * or a file is not serialized until the packet is encoded, at which point the TOML is written, or
+ * the file is streamed, directly into the network buffer instead of first being copied into a byte
+ * array. Data that is kept around while the config may still be edited, such as on the client,
+ * should be created from a copy of the config with {@link #copyOf(UnmodifiableConfig)}. Data
+ * received over the network is always backed by a byte array.
+ * <p>
+ * The encoded form starts with a format byte. Content smaller than the compression threshold
+ * (see {@link Config#getCompressionThreshold()}) is written as is, in the same form as
+ * {@link FriendlyByteBuf#writeByteArray(byte[])}. Larger content is compressed with deflate, which
+ * shrinks TOML considerably since most of a config file is usually comments.
+ * <p>
+ * Data created with a {@link ConfigSchema} is sent as just the typed values of the config in the
+ * order of the schema, which is both smaller than TOML and skips parsing on the receiving side.
+ * The receiver must check the data is compatible with its own schema before reading it. TOML is
+ * used as a fallback when a config contains values that can't be sent in binary form.
+ * <p>
+ * Large messages are encoded once by {@link ChunkedTransfer} and sent as slices of that buffer, no
+ * matter how many players they are sent to.
+ *
+ * Author: MrCrayfish
+ */
+public abstract class ConfigData
+{
+    private static final int MAX_VAR_INT_SIZE = 5;
+    private static final int MAX_UNCOMPRESSED_SIZE = 8 * 1024 * 1024;
+    private static final byte FORMAT_RAW = 0;
+    private static final byte FORMAT_DEFLATE = 1;
+    private static final byte FORMAT_SCHEMA = 2;
+
+    private ConfigData() {}
+
+    /**
+     * Creates data backed by the given byte array
+     */
+    public static ConfigData of(byte[] data)
+    {
+        return new ArrayData(data);
+    }
+
+    /**
+     * Creates data that writes the given config as TOML when it is encoded
+     */
+    public static ConfigData of(UnmodifiableConfig config)
+    {
+        return new TomlData(config);
+    }
+
+    /**
+     * Creates data that writes a copy of the given config as TOML when it is encoded. The values
+     * and comments of the config are copied immediately, so the config may be edited before the
+     * data is sent.
+     */
+    public static ConfigData copyOf(UnmodifiableConfig config)
+    {
+        return new TomlData(snapshot(config));
+    }
+
+    /**
+     * Creates data containing the values of the given config in the order of the schema. The
+     * values are captured immediately. Falls back to TOML if a value can't be sent in binary form.
+     */
+    public static ConfigData of(UnmodifiableConfig config, ConfigSchema schema)
+    {
+        List<Object> values = schema.capture(config);
+        return values != null ? new SchemaData(schema.fingerprint(), values) : of(config);
+    }
+
+    /**
+     * Creates data that streams the content of the given file into the buffer when it is encoded.
+     * The file is read while holding the lock of {@link TomlPatcher}, so a patch from another
+     * thread can't end up partially written in the packet.
+     */
+    public static ConfigData of(Path file)
+    {
+        return new FileData(file);
+    }
+
+    /**
+     * @return the serialized content as a byte array. Data created from a config is serialized on
+     * each call, and data in binary form is written as TOML through its schema.
+     */
+    public abstract byte[] bytes();
+
+    /**
+     * @return true if this data can be read with the given schema. Always true for TOML, and never
+     * true for binary data if there is no schema.
+     */
+    public boolean isCompatible(@Nullable ConfigSchema schema)
+    {
+        return true;
+    }
+
+    /**
+     * Reads this data into a config. TOML is parsed, while binary data is mapped to paths using
+     * the given schema, which must be compatible.
+     *
+     * @param schema the schema of the spec of the config, or null if it is unknown
+     * @return a new config containing the data
+     * @throws com.electronwill.nightconfig.core.io.ParsingException if the TOML is malformed
+     */
+    public CommentedConfig read(@Nullable ConfigSchema schema)
+    {
+        return TomlFormat.instance().createParser().parse(new ByteArrayInputStream(this.bytes()));
+    }
+
+    /**
+     * Writes the serialized content to the end of the buffer
+     */
+    protected abstract void writeContent(ByteBuf buf) throws IOException;
+
+    /**
+     * Writes this data into the buffer with a length prefix. Since the length is not known until
+     * the content has been written, space for the largest possible VarInt is reserved and filled in
+     * afterwards using a padded encoding. If the content is larger than the compression threshold,
+     * it is then replaced with its compressed form.
+     */
+    void write(FriendlyByteBuf buf)
+    {
+        int formatIndex = buf.writerIndex();
+        buf.writeByte(FORMAT_RAW);
+        int start = buf.writerIndex();
+        buf.writeZero(MAX_VAR_INT_SIZE);
+        try
+        {
+            this.writeContent(buf);
+        }
+        catch(IOException e)
+        {
+            throw new EncoderException("Failed to write config data", e);
+        }
+        int length = buf.writerIndex() - start - MAX_VAR_INT_SIZE;
+        for(int i = 0; i < MAX_VAR_INT_SIZE - 1; i++)
+        {
+            buf.setByte(start + i, (length >>> (i * 7)) & 0x7F | 0x80);
+        }
+        buf.setByte(start + MAX_VAR_INT_SIZE - 1, length >>> 28);
+
+        int threshold = Config.getCompressionThreshold();
+        if(threshold >= 0 && length >= threshold)
+        {
+            compress(buf, formatIndex, start + MAX_VAR_INT_SIZE, length);
+        }
+    }
+
+    /**
+     * Decodes data written by {@link #write(FriendlyByteBuf)}
+     */
+    static ConfigData decode(FriendlyByteBuf buf)
+    {
+        byte format = buf.readByte();
+        if(format == FORMAT_RAW)
+        {
+            return new ArrayData(buf.readByteArray());
+        }
+        if(format == FORMAT_SCHEMA)
+        {
+            return SchemaData.decode(buf);
+        }
+        if(format != FORMAT_DEFLATE)
+        {
+            throw new DecoderException("Unknown config data format: " + format);
+        }
+        int length = buf.readVarInt();
+        if(length < 0 || length > MAX_UNCOMPRESSED_SIZE)
+        {
+            throw new DecoderException("Config data is too large: " + length);
+        }
+        byte[] compressed = buf.readByteArray();
+        Inflater inflater = new Inflater();
+        try
+        {
+            inflater.setInput(compressed);
+            byte[] data = new byte[length];
+            int offset = 0;
+            while(offset < length && !inflater.finished())
+            {
+                int read = inflater.inflate(data, offset, length - offset);
+                if(read == 0 && (inflater.needsInput() || inflater.needsDictionary()))
+                    break;
+                offset += read;
+            }
+            if(offset != length || !inflater.finished())
+            {
+                throw new DecoderException("Config data did not match its expected length of " + length);
+            }
+            return new ArrayData(data);
+        }
+        catch(DataFormatException e)
+        {
+            throw new DecoderException("Failed to decompress config data", e);
+        }
+        finally
+        {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Replaces the raw content at the end of the buffer with its compressed form. The content is
+     * left as is if compressing it doesn't make it smaller.
+     */
+    private static void compress(FriendlyByteBuf buf, int formatIndex, int contentIndex, int length)
+    {
+        ByteBuf compressed = buf.alloc().buffer(length / 2);
+        Deflater deflater = new Deflater();
+        try
+        {
+            deflater.setInput(buf.nioBuffer(contentIndex, length));
+            deflater.finish();
+            byte[] chunk = new byte[8192];
+            while(!deflater.finished())
+            {
+                int count = deflater.deflate(chunk);
+                compressed.writeBytes(chunk, 0, count);
+            }
+            // Format byte, two VarInts
+            if(compressed.readableBytes() + 1 + 2 * MAX_VAR_INT_SIZE >= length)
+                return;
+
+            buf.writerIndex(formatIndex);
+            buf.writeByte(FORMAT_DEFLATE);
+            buf.writeVarInt(length);
+            buf.writeVarInt(compressed.readableBytes());
+            buf.writeBytes(compressed);
+        }
+        finally
+        {
+            deflater.end();
+            compressed.release();
+        }
+    }
+
+    /**
+     * Creates a deep copy of the values and comments of the given config
+     */
+    private static CommentedConfig snapshot(UnmodifiableConfig config)
+    {
+        CommentedConfig copy = CommentedConfig.inMemory();
+        config.valueMap().forEach((key, value) -> copy.valueMap().put(key, snapshotValue(value)));
+        if(config instanceof UnmodifiableCommentedConfig commented)
+        {
+            copy.commentMap().putAll(commented.commentMap());
+        }
+        return copy;
+    }
+
+    private static Object snapshotValue(Object value)
+    {
+        if(value instanceof UnmodifiableConfig config)
+        {
+            return snapshot(config);
+        }
+        if(value instanceof List<?> list)
+        {
+            List<Object> copy = new ArrayList<>(list.size());
+            list.forEach(o -> copy.add(snapshotValue(o)));
+            return copy;
+        }
+        return value;
+    }
+
+    private static final class ArrayData extends ConfigData
+    {
+        private final byte[] data;
+
+        private ArrayData(byte[] data)
+        {
+            this.data = data;
+        }
+
+        @Override
+        public byte[] bytes()
+        {
+            return this.data;
+        }
+
+        @Override
+        protected void writeContent(ByteBuf buf)
+        {
+            buf.writeBytes(this.data);
+        }
+    }
+
+    private static final class FileData extends ConfigData
+    {
+        private final Path file;
+
+        private FileData(Path file)
+        {
+            this.file = file;
+        }
+
+        @Override
+        public byte[] bytes()
+        {
+            return ConfigHelper.readBytes(this.file);
+        }
+
+        @Override
+        protected void writeContent(ByteBuf buf) throws IOException
+        {
+            TomlPatcher.read(this.file, buf);
+        }
+    }
+
+    private static final class TomlData extends ConfigData
+    {
+        private final UnmodifiableConfig config;
+
+        private TomlData(UnmodifiableConfig config)
+        {
+            this.config = config;
+        }
+
+        @Override
+        public byte[] bytes()
+        {
+            ByteArrayOutputStream stream = new ByteArrayOutputStream();
+            TomlFormat.instance().createWriter().write(this.config, stream);
+            return stream.toByteArray();
+        }
+
+        @Override
+        protected void writeContent(ByteBuf buf)
+        {
+            TomlFormat.instance().createWriter().write(this.config, new ByteBufOutputStream(buf));
+        }
+    }
+
+    private static final class SchemaData extends ConfigData
+    {
+        private final long fingerprint;
+        private final List<Object> values;
+
+        private SchemaData(long fingerprint, List<Object> values)
+        {
+            this.fingerprint = fingerprint;
+            this.values = values;
+        }
+
+        /**
+         * Renders the values as TOML through the schema of the spec with the same fingerprint
+         *
+         * @throws IllegalStateException if no loaded spec matches the schema of the data
+         */
+        @Override
+        public byte[] bytes()
+        {
+            ConfigSchema schema = ConfigSchema.find(this.fingerprint);
+            if(schema == null)
+            {
+                throw new IllegalStateException("No config spec matches the schema of the config data");
+            }
+            ByteArrayOutputStream stream = new ByteArrayOutputStream();
+            TomlFormat.instance().createWriter().write(schema.build(this.values), stream);
+            return stream.toByteArray();
+        }
+
+        @Override
+        public boolean isCompatible(@Nullable ConfigSchema schema)
+        {
+            return schema != null && schema.fingerprint() == this.fingerprint;
+        }
+
+        @Override
+        public CommentedConfig read(@Nullable ConfigSchema schema)
+        {
+            if(!this.isCompatible(schema))
+            {
+                throw new IllegalStateException("Config data does not match the schema");
+            }
+            return schema.build(this.values);
+        }
+
+        @Override
+        protected void writeContent(ByteBuf buf)
+        {
+            buf.writeBytes(this.bytes());
+        }
+
+        @Override
+        void write(FriendlyByteBuf buf)
+        {
+            buf.writeByte(FORMAT_SCHEMA);
+            buf.writeLong(this.fingerprint);
+            buf.writeVarInt(this.values.size());
+            this.values.forEach(value -> ConfigDelta.writeValue(buf, value));
+        }
+
+        private static SchemaData decode(FriendlyByteBuf buf)
+        {
+            long fingerprint = buf.readLong();
+            int count = buf.readVarInt();
+            if(count < 0 || count > buf.readableBytes())
+            {
+                throw new DecoderException("Config value count is larger than the remaining data: " + count);
+            }
+            List<Object> values = new ArrayList<>(count);
+            for(int i = 0; i < count; i++)
+            {
+                values.add(ConfigDelta.readValue(buf, 0));
+            }
+            return new SchemaData(fingerprint, values);
+        }
+    }
+}
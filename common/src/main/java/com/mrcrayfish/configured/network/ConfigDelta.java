@@ -0,0 +1,284 @@
+package com.mrcrayfish.configured.network;
+
+import com.electronwill.nightconfig.core.Config;
+import com.electronwill.nightconfig.core.UnmodifiableConfig;
+import com.google.common.collect.MapMaker;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import io.netty.handler.codec.DecoderException;
+import io.netty.handler.codec.EncoderException;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.codec.StreamCodec;
+
+import org.jetbrains.annotations.Nullable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The changed values of a config, sent instead of the entire config when only a few values were
+ * edited. The base hash is the hash of the values of the config the changes were made against. The
+ * receiver only applies the changes if the hash of its own copy of the config matches, otherwise
+ * the full config has to be sent instead.
+ * <p>
+ * Values keep their type when sent, since the validators of config specs expect the exact type
+ * (for example an integer and not a long). Enums are sent as their name, which is how they are
+ * stored in a TOML file.
+ *
+ * Author: MrCrayfish
+ */
+public record ConfigDelta(long baseHash, Map<List<String>, Object> changes)
+{
+    private static final int MAX_DEPTH = 8;
+    private static final byte TYPE_BOOLEAN = 0;
+    private static final byte TYPE_INT = 1;
+    private static final byte TYPE_LONG = 2;
+    private static final byte TYPE_DOUBLE = 3;
+    private static final byte TYPE_STRING = 4;
+    private static final byte TYPE_LIST = 5;
+    private static final Map<UnmodifiableConfig, CachedHash> HASHES = new MapMaker().weakKeys().makeMap();
+
+    public static final StreamCodec<FriendlyByteBuf, ConfigDelta> STREAM_CODEC = StreamCodec.of(ConfigDelta::encode, ConfigDelta::decode);
+
+    /**
+     * Creates a delta of the given changes
+     *
+     * @param baseHash the hash of the config before the changes were applied
+     * @param changes  a map of the full key paths to their new values
+     * @return the delta, or null if a value can't be sent as part of a delta
+     */
+    @Nullable
+    public static ConfigDelta create(long baseHash, Map<List<String>, Object> changes)
+    {
+        for(Object value : changes.values())
+        {
+            if(!isSupported(value, 0))
+            {
+                return null;
+            }
+        }
+        return new ConfigDelta(baseHash, Map.copyOf(changes));
+    }
+
+    /**
+     * Computes a hash of the values of the given config. Comments and formatting are ignored, and
+     * keys are hashed in sorted order, so the same values always produce the same hash no matter
+     * how the config was loaded.
+     */
+    public static long hash(UnmodifiableConfig config)
+    {
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        hashConfig(hasher, config);
+        return hasher.hash().asLong();
+    }
+
+    /**
+     * Gets the hash of the values of the given config. The hash is cached along with the version of
+     * the config (see {@link #getVersion(UnmodifiableConfig)}), and is only computed again once the
+     * version changes or the hash has been invalidated.
+     */
+    public static long getHash(UnmodifiableConfig config)
+    {
+        long version = getVersion(config);
+        CachedHash cached = HASHES.get(config);
+        if(cached != null && cached.version == version)
+        {
+            return cached.hash;
+        }
+        long hash = hash(config);
+        HASHES.put(config, new CachedHash(version, hash));
+        return hash;
+    }
+
+    /**
+     * Discards the cached hash of the given config. Must be called after a nested value has been
+     * changed in place, since that doesn't change the version of the config.
+     */
+    public static void invalidateHash(UnmodifiableConfig config)
+    {
+        HASHES.remove(config);
+    }
+
+    /**
+     * Gets a cheap stand-in for a modification counter, which night-config configs don't have.
+     * Loading a config, such as when its file is reloaded by its loader or after a backup was
+     * restored, and putting the values of a newly read config into it both replace the top level
+     * values with new instances. Their identities change, so the cached hash is discarded even when the
+     * code that changed the config doesn't know about the cache.
+     */
+    private static long getVersion(UnmodifiableConfig config)
+    {
+        Map<String, Object> values = config.valueMap();
+        long version = values.size();
+        for(Object value : values.values())
+        {
+            version = version * 31 + System.identityHashCode(value);
+        }
+        return version;
+    }
+
+    /**
+     * Sets the changed values on the given config
+     */
+    public void apply(Config config)
+    {
+        this.changes.forEach(config::set);
+    }
+
+    private static void hashConfig(Hasher hasher, UnmodifiableConfig config)
+    {
+        new TreeMap<>(config.valueMap()).forEach((key, value) -> {
+            hasher.putInt(key.length()).putString(key, StandardCharsets.UTF_8);
+            hashValue(hasher, value);
+        });
+        hasher.putByte((byte) -1);
+    }
+
+    private static void hashValue(Hasher hasher, Object value)
+    {
+        if(value instanceof UnmodifiableConfig config)
+        {
+            hasher.putByte((byte) 0);
+            hashConfig(hasher, config);
+        }
+        else if(value instanceof List<?> list)
+        {
+            hasher.putByte((byte) 1).putInt(list.size());
+            list.forEach(o -> hashValue(hasher, o));
+        }
+        else
+        {
+            String s = value instanceof Enum<?> e ? e.name() : String.valueOf(value);
+            hasher.putByte((byte) 2).putInt(s.length()).putString(s, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * @return the tag of the type the value is sent as, or -1 if it can't be sent
+     */
+    static byte getType(@Nullable Object value)
+    {
+        if(value instanceof Boolean)
+            return TYPE_BOOLEAN;
+        if(value instanceof Integer)
+            return TYPE_INT;
+        if(value instanceof Long)
+            return TYPE_LONG;
+        if(value instanceof Double)
+            return TYPE_DOUBLE;
+        if(value instanceof String || value instanceof Enum<?>)
+            return TYPE_STRING;
+        if(value instanceof List<?>)
+            return TYPE_LIST;
+        return -1;
+    }
+
+    static boolean isSupported(Object value, int depth)
+    {
+        if(value instanceof List<?> list)
+        {
+            return depth < MAX_DEPTH && list.stream().allMatch(o -> isSupported(o, depth + 1));
+        }
+        return value instanceof Boolean || value instanceof Integer || value instanceof Long || value instanceof Double || value instanceof String || value instanceof Enum<?>;
+    }
+
+    private static void encode(FriendlyByteBuf buf, ConfigDelta delta)
+    {
+        buf.writeLong(delta.baseHash);
+        buf.writeVarInt(delta.changes.size());
+        delta.changes.forEach((path, value) -> {
+            buf.writeCollection(path, FriendlyByteBuf::writeUtf);
+            writeValue(buf, value);
+        });
+    }
+
+    private static ConfigDelta decode(FriendlyByteBuf buf)
+    {
+        long baseHash = buf.readLong();
+        int count = buf.readVarInt();
+        Map<List<String>, Object> changes = new HashMap<>();
+        for(int i = 0; i < count; i++)
+        {
+            List<String> path = buf.readList(FriendlyByteBuf::readUtf);
+            changes.put(Collections.unmodifiableList(path), readValue(buf, 0));
+        }
+        return new ConfigDelta(baseHash, Collections.unmodifiableMap(changes));
+    }
+
+    static void writeValue(FriendlyByteBuf buf, Object value)
+    {
+        if(value instanceof Boolean b)
+        {
+            buf.writeByte(TYPE_BOOLEAN);
+            buf.writeBoolean(b);
+        }
+        else if(value instanceof Integer i)
+        {
+            buf.writeByte(TYPE_INT);
+            buf.writeVarInt(i);
+        }
+        else if(value instanceof Long l)
+        {
+            buf.writeByte(TYPE_LONG);
+            buf.writeVarLong(l);
+        }
+        else if(value instanceof Double d)
+        {
+            buf.writeByte(TYPE_DOUBLE);
+            buf.writeDouble(d);
+        }
+        else if(value instanceof String s)
+        {
+            buf.writeByte(TYPE_STRING);
+            buf.writeUtf(s);
+        }
+        else if(value instanceof Enum<?> e)
+        {
+            buf.writeByte(TYPE_STRING);
+            buf.writeUtf(e.name());
+        }
+        else if(value instanceof List<?> list)
+        {
+            buf.writeByte(TYPE_LIST);
+            buf.writeVarInt(list.size());
+            list.forEach(o -> writeValue(buf, o));
+        }
+        else
+        {
+            throw new EncoderException("Unsupported config value type: " + value.getClass().getName());
+        }
+    }
+
+    static Object readValue(FriendlyByteBuf buf, int depth)
+    {
+        byte type = buf.readByte();
+        return switch(type)
+        {
+            case TYPE_BOOLEAN -> buf.readBoolean();
+            case TYPE_INT -> buf.readVarInt();
+            case TYPE_LONG -> buf.readVarLong();
+            case TYPE_DOUBLE -> buf.readDouble();
+            case TYPE_STRING -> buf.readUtf();
+            case TYPE_LIST -> {
+                if(depth >= MAX_DEPTH)
+                    throw new DecoderException("Config value is nested too deeply");
+                int size = buf.readVarInt();
+                if(size > buf.readableBytes())
+                    throw new DecoderException("Config list is larger than the remaining data: " + size);
+                List<Object> list = new ArrayList<>(size);
+                for(int i = 0; i < size; i++)
+                {
+                    list.add(readValue(buf, depth + 1));
+                }
+                yield list;
+            }
+            default -> throw new DecoderException("Unknown config value type: " + type);
+        };
+    }
+
+    private record CachedHash(long version, long hash) {}
+}
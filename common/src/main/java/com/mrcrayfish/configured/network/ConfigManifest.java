@@ -0,0 +1,101 @@
+package com.mrcrayfish.configured.network;
+
+import com.mrcrayfish.configured.Constants;
+import com.mrcrayfish.configured.impl.framework.handler.FrameworkServerHandler;
+import com.mrcrayfish.configured.platform.Services;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A list of the server configs developers can request, along with the hash of their values. The
+ * manifest is sent to developers as part of the session data when they join. If the client still
+ * has the data of a config cached from a previous session on the server and its hash matches the
+ * manifest, the config is opened from the cache without requesting it from the server at all.
+ * <p>
+ * The manifest is only recreated after a config has changed, either by a developer updating it
+ * or by Framework reloading it after its file was edited. Developers are sent the new manifest at
+ * the end of the tick if it changed. Recreating it is cheap since the hash of each config is
+ * cached until the config changes.
+ *
+ * Author: MrCrayfish
+ */
+public final class ConfigManifest
+{
+    private static Map<ResourceLocation, Long> current = Map.of();
+    private static Map<ResourceLocation, Long> sent = Map.of();
+    private static volatile boolean dirty = true;
+    private static volatile boolean changed;
+
+    private ConfigManifest() {}
+
+    /**
+     * @return the manifest of the server, which is created if the configs have changed
+     */
+    public static Map<ResourceLocation, Long> get()
+    {
+        if(dirty)
+        {
+            dirty = false;
+            current = create();
+        }
+        return current;
+    }
+
+    /**
+     * Marks the manifest to be recreated and sent to developers at the end of the tick. Called
+     * after a config has changed, which may happen off the server thread.
+     */
+    public static void markDirty()
+    {
+        dirty = true;
+        changed = true;
+    }
+
+    /**
+     * Sends the manifest to the online developers if a config has changed since the last tick and
+     * the manifest is different to the one they were last sent. Called at the end of every server
+     * tick.
+     */
+    public static void tick(MinecraftServer server)
+    {
+        if(!changed)
+            return;
+        changed = false;
+
+        List<ServerPlayer> developers = server.getPlayerList().getPlayers().stream().filter(ServerPlayHelper::isDeveloper).toList();
+        if(developers.isEmpty())
+        {
+            // Nobody needs the manifest, so just recreate it when the next developer joins
+            sent = Map.of();
+            return;
+        }
+
+        Map<ResourceLocation, Long> manifest = get();
+        if(!manifest.equals(sent))
+        {
+            sent = manifest;
+            Constants.LOG.debug("Server config manifest changed, sending to {} developer(s)", developers.size());
+            developers.forEach(Services.PLATFORM::sendSessionData);
+        }
+    }
+
+    /**
+     * Gets the manifest to send to the given player. Only developers can request server configs,
+     * so other players are sent an empty manifest.
+     */
+    public static Map<ResourceLocation, Long> get(boolean developer)
+    {
+        return developer ? get() : Map.of();
+    }
+
+    private static Map<ResourceLocation, Long> create()
+    {
+        if(!Services.PLATFORM.isModLoaded("framework"))
+            return Map.of();
+        return FrameworkServerHandler.createManifest();
+    }
+}
@@ -0,0 +1,60 @@
+package com.mrcrayfish.configured.network;
+
+import net.minecraft.server.MinecraftServer;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Processes config data received by the server on a worker thread. Reading the data of a large
+ * config and validating it against its spec can take a while, so only the already validated
+ * result is handed back to the server thread to be applied.
+ * <p>
+ * A single worker is used so data is applied in the order it was received.
+ *
+ * Author: MrCrayfish
+ */
+public final class ConfigProcessor
+{
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Configured Config Processor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ConfigProcessor() {}
+
+    /**
+     * Runs the work on the worker thread, then passes the result to apply on the server thread.
+     * The result must not be shared with anything else, since it is handed between threads.
+     *
+     * @param server the server to apply the result on
+     * @param work   reads and validates the data. Must not access the live config.
+     * @param apply  applies the result. Called on the server thread.
+     * @param failed handles an exception thrown by the work. Called on the server thread.
+     */
+    public static <T> void process(MinecraftServer server, Callable<T> work, Consumer<T> apply, Consumer<Throwable> failed)
+    {
+        CompletableFuture.supplyAsync(() -> {
+            try
+            {
+                return work.call();
+            }
+            catch(Exception e)
+            {
+                throw new CompletionException(e);
+            }
+        }, EXECUTOR).whenCompleteAsync((result, throwable) -> {
+            if(throwable != null)
+            {
+                failed.accept(throwable instanceof CompletionException && throwable.getCause() != null ? throwable.getCause() : throwable);
+                return;
+            }
+            apply.accept(result);
+        }, server);
+    }
+}
@@ -0,0 +1,130 @@
+package com.mrcrayfish.configured.network;
+
+import com.electronwill.nightconfig.core.CommentedConfig;
+import com.electronwill.nightconfig.core.UnmodifiableConfig;
+import com.google.common.collect.MapMaker;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import io.netty.handler.codec.DecoderException;
+
+import org.jetbrains.annotations.Nullable;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * The paths of all the values of a config spec, in a fixed order. This allows the data of a config
+ * to be sent as just its values, where each value is identified by its index in the schema, instead
+ * of as TOML text. The fingerprint is a hash of the paths and the types of the default values, and
+ * is sent along with the values so the receiver can check that its spec has the same values as the
+ * spec of the sender.
+ * <p>
+ * Schemas are created once for each spec and cached. Data received in binary form only carries the
+ * fingerprint, so schemas can also be found by their fingerprint while their spec is loaded.
+ *
+ * Author: MrCrayfish
+ */
+public final class ConfigSchema
+{
+    private static final Map<Object, ConfigSchema> CACHE = new MapMaker().weakKeys().makeMap();
+    private static final Map<Long, ConfigSchema> BY_FINGERPRINT = new MapMaker().weakValues().makeMap();
+    private static final Comparator<List<String>> PATH_ORDER = (a, b) -> {
+        for(int i = 0; i < Math.min(a.size(), b.size()); i++)
+        {
+            int result = a.get(i).compareTo(b.get(i));
+            if(result != 0)
+                return result;
+        }
+        return Integer.compare(a.size(), b.size());
+    };
+
+    private final List<List<String>> paths;
+    private final long fingerprint;
+
+    private ConfigSchema(Map<List<String>, ?> defaults)
+    {
+        // Sorted so the order doesn't depend on the iteration order of the spec
+        this.paths = defaults.keySet().stream().map(List::copyOf).sorted(PATH_ORDER).toList();
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        hasher.putInt(this.paths.size());
+        for(List<String> path : this.paths)
+        {
+            hasher.putInt(path.size());
+            path.forEach(key -> hasher.putInt(key.length()).putString(key, StandardCharsets.UTF_8));
+            hasher.putByte(ConfigDelta.getType(defaults.get(path)));
+        }
+        this.fingerprint = hasher.hash().asLong();
+    }
+
+    /**
+     * Gets the schema of the given spec, creating it if needed
+     *
+     * @param spec     the spec, only used as the key of the cache
+     * @param defaults supplies the paths of all the values of the spec mapped to their default
+     *                 values, which determine the type of each value
+     * @return the schema of the spec
+     */
+    public static ConfigSchema of(Object spec, Supplier<? extends Map<List<String>, ?>> defaults)
+    {
+        return CACHE.computeIfAbsent(spec, o -> {
+            ConfigSchema schema = new ConfigSchema(defaults.get());
+            BY_FINGERPRINT.put(schema.fingerprint, schema);
+            return schema;
+        });
+    }
+
+    /**
+     * Finds the schema with the given fingerprint
+     *
+     * @return the schema, or null if no loaded spec has a schema with the fingerprint
+     */
+    @Nullable
+    static ConfigSchema find(long fingerprint)
+    {
+        return BY_FINGERPRINT.get(fingerprint);
+    }
+
+    public long fingerprint()
+    {
+        return this.fingerprint;
+    }
+
+    /**
+     * Gets the values of the given config in the order of this schema
+     *
+     * @return the values, or null if a value is missing or can't be sent in binary form
+     */
+    @Nullable
+    List<Object> capture(UnmodifiableConfig config)
+    {
+        List<Object> values = new ArrayList<>(this.paths.size());
+        for(List<String> path : this.paths)
+        {
+            Object value = config.get(path);
+            if(value == null || !ConfigDelta.isSupported(value, 0))
+                return null;
+            values.add(value);
+        }
+        return values;
+    }
+
+    /**
+     * Creates a config from values in the order of this schema
+     */
+    CommentedConfig build(List<Object> values)
+    {
+        if(values.size() != this.paths.size())
+        {
+            throw new DecoderException("Expected " + this.paths.size() + " config values but got " + values.size());
+        }
+        CommentedConfig config = CommentedConfig.inMemory();
+        for(int i = 0; i < values.size(); i++)
+        {
+            config.set(this.paths.get(i), values.get(i));
+        }
+        return config;
+    }
+}
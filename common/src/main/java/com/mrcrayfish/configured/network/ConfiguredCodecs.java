@@ -22,4 +22,23 @@ public class ConfiguredCodecs
             buf.writeByteArray(data);
         }
     };
+
+    /**
+     * Codec for {@link ConfigData}. Writes the content of the config directly into the buffer and
+     * compresses it if it is larger than the compression threshold.
+     */
+    public static final StreamCodec<FriendlyByteBuf, ConfigData> CONFIG_DATA = new StreamCodec<>()
+    {
+        @Override
+        public ConfigData decode(FriendlyByteBuf buf)
+        {
+            return ConfigData.decode(buf);
+        }
+
+        @Override
+        public void encode(FriendlyByteBuf buf, ConfigData data)
+        {
+            data.write(buf);
+        }
+    };
 }
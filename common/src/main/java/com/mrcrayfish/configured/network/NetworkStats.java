@@ -0,0 +1,313 @@
+package com.mrcrayfish.configured.network;
+
+import com.mrcrayfish.configured.Config;
+import com.mrcrayfish.configured.Constants;
+import com.mrcrayfish.configured.jfr.NetworkMessageEvent;
+import com.mrcrayfish.configured.network.message.MessageConfigChunk;
+import io.netty.buffer.ByteBuf;
+import net.minecraft.Util;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts the messages sent and received by Configured, and the time spent processing them, so
+ * the cost of administering configs on a server can be seen. Stats are kept for each type of
+ * message and for each player, and can be viewed with <code>/configured stats</code>. A summary
+ * is also logged periodically, see {@link Config#getStatsLogInterval()}.
+ * <p>
+ * Bytes are counted when a message is encoded or decoded by the network, by wrapping the codec
+ * the message is registered with (see {@link #track(ResourceLocation, StreamCodec)}). Chunks are
+ * counted as the message they are part of, but only if it's a registered type, since the type of a
+ * chunk is sent by the other side. The stats of a player are discarded when they log out. Counters
+ * may be updated from any thread. Each message
+ * that is encoded or decoded is also recorded as a {@link NetworkMessageEvent} for JFR.
+ *
+ * Author: MrCrayfish
+ */
+public final class NetworkStats
+{
+    private static final Map<ResourceLocation, TypeStats> TYPES = new ConcurrentHashMap<>();
+    private static final Map<UUID, PlayerStats> PLAYERS = new ConcurrentHashMap<>();
+    private static final Set<ResourceLocation> REGISTERED = ConcurrentHashMap.newKeySet();
+    private static long lastLog = Util.getNanos();
+    private static long lastLoggedTotal;
+
+    private NetworkStats() {}
+
+    /**
+     * Wraps the codec of a message so the bytes of every message it encodes or decodes are
+     * counted. Encoding counts as sent and decoding counts as received.
+     *
+     * @param type  the type of the message
+     * @param codec the codec of the message
+     * @return the wrapped codec
+     */
+    public static <B extends ByteBuf, T> StreamCodec<B, T> track(ResourceLocation type, StreamCodec<B, T> codec)
+    {
+        REGISTERED.add(type);
+        return new StreamCodec<>()
+        {
+            @Override
+            public T decode(B buf)
+            {
+                NetworkMessageEvent event = new NetworkMessageEvent(false);
+                event.begin();
+                int start = buf.readerIndex();
+                T message = codec.decode(buf);
+                int bytes = buf.readerIndex() - start;
+                TypeStats stats = getType(type);
+                stats.received.increment();
+                stats.bytesIn.add(bytes);
+                if(event.shouldCommit())
+                {
+                    event.type = type.toString();
+                    event.bytes = bytes;
+                    event.commit();
+                }
+                return message;
+            }
+
+            @Override
+            public void encode(B buf, T message)
+            {
+                NetworkMessageEvent event = new NetworkMessageEvent(true);
+                event.begin();
+                int start = buf.writerIndex();
+                codec.encode(buf, message);
+                int bytes = buf.writerIndex() - start;
+                TypeStats stats = getType(type);
+                stats.sent.increment();
+                stats.bytesOut.add(bytes);
+                if(event.shouldCommit())
+                {
+                    event.type = type.toString();
+                    event.bytes = bytes;
+                    event.commit();
+                }
+            }
+        };
+    }
+
+    /**
+     * Wraps the codec of chunks so their bytes are counted as the type of message they are part
+     * of. A chunked message is only counted once, when its first chunk is sent or received. Chunks
+     * of a type that wasn't registered with {@link #track(ResourceLocation, StreamCodec)} are not
+     * counted.
+     */
+    public static <B extends ByteBuf> StreamCodec<B, MessageConfigChunk> trackChunks(StreamCodec<B, MessageConfigChunk> codec)
+    {
+        return new StreamCodec<>()
+        {
+            @Override
+            public MessageConfigChunk decode(B buf)
+            {
+                NetworkMessageEvent event = new NetworkMessageEvent(false);
+                event.begin();
+                int start = buf.readerIndex();
+                MessageConfigChunk chunk = codec.decode(buf);
+                int bytes = buf.readerIndex() - start;
+                if(REGISTERED.contains(chunk.type()))
+                {
+                    TypeStats stats = getType(chunk.type());
+                    if(chunk.index() == 0)
+                        stats.received.increment();
+                    stats.bytesIn.add(bytes);
+                }
+                if(event.shouldCommit())
+                {
+                    event.type = chunk.type().toString();
+                    event.bytes = bytes;
+                    event.commit();
+                }
+                return chunk;
+            }
+
+            @Override
+            public void encode(B buf, MessageConfigChunk chunk)
+            {
+                NetworkMessageEvent event = new NetworkMessageEvent(true);
+                event.begin();
+                int start = buf.writerIndex();
+                codec.encode(buf, chunk);
+                int bytes = buf.writerIndex() - start;
+                if(REGISTERED.contains(chunk.type()))
+                {
+                    TypeStats stats = getType(chunk.type());
+                    if(chunk.index() == 0)
+                        stats.sent.increment();
+                    stats.bytesOut.add(bytes);
+                }
+                if(event.shouldCommit())
+                {
+                    event.type = chunk.type().toString();
+                    event.bytes = bytes;
+                    event.commit();
+                }
+            }
+        };
+    }
+
+    /**
+     * Records the bytes of a message sent to a player
+     */
+    public static void recordSent(ServerPlayer player, int bytes)
+    {
+        PlayerStats stats = getPlayer(player);
+        stats.sent.increment();
+        stats.bytesOut.add(bytes);
+    }
+
+    /**
+     * Records the time spent reading, validating and applying a message received from a player
+     */
+    public static void recordProcessed(ResourceLocation type, ServerPlayer player, long nanos)
+    {
+        TypeStats typeStats = getType(type);
+        typeStats.processed.increment();
+        typeStats.processNanos.add(nanos);
+        PlayerStats playerStats = getPlayer(player);
+        playerStats.processed.increment();
+        playerStats.processNanos.add(nanos);
+    }
+
+    /**
+     * Wraps work that processes a message so the time it takes is recorded once it completes.
+     * The time is not recorded if the work throws an exception.
+     */
+    public static <T> Callable<T> timed(ResourceLocation type, ServerPlayer player, Callable<T> work)
+    {
+        return () -> {
+            long start = Util.getNanos();
+            T result = work.call();
+            recordProcessed(type, player, Util.getNanos() - start);
+            return result;
+        };
+    }
+
+    /**
+     * Records a message from a player that was rejected, either because the player went over the
+     * rate limit or because the message was invalid
+     */
+    public static void recordRejected(ResourceLocation type, ServerPlayer player)
+    {
+        getType(type).rejected.increment();
+        getPlayer(player).rejected.increment();
+    }
+
+    /**
+     * Logs a summary of the stats if the log interval has passed and there has been any traffic
+     * since the last summary. Called at the end of every server tick.
+     */
+    public static void tick()
+    {
+        int interval = Config.getStatsLogInterval();
+        if(interval <= 0)
+            return;
+        long now = Util.getNanos();
+        if(now - lastLog < TimeUnit.MINUTES.toNanos(interval))
+            return;
+        lastLog = now;
+        long total = TYPES.values().stream().mapToLong(stats -> stats.received.sum() + stats.sent.sum()).sum();
+        if(total == lastLoggedTotal)
+            return;
+        lastLoggedTotal = total;
+        Constants.LOG.info("Network stats: {}", String.join(", ", getTypeSummaries()));
+    }
+
+    /**
+     * @return a line describing the stats of each type of message, ordered by the total bytes
+     */
+    public static List<String> getTypeSummaries()
+    {
+        return TYPES.entrySet().stream().sorted(Comparator.comparingLong(e -> -(e.getValue().bytesIn.sum() + e.getValue().bytesOut.sum()))).map(e -> {
+            TypeStats stats = e.getValue();
+            return "%s: in %d (%s), out %d (%s), processed %d (avg %.2f ms), rejected %d".formatted(
+                e.getKey().getPath(), stats.received.sum(), formatBytes(stats.bytesIn.sum()), stats.sent.sum(), formatBytes(stats.bytesOut.sum()),
+                stats.processed.sum(), average(stats.processNanos.sum(), stats.processed.sum()), stats.rejected.sum());
+        }).toList();
+    }
+
+    /**
+     * @return a line describing the stats of each player, ordered by the total processing time
+     */
+    public static List<String> getPlayerSummaries()
+    {
+        return PLAYERS.values().stream().sorted(Comparator.comparingLong(stats -> -stats.processNanos.sum())).map(stats -> {
+            return "%s: processed %d (%.2f ms total), rejected %d, sent %d (%s)".formatted(
+                stats.name, stats.processed.sum(), stats.processNanos.sum() / 1_000_000.0, stats.rejected.sum(), stats.sent.sum(), formatBytes(stats.bytesOut.sum()));
+        }).toList();
+    }
+
+    /**
+     * Discards the stats of a player. Called when they log out.
+     */
+    public static void onPlayerLoggedOut(ServerPlayer player)
+    {
+        PLAYERS.remove(player.getUUID());
+    }
+
+    public static void reset()
+    {
+        TYPES.clear();
+        PLAYERS.clear();
+        lastLoggedTotal = 0;
+    }
+
+    private static TypeStats getType(ResourceLocation type)
+    {
+        return TYPES.computeIfAbsent(type, t -> new TypeStats());
+    }
+
+    private static PlayerStats getPlayer(ServerPlayer player)
+    {
+        PlayerStats stats = PLAYERS.computeIfAbsent(player.getUUID(), uuid -> new PlayerStats());
+        stats.name = player.getGameProfile().getName();
+        return stats;
+    }
+
+    private static double average(long nanos, long count)
+    {
+        return count > 0 ? nanos / 1_000_000.0 / count : 0;
+    }
+
+    private static String formatBytes(long bytes)
+    {
+        if(bytes < 1024)
+            return bytes + " B";
+        if(bytes < 1024 * 1024)
+            return "%.1f KiB".formatted(bytes / 1024.0);
+        return "%.1f MiB".formatted(bytes / (1024.0 * 1024.0));
+    }
+
+    private static class TypeStats
+    {
+        private final LongAdder received = new LongAdder();
+        private final LongAdder bytesIn = new LongAdder();
+        private final LongAdder sent = new LongAdder();
+        private final LongAdder bytesOut = new LongAdder();
+        private final LongAdder processed = new LongAdder();
+        private final LongAdder processNanos = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+    }
+
+    private static class PlayerStats
+    {
+        private volatile String name = "";
+        private final LongAdder sent = new LongAdder();
+        private final LongAdder bytesOut = new LongAdder();
+        private final LongAdder processed = new LongAdder();
+        private final LongAdder processNanos = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+    }
+}
@@ -0,0 +1,106 @@
+package com.mrcrayfish.configured.network;
+
+import com.mrcrayfish.configured.Config;
+import com.mrcrayfish.configured.Constants;
+import net.minecraft.ChatFormatting;
+import net.minecraft.Util;
+import net.minecraft.network.chat.Component;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limits how often a player can sync or request a server config. Every sync or request makes the
+ * server serialize or parse the entire config, so a client sending them in a loop could use up a
+ * large part of the server tick. Each player has a token bucket per config, which holds up to
+ * {@link Config#getRequestBurst()} tokens and refills at {@link Config#getRequestsPerMinute()}.
+ * Each sync or request takes a token, and is rejected if there are none left.
+ * <p>
+ * The player is told when a request is rejected, and operators are notified the first time a
+ * player goes over the limit until one of their requests is accepted again.
+ *
+ * Author: MrCrayfish
+ */
+public final class RequestLimiter
+{
+    private static final long CLEANUP_INTERVAL = TimeUnit.MINUTES.toNanos(1);
+    private static final Map<Key, Bucket> BUCKETS = new ConcurrentHashMap<>();
+    private static long lastCleanup = Util.getNanos();
+
+    private RequestLimiter() {}
+
+    /**
+     * Takes a token from the bucket of the player for the given config. If there are no tokens
+     * left, the player and operators are notified.
+     *
+     * @param player the player that sent the sync or request
+     * @param type   the type of the message, used for stats
+     * @param key    a unique key of the config
+     * @return true if the sync or request should be processed
+     */
+    public static boolean tryAcquire(ServerPlayer player, ResourceLocation type, String key)
+    {
+        int burst = Config.getRequestBurst();
+        double tokensPerNano = Config.getRequestsPerMinute() / (double) TimeUnit.MINUTES.toNanos(1);
+        Bucket bucket = BUCKETS.computeIfAbsent(new Key(player.getUUID(), key), k -> new Bucket(burst));
+        synchronized(bucket)
+        {
+            long now = Util.getNanos();
+            bucket.tokens = Math.min(burst, bucket.tokens + (now - bucket.lastRefill) * tokensPerNano);
+            bucket.lastRefill = now;
+            if(bucket.tokens >= 1)
+            {
+                bucket.tokens -= 1;
+                bucket.reported = false;
+                return true;
+            }
+            NetworkStats.recordRejected(type, player);
+            Constants.LOG.warn("{} is sending too many syncs or requests for config '{}'", player.getName().getString(), key);
+            player.sendSystemMessage(Component.translatable("configured.chat.rate_limited").withStyle(ChatFormatting.RED));
+            if(!bucket.reported)
+            {
+                bucket.reported = true;
+                ServerPlayHelper.sendMessageToOperators(Component.translatable("configured.chat.rate_limited_player", player.getName(), key).withStyle(ChatFormatting.RED), player);
+            }
+            return false;
+        }
+    }
+
+    /**
+     * Removes the buckets that have completely refilled, since they are no different to a new
+     * bucket. Called at the end of every server tick.
+     */
+    public static void tick()
+    {
+        long now = Util.getNanos();
+        if(now - lastCleanup < CLEANUP_INTERVAL)
+            return;
+        lastCleanup = now;
+        int burst = Config.getRequestBurst();
+        double tokensPerNano = Config.getRequestsPerMinute() / (double) TimeUnit.MINUTES.toNanos(1);
+        BUCKETS.values().removeIf(bucket -> {
+            synchronized(bucket)
+            {
+                return bucket.tokens + (now - bucket.lastRefill) * tokensPerNano >= burst;
+            }
+        });
+    }
+
+    private record Key(UUID player, String config) {}
+
+    private static final class Bucket
+    {
+        private double tokens;
+        private long lastRefill = Util.getNanos();
+        private boolean reported;
+
+        private Bucket(int tokens)
+        {
+            this.tokens = tokens;
+        }
+    }
+}
@@ -26,6 +26,15 @@ public class ServerPlayHelper
         }
     }
 
+    /**
+     * @return true if the player is a developer on a dedicated server with developer mode enabled
+     */
+    public static boolean isDeveloper(ServerPlayer player)
+    {
+        MinecraftServer server = player.getServer();
+        return server != null && server.isDedicatedServer() && Config.isDeveloperEnabled() && Config.getDevelopers().contains(player.getStringUUID());
+    }
+
     public static boolean canEditServerConfigs(ServerPlayer player)
     {
         MinecraftServer server = player.getServer();
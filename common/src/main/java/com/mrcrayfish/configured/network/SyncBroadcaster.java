@@ -0,0 +1,81 @@
+package com.mrcrayfish.configured.network;
+
+import com.mrcrayfish.configured.Constants;
+import com.mrcrayfish.configured.platform.Services;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Sends updated server configs to the players on the server. Instead of sending an update as soon
+ * as a config is changed, updates are queued and sent at the end of the server tick. If a config is
+ * updated several times within a tick, only its latest state is sent. Updates are also sent back
+ * to the player who made the change, since the server may have corrected their values and their
+ * client only reloads the config once it receives the update. Updates are not sent to the owner
+ * of an integrated server, since they share the configs with the server.
+ *
+ * Author: MrCrayfish
+ */
+public final class SyncBroadcaster
+{
+    private static final Map<String, Update<?>> PENDING = new LinkedHashMap<>();
+
+    private SyncBroadcaster() {}
+
+    /**
+     * Queues an update of a config to be sent at the end of the tick. Replaces any update already
+     * queued for the same config.
+     *
+     * @param key                a unique key of the config
+     * @param requiresConfigured if the update should only be sent to players with Configured installed
+     * @param message            creates the message once the update is sent
+     * @param sender             sends the message to a player
+     */
+    public static <T> void queue(String key, boolean requiresConfigured, Supplier<T> message, BiConsumer<ServerPlayer, T> sender)
+    {
+        PENDING.put(key, new Update<>(requiresConfigured, message, sender));
+    }
+
+    /**
+     * Sends all queued updates. Called at the end of every server tick.
+     */
+    public static void flush(MinecraftServer server)
+    {
+        if(PENDING.isEmpty())
+            return;
+
+        List<ServerPlayer> players = server.getPlayerList().getPlayers();
+        PENDING.forEach((key, update) -> {
+            List<ServerPlayer> targets = new ArrayList<>();
+            for(ServerPlayer player : players)
+            {
+                if(server.isSingleplayerOwner(player.getGameProfile()))
+                    continue;
+                if(update.requiresConfigured && !Services.PLATFORM.hasConfigured(player))
+                    continue;
+                targets.add(player);
+            }
+            if(!targets.isEmpty())
+            {
+                update.send(targets);
+            }
+            Constants.LOG.debug("Sent update of config '{}' to {} player(s)", key, targets.size());
+        });
+        PENDING.clear();
+    }
+
+    private record Update<T>(boolean requiresConfigured, Supplier<T> message, BiConsumer<ServerPlayer, T> sender)
+    {
+        private void send(List<ServerPlayer> targets)
+        {
+            T message = this.message.get();
+            targets.forEach(player -> this.sender.accept(player, message));
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.mrcrayfish.configured.network.message;
+
+import com.mrcrayfish.configured.Constants;
+import com.mrcrayfish.configured.network.ChunkedTransfer;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.resources.ResourceLocation;
+
+/**
+ * A part of a large message that is sent in chunks. See {@link ChunkedTransfer}.
+ *
+ * @param transferId the id of the transfer, unique for the sender
+ * @param index      the index of this chunk in the transfer
+ * @param count      the total number of chunks in the transfer
+ * @param length     the total length of the message in bytes
+ * @param checksum   the CRC32 checksum of the entire message
+ * @param type       the type of the message being sent
+ * @param data       the bytes of this chunk. When sending, a slice of the encoded message which is
+ *                   written without being consumed.
+ *
+ * Author: MrCrayfish
+ */
+public record MessageConfigChunk(int transferId, int index, int count, int length, int checksum, ResourceLocation type, ByteBuf data) implements CustomPacketPayload
+{
+    public static final CustomPacketPayload.Type<MessageConfigChunk> TYPE = new Type<>(new ResourceLocation(Constants.MOD_ID, "config_chunk"));
+
+    public static final StreamCodec<RegistryFriendlyByteBuf, MessageConfigChunk> STREAM_CODEC = StreamCodec.ofMember(MessageConfigChunk::encode, MessageConfigChunk::decode);
+
+    private static void encode(MessageConfigChunk message, FriendlyByteBuf buf)
+    {
+        buf.writeVarInt(message.transferId);
+        buf.writeVarInt(message.index);
+        buf.writeVarInt(message.count);
+        buf.writeVarInt(message.length);
+        buf.writeInt(message.checksum);
+        buf.writeResourceLocation(message.type);
+        buf.writeVarInt(message.data.readableBytes());
+        buf.writeBytes(message.data, message.data.readerIndex(), message.data.readableBytes());
+    }
+
+    private static MessageConfigChunk decode(FriendlyByteBuf buf)
+    {
+        return new MessageConfigChunk(buf.readVarInt(), buf.readVarInt(), buf.readVarInt(), buf.readVarInt(), buf.readInt(), buf.readResourceLocation(), Unpooled.wrappedBuffer(buf.readByteArray(ChunkedTransfer.CHUNK_SIZE)));
+    }
+
+    @Override
+    public Type<MessageConfigChunk> type()
+    {
+        return TYPE;
+    }
+}
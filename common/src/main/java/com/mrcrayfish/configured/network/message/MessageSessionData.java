@@ -2,26 +2,38 @@ package com.mrcrayfish.configured.network.message;
 
 import com.mrcrayfish.configured.Constants;
 import com.mrcrayfish.configured.network.ClientPlayHandler;
+import com.mrcrayfish.configured.network.ConfigManifest;
 import net.minecraft.network.RegistryFriendlyByteBuf;
 import net.minecraft.network.codec.ByteBufCodecs;
 import net.minecraft.network.codec.StreamCodec;
 import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
 import net.minecraft.resources.ResourceLocation;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.function.Consumer;
 
 /**
+ * Sent to a player when they join, and to developers again when the {@link ConfigManifest} of the
+ * server changes.
+ * <p>
+ * The type includes the protocol version. Fabric has no channel versions, and whether Configured
+ * is installed on the other side is decided by this message alone, so a client and server with
+ * different protocol versions never see each other's session data and treat Configured as missing.
+ *
  * Author: MrCrayfish
  */
-public record MessageSessionData(boolean developer, boolean lan) implements CustomPacketPayload
+public record MessageSessionData(boolean developer, boolean lan, Map<ResourceLocation, Long> manifest) implements CustomPacketPayload
 {
-    public static final CustomPacketPayload.Type<MessageSessionData> TYPE = new Type<>(new ResourceLocation(Constants.MOD_ID, "session_data"));
+    public static final CustomPacketPayload.Type<MessageSessionData> TYPE = new Type<>(new ResourceLocation(Constants.MOD_ID, "session_data_v" + Constants.PROTOCOL_VERSION));
 
     public static final StreamCodec<RegistryFriendlyByteBuf, MessageSessionData> STREAM_CODEC = StreamCodec.composite(
         ByteBufCodecs.BOOL,
         MessageSessionData::developer,
         ByteBufCodecs.BOOL,
         MessageSessionData::lan,
+        ByteBufCodecs.map(HashMap::new, ResourceLocation.STREAM_CODEC, ByteBufCodecs.VAR_LONG),
+        MessageSessionData::manifest,
         MessageSessionData::new
     );
 
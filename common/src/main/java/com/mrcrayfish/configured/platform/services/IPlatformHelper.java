@@ -1,10 +1,13 @@
 package com.mrcrayfish.configured.platform.services;
 
 import com.mrcrayfish.configured.api.Environment;
+import com.mrcrayfish.configured.network.ConfigData;
+import com.mrcrayfish.configured.network.ConfigDelta;
 import net.minecraft.client.multiplayer.ClientPacketListener;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.level.ServerPlayer;
 
+import org.jetbrains.annotations.Nullable;
 import java.nio.file.Path;
 
 public interface IPlatformHelper
@@ -53,9 +56,18 @@ public interface IPlatformHelper
 
     void sendSessionData(ServerPlayer player);
 
-    void sendFrameworkConfigToServer(ResourceLocation id, byte[] data);
+    /**
+     * Checks if the client of the given player has Configured installed
+     */
+    boolean hasConfigured(ServerPlayer player);
+
+    void sendFrameworkConfigToServer(ResourceLocation id, ConfigData data);
+
+    void sendFrameworkConfigDeltaToServer(ResourceLocation id, ConfigDelta delta);
+
+    void sendFrameworkConfigRequest(ResourceLocation name, long cachedHash);
 
-    void sendFrameworkConfigRequest(ResourceLocation name);
+    void sendFrameworkConfigResponse(ServerPlayer player, long hash, @Nullable ConfigData data);
 
-    void sendFrameworkConfigResponse(ServerPlayer player, byte[] byteArray);
+    void sendFrameworkFullSyncRequest(ServerPlayer player, ResourceLocation id);
 }
\ No newline at end of file
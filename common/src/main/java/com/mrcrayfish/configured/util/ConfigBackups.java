@@ -0,0 +1,282 @@
+package com.mrcrayfish.configured.util;
+
+import com.mrcrayfish.configured.Config;
+import com.mrcrayfish.configured.Constants;
+import com.mrcrayfish.configured.platform.Services;
+
+import org.jetbrains.annotations.Nullable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Stores compressed backups of config files. Backups are written on a background thread and are
+ * skipped if the content of the file has not changed since the last backup. Each config file keeps
+ * a history of backups up to the depth set in configured-client.toml (or configured-developer.toml
+ * on dedicated servers), with the oldest backups being removed first. Backups are stored in
+ * "configured/backups" in the game directory, mirroring the location of the config file relative
+ * to the game directory.
+ *
+ * Author: MrCrayfish
+ */
+public final class ConfigBackups
+{
+    private static final DateTimeFormatter FILE_NAME_FORMAT = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS").withZone(ZoneOffset.UTC);
+    private static final String EXTENSION = ".toml.gz";
+    private static final String PENDING_EXTENSION = ".pending";
+    private static final Map<Path, Snapshot> LAST_BACKUPS = new ConcurrentHashMap<>();
+    private static final ExecutorService EXECUTOR = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Configured Backups");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ConfigBackups() {}
+
+    /**
+     * Creates a backup of the given config file. Since the file is usually about to be
+     * overwritten, it is copied by the file system on the calling thread, which doesn't read it
+     * into memory. Reading, hashing, compressing and writing the backup happens on a background
+     * thread. If the file has not been modified since the last backup, nothing is copied at all.
+     *
+     * @param file the path of the config file
+     */
+    public static void backup(Path file)
+    {
+        int depth = Config.getBackupDepth();
+        if(depth <= 0)
+            return;
+
+        Path key = file.toAbsolutePath().normalize();
+        try
+        {
+            if(!Files.isRegularFile(key))
+                return;
+
+            // It doesn't make sense to back up an empty file, this is usually the initial creation of the config
+            BasicFileAttributes attributes = Files.readAttributes(key, BasicFileAttributes.class);
+            if(attributes.size() == 0)
+                return;
+
+            long modified = attributes.lastModifiedTime().toMillis();
+            Snapshot last = LAST_BACKUPS.get(key);
+            if(last != null && last.size == attributes.size() && last.modified == modified)
+                return;
+
+            Path directory = getBackupDirectory(key);
+            Files.createDirectories(directory);
+            Path copy = Files.createTempFile(directory, "pending", PENDING_EXTENSION);
+            Files.copy(key, copy, StandardCopyOption.REPLACE_EXISTING);
+            EXECUTOR.execute(() -> {
+                try
+                {
+                    store(key, Files.readAllBytes(copy), modified, depth);
+                }
+                catch(IOException e)
+                {
+                    Constants.LOG.error("Failed to read copy of config file {}", key, e);
+                }
+                finally
+                {
+                    deleteQuietly(copy);
+                }
+            });
+        }
+        catch(IOException e)
+        {
+            Constants.LOG.error("Failed to create backup of config file {}", key, e);
+        }
+    }
+
+    /**
+     * Gets all the backups of the given config file, sorted from newest to oldest.
+     *
+     * @param file the path of the config file
+     * @return a list of backups, or an empty list if the file has no backups
+     */
+    public static List<Backup> getBackups(Path file)
+    {
+        Path directory = getBackupDirectory(file.toAbsolutePath().normalize());
+        if(!Files.isDirectory(directory))
+            return List.of();
+
+        List<Backup> backups = new ArrayList<>();
+        try(Stream<Path> stream = Files.list(directory))
+        {
+            for(Path path : (Iterable<Path>) stream::iterator)
+            {
+                String name = path.getFileName().toString();
+                if(!name.endsWith(EXTENSION))
+                    continue;
+                try
+                {
+                    Instant time = FILE_NAME_FORMAT.parse(name.substring(0, name.indexOf('_')), Instant::from);
+                    backups.add(new Backup(path, time, Files.size(path)));
+                }
+                catch(RuntimeException e)
+                {
+                    Constants.LOG.debug("Ignoring unknown file in backup directory: {}", path);
+                }
+            }
+        }
+        catch(IOException e)
+        {
+            Constants.LOG.error("Failed to list backups of config file {}", file, e);
+        }
+        backups.sort(Comparator.comparing(Backup::time).reversed());
+        return backups;
+    }
+
+    /**
+     * Restores the given backup to the config file. The current content of the config file is
+     * backed up first, so a restore can be undone. The platform's file watcher for the config will
+     * pick up the restored content, the same as if the file was edited externally.
+     *
+     * @param file   the path of the config file
+     * @param backup the backup to restore
+     * @return a future that completes once the backup has been restored
+     */
+    public static CompletableFuture<Void> restore(Path file, Backup backup)
+    {
+        Path key = file.toAbsolutePath().normalize();
+        int depth = Math.max(1, Config.getBackupDepth());
+        return CompletableFuture.runAsync(() ->
+        {
+            try
+            {
+                if(Files.isRegularFile(key) && Files.size(key) > 0)
+                {
+                    store(key, Files.readAllBytes(key), Files.getLastModifiedTime(key).toMillis(), depth);
+                }
+                byte[] data;
+                try(InputStream input = new GZIPInputStream(Files.newInputStream(backup.path())))
+                {
+                    data = input.readAllBytes();
+                }
+                TomlPatcher.write(key, data);
+                Constants.LOG.info("Restored config file {} from backup {}", key, backup.path().getFileName());
+            }
+            catch(IOException e)
+            {
+                throw new RuntimeException(e);
+            }
+        }, EXECUTOR);
+    }
+
+    private static void store(Path file, byte[] data, long modified, int depth)
+    {
+        Path directory = getBackupDirectory(file);
+        long hash = ConfigHelper.computeHash(data);
+        Snapshot last = LAST_BACKUPS.computeIfAbsent(file, path -> findLatestSnapshot(directory));
+        LAST_BACKUPS.put(file, new Snapshot(data.length, modified, hash));
+        if(last != null && last.hash == hash)
+            return;
+
+        try
+        {
+            Files.createDirectories(directory);
+            String name = FILE_NAME_FORMAT.format(Instant.now()) + "_" + HexFormat.of().toHexDigits(hash) + EXTENSION;
+            try(OutputStream output = new GZIPOutputStream(Files.newOutputStream(directory.resolve(name))))
+            {
+                output.write(data);
+            }
+            rotate(directory, depth);
+        }
+        catch(IOException e)
+        {
+            LAST_BACKUPS.remove(file);
+            Constants.LOG.error("Failed to write backup of config file {}", file, e);
+        }
+    }
+
+    private static void rotate(Path directory, int depth) throws IOException
+    {
+        try(Stream<Path> stream = Files.list(directory))
+        {
+            List<Path> backups = stream.filter(path -> path.getFileName().toString().endsWith(EXTENSION)).sorted(Comparator.comparing(Path::getFileName).reversed()).toList();
+            for(int i = depth; i < backups.size(); i++)
+            {
+                Files.deleteIfExists(backups.get(i));
+            }
+        }
+    }
+
+    /**
+     * Finds the hash of the most recent backup from its file name, so duplicates are also skipped
+     * after the game is restarted.
+     */
+    @Nullable
+    private static Snapshot findLatestSnapshot(Path directory)
+    {
+        if(!Files.isDirectory(directory))
+            return null;
+
+        try(Stream<Path> stream = Files.list(directory))
+        {
+            return stream.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(EXTENSION) && name.indexOf('_') != -1)
+                    .max(Comparator.naturalOrder())
+                    .map(name -> {
+                        String hex = name.substring(name.indexOf('_') + 1, name.length() - EXTENSION.length());
+                        return new Snapshot(-1, -1, HexFormat.fromHexDigitsToLong(hex));
+                    }).orElse(null);
+        }
+        catch(IOException | RuntimeException e)
+        {
+            return null;
+        }
+    }
+
+    private static void deleteQuietly(Path path)
+    {
+        try
+        {
+            Files.deleteIfExists(path);
+        }
+        catch(IOException e)
+        {
+            Constants.LOG.debug("Failed to delete {}", path, e);
+        }
+    }
+
+    private static Path getBackupDirectory(Path file)
+    {
+        Path gamePath = Services.PLATFORM.getGamePath().toAbsolutePath().normalize();
+        Path root = gamePath.resolve("configured").resolve("backups");
+        if(file.startsWith(gamePath))
+        {
+            return root.resolve(gamePath.relativize(file).toString());
+        }
+        return root.resolve("external").resolve(Integer.toHexString(file.getParent().toString().hashCode())).resolve(file.getFileName().toString());
+    }
+
+    private record Snapshot(long size, long modified, long hash) {}
+
+    /**
+     * A backup of a config file
+     *
+     * @param path the path of the compressed backup
+     * @param time the time the backup was created
+     * @param size the compressed size of the backup in bytes
+     */
+    public record Backup(Path path, Instant time, long size) {}
+}
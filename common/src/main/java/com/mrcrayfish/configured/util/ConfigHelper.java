@@ -1,16 +1,22 @@
 package com.mrcrayfish.configured.util;
 
+import com.electronwill.nightconfig.core.Config;
 import com.electronwill.nightconfig.core.UnmodifiableConfig;
 import com.electronwill.nightconfig.core.file.FileConfig;
-import com.electronwill.nightconfig.core.file.FileWatcher;
 import com.electronwill.nightconfig.toml.TomlFormat;
 import com.google.common.collect.ImmutableList;
+import com.google.common.hash.Hashing;
+import com.mrcrayfish.configured.Constants;
 import com.mrcrayfish.configured.api.ConfigType;
 import com.mrcrayfish.configured.api.Environment;
 import com.mrcrayfish.configured.api.IConfigEntry;
 import com.mrcrayfish.configured.api.IConfigValue;
 import com.mrcrayfish.configured.api.IModConfig;
 import com.mrcrayfish.configured.client.ClientConfigHelper;
+import com.mrcrayfish.configured.jfr.ConfigBackupEvent;
+import com.mrcrayfish.configured.jfr.ConfigReloadEvent;
+import com.mrcrayfish.configured.network.ConfigData;
+import com.mrcrayfish.configured.network.ConfigDelta;
 import com.mrcrayfish.configured.platform.Services;
 import it.unimi.dsi.fastutil.objects.ObjectArrayList;
 import net.minecraft.client.Minecraft;
@@ -18,14 +24,16 @@ import net.minecraft.client.multiplayer.ClientPacketListener;
 import net.minecraft.world.entity.player.Player;
 
 import org.jetbrains.annotations.Nullable;
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.StandardCopyOption;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Queue;
 import java.util.Set;
 
@@ -34,8 +42,6 @@ import java.util.Set;
  */
 public class ConfigHelper
 {
-    private static final Set<Path> WATCHED_PATHS = new HashSet<>();
-
     /**
      * Gathers all the config entries with a deep search. Used for deep searches
      */
@@ -137,6 +143,64 @@ public class ConfigHelper
         return changed;
     }
 
+    /**
+     * Finds the paths of the values that are different between two configs. Values that only
+     * exist in one of the configs are counted as changed. Used to find exactly what changed when a
+     * config is replaced with new data, so only the affected values need to be invalidated.
+     *
+     * @param before the config before the changes, or null if there was no previous data
+     * @param after  the config after the changes
+     * @return a set of the full paths of the changed values
+     */
+    public static Set<List<String>> getChangedPaths(@Nullable UnmodifiableConfig before, UnmodifiableConfig after)
+    {
+        Set<List<String>> changed = new HashSet<>();
+        gatherChangedPaths(before, after, new ArrayList<>(), changed);
+        return changed;
+    }
+
+    /**
+     * Finds the paths of the changes that will actually change a value of the config. Deltas and
+     * edits can contain values that are the same as the current value, which don't need to be
+     * invalidated.
+     *
+     * @param config  the config before the changes are applied
+     * @param changes a map of the full value paths to their new values
+     * @return a set of the full paths of the values that will change
+     */
+    public static Set<List<String>> getChangedPaths(UnmodifiableConfig config, Map<List<String>, Object> changes)
+    {
+        Set<List<String>> changed = new HashSet<>();
+        changes.forEach((path, value) -> {
+            if(!Objects.equals(config.get(path), value)) {
+                changed.add(path);
+            }
+        });
+        return changed;
+    }
+
+    private static void gatherChangedPaths(@Nullable UnmodifiableConfig before, @Nullable UnmodifiableConfig after, List<String> path, Set<List<String>> changed)
+    {
+        Set<String> keys = new LinkedHashSet<>();
+        if(before != null) keys.addAll(before.valueMap().keySet());
+        if(after != null) keys.addAll(after.valueMap().keySet());
+        for(String key : keys)
+        {
+            Object oldValue = before != null ? before.valueMap().get(key) : null;
+            Object newValue = after != null ? after.valueMap().get(key) : null;
+            path.add(key);
+            if(oldValue instanceof UnmodifiableConfig || newValue instanceof UnmodifiableConfig)
+            {
+                gatherChangedPaths(oldValue instanceof UnmodifiableConfig o ? o : null, newValue instanceof UnmodifiableConfig n ? n : null, path, changed);
+            }
+            else if(!Objects.equals(oldValue, newValue))
+            {
+                changed.add(List.copyOf(path));
+            }
+            path.remove(path.size() - 1);
+        }
+    }
+
     // Client only
     public static boolean isPlayingGame()
     {
@@ -161,38 +225,57 @@ public class ConfigHelper
         return player != null && player.hasPermissions(4);
     }
 
+    /**
+     * Fires the reload notification of a config after it has been updated. The time taken by the
+     * listeners is recorded as a {@link ConfigReloadEvent}.
+     *
+     * @param config the config that was updated
+     * @param reload the runnable that fires the reload notification
+     */
+    public static void dispatchReload(IModConfig config, Runnable reload)
+    {
+        ConfigReloadEvent event = new ConfigReloadEvent(config);
+        event.begin();
+        reload.run();
+        event.commit();
+    }
+
+    /**
+     * Creates a backup of the file of the given config. See {@link ConfigBackups}
+     */
     public static void createBackup(UnmodifiableConfig config)
     {
         if(config instanceof FileConfig fileConfig)
         {
-            try
+            Path file = fileConfig.getNioPath();
+            ConfigBackupEvent event = new ConfigBackupEvent(file.getFileName().toString());
+            event.begin();
+            ConfigBackups.backup(file);
+            if(event.shouldCommit())
             {
-                Path configPath = fileConfig.getNioPath();
-                // The length check prevents backing up on initial creation of the config file
-                // It also doesn't really make sense to back up an empty file
-                if(Files.exists(configPath) && fileConfig.getFile().length() > 0)
-                {
-                    Path backupPath = configPath.getParent().resolve(fileConfig.getFile().getName() + ".bak");
-                    Files.copy(configPath, backupPath, StandardCopyOption.REPLACE_EXISTING);
-                }
-            }
-            catch(IOException e)
-            {
-                throw new RuntimeException(e);
+                // Only the file is copied on this thread, the backup is written in the background
+                event.bytes = file.toFile().length();
+                event.commit();
             }
         }
     }
 
+    /**
+     * Gets the path of the file of the given config
+     *
+     * @return the path or null if the config is not a file config
+     */
+    @Nullable
+    public static Path getFilePath(@Nullable UnmodifiableConfig config)
+    {
+        return config instanceof FileConfig fileConfig ? fileConfig.getNioPath() : null;
+    }
+
     public static void closeConfig(UnmodifiableConfig config)
     {
         if(config instanceof FileConfig fileConfig)
         {
-            Path path = fileConfig.getNioPath();
-            if(WATCHED_PATHS.contains(path))
-            {
-                FileWatcher.defaultInstance().removeWatch(path);
-                WATCHED_PATHS.remove(path);
-            }
+            ConfigWatcher.unwatch(fileConfig.getNioPath());
             fileConfig.close();
         }
     }
@@ -217,18 +300,86 @@ public class ConfigHelper
         if(config instanceof FileConfig fileConfig)
         {
             fileConfig.save();
+            ConfigWatcher.recordWrite(fileConfig.getNioPath());
+        }
+        ConfigDelta.invalidateHash(config);
+    }
+
+    /**
+     * Applies the given changes to a file config by patching only the changed values in the file
+     * instead of serializing the entire config again. The new values are then put into the config
+     * in memory, so the file doesn't have to be read or parsed again. If this returns false, the
+     * config in memory has not been changed and the caller should fall back to applying the
+     * changes with a full write.
+     *
+     * @param config  the config to update
+     * @param changes a map of the full value paths to their new values
+     * @return true if the changes were applied
+     */
+    public static boolean patchConfig(UnmodifiableConfig config, Map<List<String>, Object> changes)
+    {
+        if(!(config instanceof FileConfig fileConfig) || !(config.configFormat() instanceof TomlFormat))
+            return false;
+
+        if(changes.isEmpty())
+            return true;
+
+        Path path = fileConfig.getNioPath();
+        if(!TomlPatcher.patch(path, changes))
+            return false;
+
+        boolean updated = true;
+        for(Map.Entry<List<String>, Object> entry : changes.entrySet())
+        {
+            updated &= putValue(fileConfig, entry.getKey(), entry.getValue());
+        }
+        ConfigDelta.invalidateHash(config);
+        if(updated)
+            return true;
+
+        try
+        {
+            // A value couldn't be put into the config, so load the patched file instead
+            fileConfig.load();
+            return true;
+        }
+        catch(RuntimeException e)
+        {
+            // The full write of the caller will overwrite the patched file
+            Constants.LOG.warn("Failed to load patched config file {}, falling back to a full write", path, e);
+            TomlPatcher.invalidate(path);
+            return false;
         }
     }
 
+    /**
+     * Puts a value straight into the value map of the config it belongs to. Setting the value on
+     * the file config instead would write the whole file again if it saves automatically. Enums
+     * are stored as their name, the same as when they are loaded from a TOML file.
+     *
+     * @return true if the value was put into the config
+     */
+    private static boolean putValue(UnmodifiableConfig config, List<String> path, Object value)
+    {
+        Object parent = path.size() > 1 ? config.get(path.subList(0, path.size() - 1)) : config;
+        if(!(parent instanceof Config c))
+            return false;
+        c.valueMap().put(path.get(path.size() - 1), value instanceof Enum<?> e ? e.name() : value);
+        return true;
+    }
+
+    /**
+     * Watches the file of the given config for external changes. Saves made through
+     * {@link #saveConfig(UnmodifiableConfig)} do not trigger the callback, and bursts of changes
+     * are merged into a single callback. See {@link ConfigWatcher}.
+     */
     public static void watchConfig(UnmodifiableConfig config, Runnable callback)
     {
         if(config instanceof FileConfig fileConfig)
         {
             try
             {
-                Path path = fileConfig.getNioPath();
-                WATCHED_PATHS.add(path);
-                FileWatcher.defaultInstance().setWatch(path, callback);
+                ConfigWatcher.watch(fileConfig.getNioPath(), callback);
             }
             catch(IOException e)
             {
@@ -250,14 +401,30 @@ public class ConfigHelper
     }
 
     public static byte[] getBytes(UnmodifiableConfig config)
+    {
+        return getData(config).bytes();
+    }
+
+    /**
+     * Gets the content of the given config for sending over the network. The file of file configs
+     * is streamed into the buffer when the data is encoded, otherwise the config is written as TOML.
+     */
+    public static ConfigData getData(UnmodifiableConfig config)
     {
         if(config instanceof FileConfig fc)
         {
-            return readBytes(fc.getNioPath());
+            return ConfigData.of(fc.getNioPath());
         }
-        ByteArrayOutputStream stream = new ByteArrayOutputStream();
-        TomlFormat.instance().createWriter().write(config, stream);
-        return stream.toByteArray();
+        return ConfigData.of(config);
+    }
+
+    /**
+     * Computes a 64-bit content hash of the given data. Used to detect if the content of a config
+     * has actually changed.
+     */
+    public static long computeHash(byte[] data)
+    {
+        return Hashing.murmur3_128().hashBytes(data).asLong();
     }
 
     public static Player getClientPlayer()
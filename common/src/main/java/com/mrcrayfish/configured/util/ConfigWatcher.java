@@ -0,0 +1,186 @@
+package com.mrcrayfish.configured.util;
+
+import com.electronwill.nightconfig.core.file.FileWatcher;
+import com.mrcrayfish.configured.Constants;
+
+import org.jetbrains.annotations.Nullable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A layer on top of night-config's {@link FileWatcher} used by Configured to watch config files.
+ * Change notifications are debounced so a burst of writes to a file results in a single reload,
+ * and the content of the file is compared against the last known content (either what Configured
+ * wrote itself or what was last reloaded) so the echo of our own saves does not trigger a reload.
+ * All state is kept in concurrent structures since the watcher, the render thread and the server
+ * thread may all touch it.
+ *
+ * Author: MrCrayfish
+ */
+public final class ConfigWatcher
+{
+    private static final long DEBOUNCE_MS = 250;
+    private static final Map<Path, Watch> WATCHES = new ConcurrentHashMap<>();
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "Configured Config Watcher");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private ConfigWatcher() {}
+
+    /**
+     * Starts watching the given file. The callback will be invoked at most once per burst of
+     * changes, and only if the content of the file differs from the last known content. Watching
+     * a file that is already watched replaces the previous callback.
+     *
+     * @param path     the path of the file to watch
+     * @param callback the callback to run when the file was changed externally
+     * @throws IOException if the watch could not be registered
+     */
+    public static void watch(Path path, Runnable callback) throws IOException
+    {
+        Path key = path.toAbsolutePath().normalize();
+        Watch watch = new Watch(callback, hashFile(key));
+        Watch previous = WATCHES.put(key, watch);
+        if(previous != null)
+        {
+            previous.cancel();
+        }
+        FileWatcher.defaultInstance().setWatch(key, () -> watch.onChanged(key));
+    }
+
+    /**
+     * Stops watching the given file and cancels any pending reload
+     *
+     * @param path the path of the file
+     * @return true if the file was being watched
+     */
+    public static boolean unwatch(Path path)
+    {
+        Path key = path.toAbsolutePath().normalize();
+        Watch watch = WATCHES.remove(key);
+        if(watch != null)
+        {
+            watch.cancel();
+            FileWatcher.defaultInstance().removeWatch(key);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Records that Configured has just written the given file. The current content of the file
+     * becomes the known content, so the change notification caused by the write is ignored. This
+     * does nothing if the file is not being watched.
+     *
+     * @param path the path of the file that was written
+     */
+    public static void recordWrite(Path path)
+    {
+        Watch watch = WATCHES.get(path.toAbsolutePath().normalize());
+        if(watch != null)
+        {
+            watch.knownHash = hashFile(path);
+        }
+    }
+
+    /**
+     * Records that Configured has just written the given content to the given file. This avoids
+     * reading the file back when the written bytes are already available.
+     *
+     * @param path the path of the file that was written
+     * @param data the exact bytes that were written to the file
+     */
+    public static void recordWrite(Path path, byte[] data)
+    {
+        Watch watch = WATCHES.get(path.toAbsolutePath().normalize());
+        if(watch != null)
+        {
+            watch.knownHash = ConfigHelper.computeHash(data);
+        }
+    }
+
+    /**
+     * @return the hash of the content of the file, or null if it doesn't exist or can't be read
+     */
+    @Nullable
+    private static Long hashFile(Path path)
+    {
+        try
+        {
+            if(Files.isRegularFile(path))
+            {
+                return ConfigHelper.computeHash(Files.readAllBytes(path));
+            }
+        }
+        catch(IOException e)
+        {
+            Constants.LOG.debug("Failed to read config file {}", path, e);
+        }
+        return null;
+    }
+
+    private static class Watch
+    {
+        private final Runnable callback;
+        private final AtomicReference<ScheduledFuture<?>> pending = new AtomicReference<>();
+        @Nullable
+        private volatile Long knownHash;
+
+        private Watch(Runnable callback, @Nullable Long knownHash)
+        {
+            this.callback = callback;
+            this.knownHash = knownHash;
+        }
+
+        private void onChanged(Path path)
+        {
+            ScheduledFuture<?> future = SCHEDULER.schedule(() -> this.reload(path), DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+            ScheduledFuture<?> previous = this.pending.getAndSet(future);
+            if(previous != null)
+            {
+                previous.cancel(false);
+            }
+        }
+
+        private void reload(Path path)
+        {
+            // Nothing to reload if the file was deleted or can't be read
+            Long hash = hashFile(path);
+            if(hash == null)
+                return;
+
+            // Only an echo of a write if the content is exactly what was last recorded
+            if(hash.equals(this.knownHash))
+                return;
+
+            this.knownHash = hash;
+            try
+            {
+                this.callback.run();
+            }
+            catch(Exception e)
+            {
+                Constants.LOG.error("Failed to reload config file {}", path, e);
+            }
+        }
+
+        private void cancel()
+        {
+            ScheduledFuture<?> future = this.pending.getAndSet(null);
+            if(future != null)
+            {
+                future.cancel(false);
+            }
+        }
+    }
+}
@@ -0,0 +1,579 @@
+package com.mrcrayfish.configured.util;
+
+import com.electronwill.nightconfig.core.Config;
+import com.electronwill.nightconfig.core.UnmodifiableConfig;
+import com.electronwill.nightconfig.toml.TomlFormat;
+import com.mrcrayfish.configured.Constants;
+import io.netty.buffer.ByteBuf;
+
+import org.jetbrains.annotations.Nullable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Patches the values of keys in an existing TOML file. Only the bytes of the changed values are
+ * written to the file, so comments and formatting are kept and a small edit to a large file does
+ * not require the whole config to be serialized or written again. If every new value has the same
+ * length as the old one, only the changed ranges are written, otherwise the file is rewritten from
+ * the first changed value onward.
+ * <p>
+ * The byte offsets of every value are recorded once, the first time a file is patched after it
+ * was loaded or saved, and are kept up to date after every patch along with the size and last
+ * modified time of the file. If the file doesn't match them, because it was modified by something
+ * else, the offsets are recorded again. Patching fails, and the caller should fall back to a full
+ * write, if a changed key can't be found in the file (for example if the structure of the config
+ * changed) or if a value can't be written inline.
+ *
+ * Author: MrCrayfish
+ */
+public final class TomlPatcher
+{
+    private static final Map<Path, OffsetMap> OFFSET_MAPS = new ConcurrentHashMap<>();
+    private static final Map<Path, Object> LOCKS = new ConcurrentHashMap<>();
+
+    private TomlPatcher() {}
+
+    /**
+     * Attempts to patch the values at the given paths in the TOML file.
+     *
+     * @param path    the path of the TOML file
+     * @param changes a map of the full key paths to their new values
+     * @return true if the file was patched, false if a full write is required instead
+     */
+    public static boolean patch(Path path, Map<List<String>, Object> changes)
+    {
+        if(changes.isEmpty())
+            return true;
+
+        Path key = path.toAbsolutePath().normalize();
+        // Files are locked individually so different files can be patched in parallel
+        synchronized(LOCKS.computeIfAbsent(key, k -> new Object()))
+        {
+            try
+            {
+                return patchFile(key, changes);
+            }
+            catch(IOException e)
+            {
+                Constants.LOG.warn("Failed to patch config file {}, falling back to a full write", key, e);
+                OFFSET_MAPS.remove(key);
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Replaces the entire content of the given file. The data is written to a temporary file next
+     * to the file, which is then moved over it, so a crash while writing leaves the original file
+     * intact. Holds the same lock as patching, so the file can't be replaced in the middle of a
+     * patch.
+     *
+     * @param path the path of the file
+     * @param data the new content of the file
+     * @throws IOException if the file could not be written
+     */
+    public static void write(Path path, byte[] data) throws IOException
+    {
+        Path key = path.toAbsolutePath().normalize();
+        synchronized(LOCKS.computeIfAbsent(key, k -> new Object()))
+        {
+            Path temp = key.resolveSibling(key.getFileName() + ".tmp");
+            try
+            {
+                Files.write(temp, data);
+                try
+                {
+                    Files.move(temp, key, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                }
+                catch(AtomicMoveNotSupportedException e)
+                {
+                    Files.move(temp, key, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            finally
+            {
+                Files.deleteIfExists(temp);
+            }
+            OFFSET_MAPS.remove(key);
+        }
+    }
+
+    /**
+     * Streams the entire content of the given file into the buffer. Holds the same lock as
+     * patching, so a patch can't be read halfway through.
+     *
+     * @param path the path of the file
+     * @param buf  the buffer to write the content to
+     * @throws IOException if the file could not be read
+     */
+    public static void read(Path path, ByteBuf buf) throws IOException
+    {
+        Path key = path.toAbsolutePath().normalize();
+        synchronized(LOCKS.computeIfAbsent(key, k -> new Object()))
+        {
+            try(FileChannel channel = FileChannel.open(key, StandardOpenOption.READ))
+            {
+                long position = 0;
+                long size = channel.size();
+                while(position < size)
+                {
+                    int read = buf.writeBytes(channel, position, Math.toIntExact(Math.min(size - position, Integer.MAX_VALUE)));
+                    if(read == -1)
+                        break;
+                    position += read;
+                }
+            }
+        }
+    }
+
+    /**
+     * Forgets the recorded offsets of the given file. Called after the file was written by
+     * something other than the patcher.
+     */
+    public static void invalidate(Path path)
+    {
+        OFFSET_MAPS.remove(path.toAbsolutePath().normalize());
+    }
+
+    private static boolean patchFile(Path path, Map<List<String>, Object> changes) throws IOException
+    {
+        if(!Files.isRegularFile(path))
+            return false;
+
+        // The attributes are read first, so a write while scanning makes the offsets outdated
+        BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        OffsetMap offsets = OFFSET_MAPS.get(path);
+        if(offsets == null || !offsets.matches(attributes))
+        {
+            offsets = OffsetMap.scan(Files.readAllBytes(path), attributes);
+            if(offsets == null)
+            {
+                OFFSET_MAPS.remove(path);
+                return false;
+            }
+            OFFSET_MAPS.put(path, offsets);
+        }
+
+        // Resolve the ranges and new values of every change before touching the file
+        List<Replacement> replacements = new ArrayList<>(changes.size());
+        for(Map.Entry<List<String>, Object> entry : changes.entrySet())
+        {
+            Range range = offsets.ranges.get(entry.getKey());
+            byte[] value = writeValue(entry.getValue());
+            if(range == null || value == null)
+                return false;
+            replacements.add(new Replacement(range, value));
+        }
+        replacements.sort(Comparator.comparingInt(r -> r.range.start));
+
+        try(FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE))
+        {
+            if(replacements.stream().allMatch(replacement -> replacement.delta() == 0))
+            {
+                // Nothing moves, so only the changed ranges need to be written
+                for(Replacement replacement : replacements)
+                {
+                    writeFully(channel, ByteBuffer.wrap(replacement.value), replacement.range.start);
+                }
+            }
+            else
+            {
+                // Everything after the first change moves, so rewrite the file from there
+                int from = replacements.get(0).range.start;
+                ByteBuffer tail = ByteBuffer.allocate(Math.toIntExact(channel.size() - from));
+                while(tail.hasRemaining())
+                {
+                    if(channel.read(tail, from + tail.position()) == -1)
+                        throw new IOException("Config file was truncated while patching");
+                }
+                ByteBuffer patched = replace(tail.array(), from, replacements);
+                writeFully(channel, patched, from);
+                channel.truncate(from + patched.capacity());
+            }
+        }
+        ConfigWatcher.recordWrite(path);
+        OFFSET_MAPS.put(path, offsets.shift(replacements, Files.readAttributes(path, BasicFileAttributes.class)));
+        return true;
+    }
+
+    /**
+     * Creates a copy of the data, which starts at the given offset of the file, with the ranges of
+     * the replacements replaced by their values. The replacements must be sorted by their position.
+     */
+    private static ByteBuffer replace(byte[] data, int offset, List<Replacement> replacements)
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(data.length + replacements.stream().mapToInt(Replacement::delta).sum());
+        int cursor = 0;
+        for(Replacement replacement : replacements)
+        {
+            buffer.put(data, cursor, replacement.range.start - offset - cursor);
+            buffer.put(replacement.value);
+            cursor = replacement.range.end - offset;
+        }
+        buffer.put(data, cursor, data.length - cursor);
+        return buffer.flip();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException
+    {
+        while(buffer.hasRemaining())
+        {
+            channel.write(buffer, position + buffer.position());
+        }
+    }
+
+    /**
+     * Writes a single value using night-config's TOML writer, so the output is identical to what
+     * a full write of the config would produce for the value.
+     */
+    @Nullable
+    private static byte[] writeValue(@Nullable Object value)
+    {
+        if(value == null || value instanceof UnmodifiableConfig)
+            return null;
+
+        Config config = TomlFormat.newConfig();
+        config.set(List.of("v"), value);
+        String text = TomlFormat.instance().createWriter().writeToString(config);
+        int index = text.indexOf('=');
+        if(index == -1)
+            return null;
+        return text.substring(index + 1).strip().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private record Range(int start, int end)
+    {
+        private int length()
+        {
+            return this.end - this.start;
+        }
+    }
+
+    private record Replacement(Range range, byte[] value)
+    {
+        private int delta()
+        {
+            return this.value.length - this.range.length();
+        }
+    }
+
+    /**
+     * The ranges of the values in a file, and the size and last modified time of the file they
+     * were recorded from
+     */
+    private record OffsetMap(Map<List<String>, Range> ranges, long size, FileTime modified)
+    {
+        private boolean matches(BasicFileAttributes attributes)
+        {
+            return this.size == attributes.size() && this.modified.equals(attributes.lastModifiedTime());
+        }
+
+        private OffsetMap shift(List<Replacement> replacements, BasicFileAttributes attributes)
+        {
+            // Nothing moved, so the ranges can be kept instead of copying them for every save
+            if(replacements.stream().allMatch(replacement -> replacement.delta() == 0))
+                return new OffsetMap(this.ranges, attributes.size(), attributes.lastModifiedTime());
+
+            Map<List<String>, Range> shifted = new HashMap<>(this.ranges.size());
+            this.ranges.forEach((key, range) ->
+            {
+                int offset = 0;
+                int own = 0;
+                for(Replacement replacement : replacements)
+                {
+                    if(replacement.range.start > range.start)
+                        break;
+                    if(replacement.range.start == range.start)
+                        own = replacement.delta();
+                    else
+                        offset += replacement.delta();
+                }
+                shifted.put(key, new Range(range.start + offset, range.end + offset + own));
+            });
+            return new OffsetMap(shifted, attributes.size(), attributes.lastModifiedTime());
+        }
+
+        @Nullable
+        private static OffsetMap scan(byte[] data, BasicFileAttributes attributes)
+        {
+            try
+            {
+                return new OffsetMap(new Scanner(data).scan(), attributes.size(), attributes.lastModifiedTime());
+            }
+            catch(IllegalStateException e)
+            {
+                Constants.LOG.debug("Unable to record offsets of config file", e);
+                return null;
+            }
+        }
+    }
+
+    /**
+     * A minimal TOML scanner that only locates the byte range of each value. Values of keys inside
+     * arrays of tables and inline tables are not recorded since they can't be addressed by path.
+     */
+    private static class Scanner
+    {
+        private final byte[] data;
+        private int pos;
+
+        private Scanner(byte[] data)
+        {
+            this.data = data;
+        }
+
+        private Map<List<String>, Range> scan()
+        {
+            Map<List<String>, Range> ranges = new HashMap<>();
+            List<String> table = List.of();
+            boolean arrayTable = false;
+            while(this.skipWhitespace(true))
+            {
+                byte c = this.data[this.pos];
+                if(c == '#')
+                {
+                    this.skipLine();
+                }
+                else if(c == '[')
+                {
+                    arrayTable = this.peek(1) == '[';
+                    this.pos += arrayTable ? 2 : 1;
+                    table = this.readKey();
+                    this.expect(']');
+                    if(arrayTable) this.expect(']');
+                    this.endLine();
+                }
+                else
+                {
+                    List<String> key = this.readKey();
+                    this.expect('=');
+                    this.skipWhitespace(false);
+                    int start = this.pos;
+                    this.skipValue();
+                    if(!arrayTable)
+                    {
+                        List<String> path = new ArrayList<>(table.size() + key.size());
+                        path.addAll(table);
+                        path.addAll(key);
+                        ranges.put(path, new Range(start, this.pos));
+                    }
+                    this.endLine();
+                }
+            }
+            return ranges;
+        }
+
+        private List<String> readKey()
+        {
+            List<String> key = new ArrayList<>();
+            while(true)
+            {
+                this.skipWhitespace(false);
+                if(this.pos >= this.data.length)
+                    throw new IllegalStateException("Unexpected end of file while reading key");
+                byte c = this.data[this.pos];
+                if(c == '"' || c == '\'')
+                {
+                    int start = this.pos;
+                    this.skipString();
+                    key.add(unquote(new String(this.data, start, this.pos - start, StandardCharsets.UTF_8)));
+                }
+                else
+                {
+                    int start = this.pos;
+                    while(this.pos < this.data.length && isBareKeyChar(this.data[this.pos])) this.pos++;
+                    if(start == this.pos)
+                        throw new IllegalStateException("Invalid key at offset " + start);
+                    key.add(new String(this.data, start, this.pos - start, StandardCharsets.US_ASCII));
+                }
+                this.skipWhitespace(false);
+                if(this.peek(0) != '.')
+                    return key;
+                this.pos++;
+            }
+        }
+
+        private void skipValue()
+        {
+            byte c = this.peek(0);
+            if(c == '"' || c == '\'')
+            {
+                this.skipString();
+            }
+            else if(c == '[' || c == '{')
+            {
+                int depth = 0;
+                do
+                {
+                    c = this.peek(0);
+                    if(c == '"' || c == '\'')
+                    {
+                        this.skipString();
+                        continue;
+                    }
+                    if(c == '#')
+                    {
+                        this.skipLine();
+                        continue;
+                    }
+                    if(c == '[' || c == '{') depth++;
+                    else if(c == ']' || c == '}') depth--;
+                    else if(c == -1) throw new IllegalStateException("Unterminated array or inline table");
+                    this.pos++;
+                }
+                while(depth > 0);
+            }
+            else
+            {
+                // Scalars may contain spaces (e.g. date-times), so read to the end of the line
+                int start = this.pos;
+                int end = start;
+                while(this.pos < this.data.length && this.data[this.pos] != '#' && this.data[this.pos] != '\n' && this.data[this.pos] != '\r')
+                {
+                    if(this.data[this.pos] != ' ' && this.data[this.pos] != '\t')
+                        end = this.pos + 1;
+                    this.pos++;
+                }
+                if(end == start)
+                    throw new IllegalStateException("Missing value at offset " + start);
+                this.pos = end;
+            }
+        }
+
+        private void skipString()
+        {
+            byte quote = this.data[this.pos];
+            boolean multiline = this.peek(1) == quote && this.peek(2) == quote;
+            this.pos += multiline ? 3 : 1;
+            while(true)
+            {
+                byte c = this.peek(0);
+                if(c == -1 || (!multiline && c == '\n'))
+                    throw new IllegalStateException("Unterminated string");
+                if(c == '\\' && quote == '"')
+                {
+                    this.pos += 2;
+                    continue;
+                }
+                if(c == quote)
+                {
+                    if(!multiline)
+                    {
+                        this.pos++;
+                        return;
+                    }
+                    if(this.peek(1) == quote && this.peek(2) == quote)
+                    {
+                        this.pos += 3;
+                        // Up to two extra quotes are allowed to be part of the string
+                        for(int i = 0; i < 2 && this.peek(0) == quote; i++) this.pos++;
+                        return;
+                    }
+                }
+                this.pos++;
+            }
+        }
+
+        /**
+         * Skips whitespace and optionally line breaks. Returns false if the end was reached.
+         */
+        private boolean skipWhitespace(boolean newLines)
+        {
+            while(this.pos < this.data.length)
+            {
+                byte c = this.data[this.pos];
+                if(c != ' ' && c != '\t' && (!newLines || (c != '\n' && c != '\r')))
+                    return true;
+                this.pos++;
+            }
+            return false;
+        }
+
+        private void skipLine()
+        {
+            while(this.pos < this.data.length && this.data[this.pos] != '\n') this.pos++;
+        }
+
+        private void endLine()
+        {
+            this.skipWhitespace(false);
+            byte c = this.peek(0);
+            if(c == '#')
+            {
+                this.skipLine();
+            }
+            else if(c != '\n' && c != '\r' && c != -1)
+            {
+                throw new IllegalStateException("Expected end of line at offset " + this.pos);
+            }
+        }
+
+        private void expect(char c)
+        {
+            this.skipWhitespace(false);
+            if(this.peek(0) != c)
+                throw new IllegalStateException("Expected '" + c + "' at offset " + this.pos);
+            this.pos++;
+        }
+
+        private byte peek(int offset)
+        {
+            int index = this.pos + offset;
+            return index < this.data.length ? this.data[index] : -1;
+        }
+
+        private static boolean isBareKeyChar(byte c)
+        {
+            return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_' || c == '-';
+        }
+
+        private static String unquote(String quoted)
+        {
+            String content = quoted.substring(1, quoted.length() - 1);
+            if(quoted.charAt(0) == '\'' || content.indexOf('\\') == -1)
+                return content;
+
+            StringBuilder builder = new StringBuilder(content.length());
+            for(int i = 0; i < content.length(); i++)
+            {
+                char c = content.charAt(i);
+                if(c != '\\' || i + 1 >= content.length())
+                {
+                    builder.append(c);
+                    continue;
+                }
+                char escape = content.charAt(++i);
+                switch(escape)
+                {
+                    case 'b' -> builder.append('\b');
+                    case 't' -> builder.append('\t');
+                    case 'n' -> builder.append('\n');
+                    case 'f' -> builder.append('\f');
+                    case 'r' -> builder.append('\r');
+                    case 'u', 'U' -> {
+                        int length = escape == 'u' ? 4 : 8;
+                        builder.appendCodePoint(Integer.parseInt(content.substring(i + 1, i + 1 + length), 16));
+                        i += length;
+                    }
+                    default -> builder.append(escape);
+                }
+            }
+            return builder.toString();
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.mrcrayfish.configured.util;
+
+import com.mrcrayfish.configured.Constants;
+import com.mrcrayfish.configured.api.IConfigValue;
+
+import org.jetbrains.annotations.Nullable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Applies a set of changed values to copies of a config stored in other worlds. Each world is
+ * updated on a small pool of worker threads, so many worlds can be updated at once without
+ * loading each one into the config. Changed values are patched into the file, the same as a
+ * normal save. Since the spec of the config isn't available here, a file that is missing or can't
+ * be patched is left untouched and reported instead of being written without its comments and
+ * the values that didn't change; the config of that world can still be edited directly.
+ *
+ * Author: MrCrayfish
+ */
+public final class WorldConfigUpdater
+{
+    private static final AtomicInteger THREAD_COUNT = new AtomicInteger();
+    private static final ExecutorService EXECUTOR = Executors.newFixedThreadPool(Math.clamp(Runtime.getRuntime().availableProcessors() - 1, 1, 4), runnable -> {
+        Thread thread = new Thread(runnable, "Configured World Updater #" + THREAD_COUNT.incrementAndGet());
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private WorldConfigUpdater() {}
+
+    /**
+     * Creates a map of the full key paths to the new values of the given changed values. Values
+     * that don't provide a path are skipped.
+     *
+     * @param values the changed values
+     * @return a map of changes
+     */
+    public static Map<List<String>, Object> getChanges(Collection<IConfigValue<?>> values)
+    {
+        Map<List<String>, Object> changes = new HashMap<>();
+        for(IConfigValue<?> value : values)
+        {
+            List<String> path = value.getPath();
+            if(path == null)
+            {
+                Constants.LOG.warn("Unable to apply '{}' to other worlds since it has no path", value.getName());
+                continue;
+            }
+            changes.put(path, value.get());
+        }
+        return changes;
+    }
+
+    /**
+     * Applies the changes to the config file of a world on a worker thread.
+     *
+     * @param world   the name of the world, used for reporting
+     * @param file    resolves the path of the config file in the world. Called on the worker thread.
+     * @param changes a map of the full key paths to their new values
+     * @return a future with the result of the update, which never completes exceptionally
+     */
+    public static CompletableFuture<Result> apply(String world, Callable<Path> file, Map<List<String>, Object> changes)
+    {
+        return CompletableFuture.supplyAsync(() -> {
+            try
+            {
+                Outcome outcome = update(file.call(), changes);
+                Constants.LOG.info("Updated config of world '{}': {}", world, outcome);
+                return new Result(world, outcome, null);
+            }
+            catch(Exception e)
+            {
+                Constants.LOG.error("Failed to update config of world '{}'", world, e);
+                return new Result(world, Outcome.FAILED, e.getMessage());
+            }
+        }, EXECUTOR);
+    }
+
+    private static Outcome update(Path file, Map<List<String>, Object> changes)
+    {
+        if(!Files.isRegularFile(file))
+        {
+            return Outcome.MISSING;
+        }
+        ConfigBackups.backup(file);
+        return TomlPatcher.patch(file, changes) ? Outcome.PATCHED : Outcome.FAILED;
+    }
+
+    public enum Outcome
+    {
+        PATCHED,
+        MISSING,
+        FAILED;
+
+        public boolean isSuccess()
+        {
+            return this == PATCHED;
+        }
+    }
+
+    /**
+     * The result of updating the config of a world
+     *
+     * @param world   the name of the world
+     * @param outcome how the config file was updated
+     * @param error   the error message if the update failed
+     */
+    public record Result(String world, Outcome outcome, @Nullable String error) {}
+}
@@ -0,0 +1,162 @@
+package com.mrcrayfish.configured;
+
+import com.electronwill.nightconfig.core.CommentedConfig;
+import com.electronwill.nightconfig.toml.TomlFormat;
+import com.mrcrayfish.configured.api.IConfigEntry;
+import com.mrcrayfish.configured.api.IConfigValue;
+import com.mrcrayfish.configured.client.EditJournal;
+import com.mrcrayfish.configured.client.screen.ConfigScreen;
+import com.mrcrayfish.configured.test.GeneratedConfig;
+import com.mrcrayfish.configured.test.LargeConfigGenerator;
+import com.mrcrayfish.configured.util.ConfigHelper;
+import com.mrcrayfish.configured.util.TomlPatcher;
+import net.minecraft.network.chat.Component;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Guards against opening, searching and saving a config becoming more expensive as the config grows.
+ * Each test generates a config the size of those found in big modpacks and checks upper bounds for
+ * how often the folders and values of the config are visited, and how many bytes are allocated by
+ * the thread running the operation. The bounds are generous, so they only fail if an operation
+ * starts to do work for entries it didn't need to before.
+ *
+ * Author: MrCrayfish
+ */
+class LargeConfigTest
+{
+    private static final LargeConfigGenerator.Shape SHAPE = new LargeConfigGenerator.Shape(10000, 3, 20, 120);
+
+    /**
+     * The bytes an operation may allocate regardless of the size of the config
+     */
+    private static final long BASE_BYTES = 64 * 1024;
+
+    /**
+     * The bytes an operation that has to visit every entry may allocate per entry. Storing a
+     * reference to the entry takes a few bytes, creating an object for it takes more.
+     */
+    private static final long BYTES_PER_ENTRY = 64;
+
+    /**
+     * The number of values changed before saving
+     */
+    private static final int CHANGES = 10;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void openingChecksEachValueOnce()
+    {
+        GeneratedConfig config = new GeneratedConfig(SHAPE);
+        ConfigScreen screen = new ConfigScreen(null, Component.literal("Test"), config);
+        IConfigEntry root = config.getRoot();
+
+        // The restore button checks the whole config when the screen is opened and after every
+        // change. Run it once first so loading classes isn't measured.
+        screen.isModified(root);
+        config.resetCounters();
+        long allocated = measureAllocations(() -> {
+            assertFalse(screen.isModified(root));
+            assertFalse(screen.isChanged(root));
+        });
+        assertAtMost(2L * config.getFolderCount(), config.getChildrenCalls(), "folders listed");
+        assertAtMost(2L * SHAPE.values(), config.getValueCalls(), "values read");
+        assertAtMost(BASE_BYTES + 2 * BYTES_PER_ENTRY * config.getFolderCount(), allocated, "bytes allocated");
+    }
+
+    @Test
+    void deepSearchListsEachFolderOnce()
+    {
+        GeneratedConfig config = new GeneratedConfig(SHAPE);
+        IConfigEntry root = config.getRoot();
+        int entries = config.getFolderCount() - 1 + SHAPE.values();
+
+        ConfigHelper.gatherAllConfigEntries(root);
+        config.resetCounters();
+        long allocated = measureAllocations(() -> {
+            assertEquals(entries, ConfigHelper.gatherAllConfigEntries(root).size());
+        });
+        assertAtMost(config.getFolderCount(), config.getChildrenCalls(), "folders listed");
+        assertAtMost(0, config.getValueCalls(), "values read");
+        assertAtMost(BASE_BYTES + BYTES_PER_ENTRY * entries, allocated, "bytes allocated");
+    }
+
+    @Test
+    void savingOnlyVisitsTheChangedValues() throws IOException
+    {
+        GeneratedConfig config = new GeneratedConfig(SHAPE);
+        Path file = this.dir.resolve("large.toml");
+        config.write(file);
+
+        // Flipping the lowest bit keeps the number of digits, so the file can be patched in place
+        List<GeneratedConfig.Value<Integer>> values = getIntValues(config, CHANGES);
+        EditJournal journal = new EditJournal();
+        values.forEach(value -> journal.set(value, value.get() ^ 1));
+
+        config.resetCounters();
+        Map<List<String>, Object> changes = new HashMap<>();
+        long allocated = measureAllocations(() -> {
+            for(IConfigEntry entry : journal.toEntry().getChildren())
+            {
+                IConfigValue<?> value = entry.getValue();
+                changes.put(value.getPath(), value.get());
+            }
+        });
+        assertEquals(CHANGES, changes.size());
+        assertAtMost(0, config.getChildrenCalls(), "folders listed");
+        assertAtMost(CHANGES, config.getValueCalls(), "values read");
+        assertAtMost(BASE_BYTES, allocated, "bytes allocated");
+
+        // The first patch scans the file, after that only the changed values should be written
+        assertTrue(TomlPatcher.patch(file, changes));
+        values.forEach(value -> changes.put(value.getPath(), value.get() ^ 1));
+        long patched = measureAllocations(() -> {
+            assertTrue(TomlPatcher.patch(file, changes));
+        });
+        assertAtMost(BASE_BYTES, patched, "bytes allocated by patching a " + Files.size(file) + " byte file");
+
+        CommentedConfig result = TomlFormat.instance().createParser().parse(Files.readString(file));
+        values.forEach(value -> assertEquals(value.getDefault(), result.<Integer>get(value.getPath())));
+    }
+
+    /**
+     * @return the given number of int values, spread evenly over the config
+     */
+    @SuppressWarnings("unchecked")
+    private static List<GeneratedConfig.Value<Integer>> getIntValues(GeneratedConfig config, int count)
+    {
+        List<GeneratedConfig.Value<Integer>> values = config.getValues().stream().filter(value -> value.getDefault() instanceof Integer).map(value -> (GeneratedConfig.Value<Integer>) value).toList();
+        return IntStream.range(0, count).mapToObj(i -> values.get(i * values.size() / count)).toList();
+    }
+
+    /**
+     * @return the number of bytes allocated by the current thread while running the operation
+     */
+    private static long measureAllocations(Runnable operation)
+    {
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long start = bean.getCurrentThreadAllocatedBytes();
+        operation.run();
+        return bean.getCurrentThreadAllocatedBytes() - start;
+    }
+
+    private static void assertAtMost(long bound, long actual, String what)
+    {
+        assertTrue(actual <= bound, () -> what + " was " + actual + ", expected at most " + bound);
+    }
+}
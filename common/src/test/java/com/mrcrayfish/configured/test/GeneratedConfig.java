@@ -0,0 +1,440 @@
+package com.mrcrayfish.configured.test;
+
+import com.electronwill.nightconfig.core.CommentedConfig;
+import com.electronwill.nightconfig.core.io.WritingMode;
+import com.electronwill.nightconfig.toml.TomlFormat;
+import com.mrcrayfish.configured.api.ConfigType;
+import com.mrcrayfish.configured.api.IConfigEntry;
+import com.mrcrayfish.configured.api.IConfigValue;
+import com.mrcrayfish.configured.api.IModConfig;
+import net.minecraft.ChatFormatting;
+import net.minecraft.network.chat.Component;
+
+import org.jetbrains.annotations.Nullable;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * A config made of plain values built by {@link LargeConfigGenerator}, without any mod loader or
+ * config library behind it. The config counts how often the children of its folders are listed and
+ * how often its values are read, so tests can check how much of the config an operation visits.
+ *
+ * Author: MrCrayfish
+ */
+public class GeneratedConfig implements IModConfig
+{
+    private final Folder root = new Folder("Root", List.of(), null, true);
+    private final List<Value<?>> values = new ArrayList<>();
+    private int folderCount = 1;
+    private int childrenCalls;
+    private int valueCalls;
+
+    public GeneratedConfig(LargeConfigGenerator.Shape shape)
+    {
+        LargeConfigGenerator.generate(shape, new TreeBuilder());
+    }
+
+    /**
+     * @return all the values of the config in the order they were generated
+     */
+    public List<Value<?>> getValues()
+    {
+        return this.values;
+    }
+
+    /**
+     * @return the number of folders in the config, including the root
+     */
+    public int getFolderCount()
+    {
+        return this.folderCount;
+    }
+
+    /**
+     * @return how often the children of a folder were listed since the counters were last reset
+     */
+    public int getChildrenCalls()
+    {
+        return this.childrenCalls;
+    }
+
+    /**
+     * @return how often a value was read since the counters were last reset
+     */
+    public int getValueCalls()
+    {
+        return this.valueCalls;
+    }
+
+    public void resetCounters()
+    {
+        this.childrenCalls = 0;
+        this.valueCalls = 0;
+    }
+
+    /**
+     * Writes the current values and the comments of the config to a TOML file, formatted the
+     * same way the mod loaders write their config files.
+     */
+    public void write(Path path)
+    {
+        CommentedConfig config = TomlFormat.newConfig();
+        this.writeFolder(this.root, config);
+        TomlFormat.instance().createWriter().write(config, path, WritingMode.REPLACE);
+    }
+
+    private void writeFolder(Folder folder, CommentedConfig config)
+    {
+        for(IConfigEntry entry : folder.children)
+        {
+            if(entry instanceof Folder child)
+            {
+                CommentedConfig childConfig = config.createSubConfig();
+                this.writeFolder(child, childConfig);
+                config.set(List.of(child.name), childConfig);
+                config.setComment(List.of(child.name), child.comment);
+            }
+            else if(entry instanceof Value<?> value)
+            {
+                Object object = value.value instanceof Enum<?> e ? e.name() : value.value;
+                config.set(List.of(value.name), object);
+                config.setComment(List.of(value.name), value.comment);
+            }
+        }
+    }
+
+    @Override
+    public void update(IConfigEntry entry) {}
+
+    @Override
+    public IConfigEntry getRoot()
+    {
+        return this.root;
+    }
+
+    @Override
+    public ConfigType getType()
+    {
+        return ConfigType.CLIENT;
+    }
+
+    @Override
+    public String getFileName()
+    {
+        return "generated.toml";
+    }
+
+    @Override
+    public String getModId()
+    {
+        return "generated";
+    }
+
+    @Override
+    public void loadWorldConfig(Path path, Consumer<IModConfig> result) {}
+
+    /**
+     * Adds the categories and values from the generator to the folders of the config
+     */
+    private class TreeBuilder implements LargeConfigGenerator.Builder
+    {
+        private final Deque<Folder> folders = new ArrayDeque<>(List.of(GeneratedConfig.this.root));
+
+        @Override
+        public void push(String name, String comment)
+        {
+            Folder parent = this.folders.peek();
+            Folder folder = new Folder(name, this.createPath(name), comment, false);
+            parent.children.add(folder);
+            this.folders.push(folder);
+            GeneratedConfig.this.folderCount++;
+        }
+
+        @Override
+        public void pop()
+        {
+            this.folders.pop();
+        }
+
+        @Override
+        public void defineBoolean(String name, String comment, boolean defaultValue)
+        {
+            this.add(name, comment, defaultValue);
+        }
+
+        @Override
+        public void defineInt(String name, String comment, int defaultValue, int min, int max)
+        {
+            this.add(name, comment, defaultValue);
+        }
+
+        @Override
+        public void defineDouble(String name, String comment, double defaultValue, double min, double max)
+        {
+            this.add(name, comment, defaultValue);
+        }
+
+        @Override
+        public void defineLong(String name, String comment, long defaultValue, long min, long max)
+        {
+            this.add(name, comment, defaultValue);
+        }
+
+        @Override
+        public void defineString(String name, String comment, String defaultValue)
+        {
+            this.add(name, comment, defaultValue);
+        }
+
+        @Override
+        public void defineEnum(String name, String comment, ChatFormatting defaultValue)
+        {
+            this.add(name, comment, defaultValue);
+        }
+
+        @Override
+        public <T> void defineList(String name, String comment, List<T> defaultValue, Class<T> elementType)
+        {
+            this.add(name, comment, List.copyOf(defaultValue));
+        }
+
+        private <T> void add(String name, String comment, T defaultValue)
+        {
+            Value<T> value = new Value<>(name, this.createPath(name), comment, defaultValue);
+            this.folders.peek().children.add(value);
+            GeneratedConfig.this.values.add(value);
+        }
+
+        private List<String> createPath(String name)
+        {
+            List<String> path = new ArrayList<>(this.folders.peek().path);
+            path.add(name);
+            return List.copyOf(path);
+        }
+    }
+
+    /**
+     * A value of the config. The value is its own entry, since it is always a leaf.
+     */
+    public class Value<T> implements IConfigValue<T>, IConfigEntry
+    {
+        private final String name;
+        private final List<String> path;
+        private final String comment;
+        private final T defaultValue;
+        private T initialValue;
+        private T value;
+
+        private Value(String name, List<String> path, String comment, T defaultValue)
+        {
+            this.name = name;
+            this.path = path;
+            this.comment = comment;
+            this.defaultValue = defaultValue;
+            this.initialValue = defaultValue;
+            this.value = defaultValue;
+        }
+
+        @Override
+        public T get()
+        {
+            GeneratedConfig.this.valueCalls++;
+            return this.value;
+        }
+
+        @Override
+        public T getDefault()
+        {
+            return this.defaultValue;
+        }
+
+        @Override
+        public void set(T value)
+        {
+            this.value = value;
+        }
+
+        @Override
+        public boolean isValid(T value)
+        {
+            return value != null;
+        }
+
+        @Override
+        public boolean isDefault()
+        {
+            GeneratedConfig.this.valueCalls++;
+            return Objects.equals(this.value, this.defaultValue);
+        }
+
+        @Override
+        public boolean isChanged()
+        {
+            GeneratedConfig.this.valueCalls++;
+            return !Objects.equals(this.value, this.initialValue);
+        }
+
+        @Override
+        public void restore()
+        {
+            this.value = this.defaultValue;
+        }
+
+        @Nullable
+        @Override
+        public Component getComment()
+        {
+            return null;
+        }
+
+        @Nullable
+        @Override
+        public String getTranslationKey()
+        {
+            return null;
+        }
+
+        @Nullable
+        @Override
+        public Component getValidationHint()
+        {
+            return null;
+        }
+
+        @Override
+        public String getName()
+        {
+            return this.name;
+        }
+
+        @Override
+        public List<String> getPath()
+        {
+            return this.path;
+        }
+
+        @Override
+        public void cleanCache()
+        {
+            this.initialValue = this.value;
+        }
+
+        @Override
+        public boolean requiresWorldRestart()
+        {
+            return false;
+        }
+
+        @Override
+        public boolean requiresGameRestart()
+        {
+            return false;
+        }
+
+        @Override
+        public List<IConfigEntry> getChildren()
+        {
+            return List.of();
+        }
+
+        @Override
+        public boolean isRoot()
+        {
+            return false;
+        }
+
+        @Override
+        public boolean isLeaf()
+        {
+            return true;
+        }
+
+        @Override
+        public IConfigValue<?> getValue()
+        {
+            return this;
+        }
+
+        @Override
+        public String getEntryName()
+        {
+            return this.name;
+        }
+
+        @Nullable
+        @Override
+        public Component getTooltip()
+        {
+            return null;
+        }
+    }
+
+    private class Folder implements IConfigEntry
+    {
+        private final String name;
+        private final List<String> path;
+        @Nullable
+        private final String comment;
+        private final boolean root;
+        private final List<IConfigEntry> children = new ArrayList<>();
+
+        private Folder(String name, List<String> path, @Nullable String comment, boolean root)
+        {
+            this.name = name;
+            this.path = path;
+            this.comment = comment;
+            this.root = root;
+        }
+
+        @Override
+        public List<IConfigEntry> getChildren()
+        {
+            GeneratedConfig.this.childrenCalls++;
+            return this.children;
+        }
+
+        @Override
+        public boolean isRoot()
+        {
+            return this.root;
+        }
+
+        @Override
+        public boolean isLeaf()
+        {
+            return false;
+        }
+
+        @Nullable
+        @Override
+        public IConfigValue<?> getValue()
+        {
+            return null;
+        }
+
+        @Override
+        public String getEntryName()
+        {
+            return this.name;
+        }
+
+        @Nullable
+        @Override
+        public Component getTooltip()
+        {
+            return null;
+        }
+
+        @Nullable
+        @Override
+        public String getTranslationKey()
+        {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.mrcrayfish.configured.util;
+
+import com.electronwill.nightconfig.core.CommentedConfig;
+import com.electronwill.nightconfig.toml.TomlFormat;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Tests that {@link TomlPatcher} finds the values of keys in the different TOML constructs and
+ * only replaces the bytes of the changed values.
+ *
+ * Author: MrCrayfish
+ */
+class TomlPatcherTest
+{
+    @TempDir
+    Path dir;
+
+    @Test
+    void patchesValuesAndKeepsComments() throws IOException
+    {
+        Path file = this.write("""
+            # The header of the file
+
+            # The number of things
+            count = 1 # Trailing comment
+
+            [general]
+                # A nested value
+                enabled = false
+                ratio = 0.5
+            """);
+        assertTrue(TomlPatcher.patch(file, Map.of(List.of("count"), 12345, List.of("general", "enabled"), true)));
+        assertEquals("""
+            # The header of the file
+
+            # The number of things
+            count = 12345 # Trailing comment
+
+            [general]
+                # A nested value
+                enabled = true
+                ratio = 0.5
+            """, this.read(file));
+    }
+
+    @Test
+    void patchesAgainAfterPatching() throws IOException
+    {
+        Path file = this.write("""
+            a = 1
+            b = 2
+            c = 3
+            """);
+        assertTrue(TomlPatcher.patch(file, Map.of(List.of("a"), 100)));
+        assertTrue(TomlPatcher.patch(file, Map.of(List.of("c"), 300000, List.of("b"), 20)));
+        assertEquals("""
+            a = 100
+            b = 20
+            c = 300000
+            """, this.read(file));
+    }
+
+    @Test
+    void patchesValuesOfTheSameLengthInPlace() throws IOException
+    {
+        Path file = this.write("""
+            a = 1
+            b = "old"
+            c = 3
+            """);
+        assertTrue(TomlPatcher.patch(file, Map.of(List.of("a"), 9, List.of("b"), "new")));
+        assertTrue(TomlPatcher.patch(file, Map.of(List.of("c"), 12)));
+        assertEquals("""
+            a = 9
+            b = "new"
+            c = 12
+            """, this.read(file));
+    }
+
+    @Test
+    void skipsMultilineStrings() throws IOException
+    {
+        Path file = this.write("""
+            text = \"""
+            not_a_key = 1
+            [not_a_table] \\\""" still text
+            \"""
+            literal = '''
+            # not a comment
+            '''
+            after = 1
+            """);
+        assertTrue(TomlPatcher.patch(file, Map.of(List.of("after"), 2)));
+        CommentedConfig config = this.parse(file);
+        assertEquals(2, (int) config.get("after"));
+        assertEquals("not_a_key = 1\n[not_a_table] \"\"\" still text\n", config.get("text"));
+        assertEquals("# not a comment\n", config.get("literal"));
+    }
+
+    @Test
+    void patchesArraysSpanningLines() throws IOException
+    {
+        Path file = this.write("""
+            blocks = [
+                "minecraft:stone", # A comment with a ] bracket
+                "minecraft:dirt"
+            ]
+            # Kept
+            after = 1
+            """);
+        assertTrue(TomlPatcher.patch(file, Map.of(List.of("blocks"), List.of("minecraft:sand"))));
+        String text = this.read(file);
+        assertTrue(text.endsWith("\n# Kept\nafter = 1\n"));
+        CommentedConfig config = this.parse(file);
+        assertEquals(List.of("minecraft:sand"), config.get("blocks"));
+        assertEquals(1, (int) config.get("after"));
+    }
+
+    @Test
+    void doesNotPatchValuesInInlineTables() throws IOException
+    {
+        String content = """
+            point = { x = 1, y = { z = "}" } }
+            after = 1
+            """;
+        Path file = this.write(content);
+        assertFalse(TomlPatcher.patch(file, Map.of(List.of("point", "x"), 2)));
+        assertEquals(content, this.read(file));
+        assertTrue(TomlPatcher.patch(file, Map.of(List.of("after"), 2)));
+        assertEquals("""
+            point = { x = 1, y = { z = "}" } }
+            after = 2
+            """, this.read(file));
+    }
+
+    @Test
+    void doesNotPatchValuesInArraysOfTables() throws IOException
+    {
+        Path file = this.write("""
+            [[entries]]
+                name = 1
+            [[entries]]
+                name = 2
+            """);
+        assertFalse(TomlPatcher.patch(file, Map.of(List.of("entries", "name"), 3)));
+    }
+
+    @Test
+    void patchesQuotedAndDottedKeys() throws IOException
+    {
+        Path file = this.write("""
+            "quoted.key" = 1
+            dotted.key = 2
+            [table."sub table"]
+                value = 3
+            """);
+        assertTrue(TomlPatcher.patch(file, Map.of(List.of("quoted.key"), 10, List.of("dotted", "key"), 20, List.of("table", "sub table", "value"), 30)));
+        assertEquals("""
+            "quoted.key" = 10
+            dotted.key = 20
+            [table."sub table"]
+                value = 30
+            """, this.read(file));
+    }
+
+    @Test
+    void failsWithoutChangingTheFileIfAKeyIsMissing() throws IOException
+    {
+        String content = "a = 1\n";
+        Path file = this.write(content);
+        assertFalse(TomlPatcher.patch(file, Map.of(List.of("a"), 2, List.of("missing"), 3)));
+        assertEquals(content, this.read(file));
+    }
+
+    @Test
+    void rescansFilesChangedByOthers() throws IOException
+    {
+        Path file = this.write("a = 1\nb = 2\n");
+        assertTrue(TomlPatcher.patch(file, Map.of(List.of("a"), 3)));
+
+        // Same size as the patched file, but the values are at different offsets. The modified time
+        // is set explicitly since file systems may not change it within the same instant.
+        Files.writeString(file, "b = 2\na = 3\n", StandardCharsets.UTF_8);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(0));
+        assertTrue(TomlPatcher.patch(file, Map.of(List.of("a"), 4)));
+        assertEquals("b = 2\na = 4\n", this.read(file));
+    }
+
+    @Test
+    void leavesNoTemporaryFiles() throws IOException
+    {
+        Path file = this.write("a = 1\n");
+        assertTrue(TomlPatcher.patch(file, Map.of(List.of("a"), 2)));
+        try(var files = Files.list(this.dir))
+        {
+            assertEquals(List.of(file), files.toList());
+        }
+    }
+
+    private Path write(String content) throws IOException
+    {
+        Path file = this.dir.resolve("config.toml");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    private String read(Path file) throws IOException
+    {
+        return Files.readString(file, StandardCharsets.UTF_8);
+    }
+
+    private CommentedConfig parse(Path file) throws IOException
+    {
+        return TomlFormat.instance().createParser().parse(this.read(file));
+    }
+}
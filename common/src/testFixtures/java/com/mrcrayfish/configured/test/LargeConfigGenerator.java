@@ -0,0 +1,178 @@
+package com.mrcrayfish.configured.test;
+
+import net.minecraft.ChatFormatting;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.IntFunction;
+
+/**
+ * Generates large configs to test how Configured performs with configs the size of those found in
+ * big modpacks. The generator doesn't create a config itself, instead it describes the categories
+ * and values to a {@link Builder}, so the same config can be built with the config spec of each
+ * mod loader and with the plain configs used by the tests in common.
+ * <p>
+ * The values are split evenly into categories until the depth of the shape is reached, and cycle
+ * through the types of values a real config contains: booleans, numbers, strings, enums and lists.
+ *
+ * Author: MrCrayfish
+ */
+public final class LargeConfigGenerator
+{
+    private static final String[] WORDS = {"max", "spawn", "distance", "enable", "particle", "chance", "loot", "table", "render", "cooldown", "damage", "multiplier"};
+
+    private LargeConfigGenerator() {}
+
+    /**
+     * Describes a config with the given shape to the builder
+     *
+     * @param shape   the shape of the config
+     * @param builder the builder that receives the categories and values
+     */
+    public static void generate(Shape shape, Builder builder)
+    {
+        int branching = shape.depth() > 0 ? Math.max(2, (int) Math.ceil(Math.pow(shape.values(), 1.0 / (shape.depth() + 1)))) : 1;
+        defineCategory(shape, builder, 0, shape.values(), 0, branching);
+    }
+
+    /**
+     * Defines the given number of values, split evenly into categories until the max depth is
+     * reached
+     *
+     * @return the index of the next value
+     */
+    private static int defineCategory(Shape shape, Builder builder, int index, int count, int level, int branching)
+    {
+        if(level >= shape.depth() || count <= branching)
+        {
+            for(int i = 0; i < count; i++)
+            {
+                defineValue(shape, builder, index + i);
+            }
+            return index + count;
+        }
+        int perCategory = (count + branching - 1) / branching;
+        for(int i = 0; count > 0; i++)
+        {
+            int size = Math.min(perCategory, count);
+            builder.push("category" + i, createComment(shape, index));
+            index = defineCategory(shape, builder, index, size, level + 1, branching);
+            builder.pop();
+            count -= size;
+        }
+        return index;
+    }
+
+    private static void defineValue(Shape shape, Builder builder, int index)
+    {
+        String name = createName(index);
+        String comment = createComment(shape, index);
+        switch(index % 8)
+        {
+            case 0 -> builder.defineBoolean(name, comment, index % 3 == 0);
+            case 1 -> builder.defineInt(name, comment, index, 0, Integer.MAX_VALUE);
+            case 2 -> builder.defineDouble(name, comment, index * 0.5, 0.0, Double.MAX_VALUE);
+            case 3 -> builder.defineLong(name, comment, index, 0L, Long.MAX_VALUE);
+            case 4 -> builder.defineString(name, comment, "value" + index);
+            case 5 -> builder.defineEnum(name, comment, ChatFormatting.values()[index % ChatFormatting.values().length]);
+            case 6 -> builder.defineList(name, comment, createList(shape, index, i -> "minecraft:" + createName(i).toLowerCase(Locale.ENGLISH)), String.class);
+            default -> builder.defineList(name, comment, createList(shape, index, i -> i), Integer.class);
+        }
+    }
+
+    private static <T> List<T> createList(Shape shape, int index, IntFunction<T> factory)
+    {
+        List<T> list = new ArrayList<>(shape.listSize());
+        for(int i = 0; i < shape.listSize(); i++)
+        {
+            list.add(factory.apply(index + i));
+        }
+        return list;
+    }
+
+    /**
+     * Creates a camel case name like a real config value would have, for example "maxSpawnDistance12"
+     */
+    private static String createName(int index)
+    {
+        StringBuilder builder = new StringBuilder(WORDS[index % WORDS.length]);
+        for(int i = 1; i <= index % 3 + 1; i++)
+        {
+            String word = WORDS[(index / (i * 7) + i) % WORDS.length];
+            builder.append(Character.toUpperCase(word.charAt(0))).append(word, 1, word.length());
+        }
+        return builder.append(index).toString();
+    }
+
+    private static String createComment(Shape shape, int index)
+    {
+        StringBuilder builder = new StringBuilder(shape.commentLength());
+        for(int i = index; builder.length() < shape.commentLength(); i++)
+        {
+            builder.append(WORDS[i % WORDS.length]).append(' ');
+        }
+        builder.setLength(shape.commentLength());
+        return builder.toString();
+    }
+
+    /**
+     * The shape of a generated config
+     *
+     * @param values        the number of values
+     * @param depth         how deeply values are nested in categories
+     * @param listSize      the number of elements in list values
+     * @param commentLength the length of the comment of each category and value
+     */
+    public record Shape(int values, int depth, int listSize, int commentLength)
+    {
+        /**
+         * Reads the shape from system properties, so the configs registered by the test mods can
+         * be changed without recompiling:
+         * <ul>
+         *     <li><code>configured.test.large.values</code> the number of values (default 2000)</li>
+         *     <li><code>configured.test.large.depth</code> how deeply values are nested in categories (default 3)</li>
+         *     <li><code>configured.test.large.listSize</code> the number of elements in list values (default 50)</li>
+         *     <li><code>configured.test.large.commentLength</code> the length of the comment of each value (default 120)</li>
+         * </ul>
+         * Setting the number of values to zero disables the large configs.
+         */
+        public static Shape fromProperties()
+        {
+            return new Shape(
+                Math.max(0, Integer.getInteger("configured.test.large.values", 2000)),
+                Math.max(0, Integer.getInteger("configured.test.large.depth", 3)),
+                Math.max(0, Integer.getInteger("configured.test.large.listSize", 50)),
+                Math.max(0, Integer.getInteger("configured.test.large.commentLength", 120))
+            );
+        }
+    }
+
+    /**
+     * Receives the categories and values of a generated config. Categories are pushed before
+     * their values are defined and popped after, like the config spec builders of the mod loaders.
+     */
+    public interface Builder
+    {
+        void push(String name, String comment);
+
+        void pop();
+
+        void defineBoolean(String name, String comment, boolean defaultValue);
+
+        void defineInt(String name, String comment, int defaultValue, int min, int max);
+
+        void defineDouble(String name, String comment, double defaultValue, double min, double max);
+
+        void defineLong(String name, String comment, long defaultValue, long min, long max);
+
+        void defineString(String name, String comment, String defaultValue);
+
+        void defineEnum(String name, String comment, ChatFormatting defaultValue);
+
+        /**
+         * @param elementType the type every element of the list must be
+         */
+        <T> void defineList(String name, String comment, List<T> defaultValue, Class<T> elementType);
+    }
+}
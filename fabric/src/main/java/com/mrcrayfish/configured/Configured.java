@@ -1,8 +1,14 @@
 package com.mrcrayfish.configured;
 
 import com.mrcrayfish.configured.impl.framework.message.MessageFramework;
+import com.mrcrayfish.configured.network.ChunkedTransfer;
+import com.mrcrayfish.configured.network.NetworkStats;
+import com.mrcrayfish.configured.network.ServerPlayHelper;
+import com.mrcrayfish.configured.network.message.MessageConfigChunk;
 import com.mrcrayfish.configured.network.message.MessageSessionData;
 import net.fabricmc.api.ModInitializer;
+import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
 import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
 import net.minecraft.server.MinecraftServer;
@@ -17,17 +23,44 @@ public class Configured implements ModInitializer
     public void onInitialize()
     {
         Bootstrap.init();
+        ServerTickEvents.END_SERVER_TICK.register(Events::onServerTickEnd);
+        CommandRegistrationCallback.EVENT.register((dispatcher, context, selection) -> Events.onRegisterCommands(dispatcher));
 
         // Yeah, I don't care that this is ugly
-        PayloadTypeRegistry.playC2S().register(MessageFramework.Sync.TYPE, MessageFramework.Sync.STREAM_CODEC);
-        PayloadTypeRegistry.playS2C().register(MessageFramework.Sync.TYPE, MessageFramework.Sync.STREAM_CODEC);
+        PayloadTypeRegistry.playC2S().register(MessageConfigChunk.TYPE, NetworkStats.trackChunks(MessageConfigChunk.STREAM_CODEC));
+        PayloadTypeRegistry.playS2C().register(MessageConfigChunk.TYPE, NetworkStats.trackChunks(MessageConfigChunk.STREAM_CODEC));
+        ServerPlayNetworking.registerGlobalReceiver(MessageConfigChunk.TYPE, (payload, context) -> {
+            ServerPlayer player = context.player();
+            MinecraftServer server = player.server;
+            server.execute(() -> {
+                if(!ServerPlayHelper.canEditServerConfigs(player))
+                    return;
+                byte[] data = ChunkedTransfer.SERVER.receive(player.getUUID(), payload);
+                if(data != null && !MessageFramework.handleChunked(payload.type(), data, false, player, context.responseSender()::disconnect))
+                {
+                    Constants.LOG.warn("Received chunked payload of unknown type: {}", payload.type());
+                }
+            });
+        });
+        PayloadTypeRegistry.playC2S().register(MessageFramework.Sync.TYPE, NetworkStats.track(MessageFramework.Sync.TYPE.id(), MessageFramework.Sync.STREAM_CODEC));
+        PayloadTypeRegistry.playS2C().register(MessageFramework.Sync.TYPE, NetworkStats.track(MessageFramework.Sync.TYPE.id(), MessageFramework.Sync.STREAM_CODEC));
         ServerPlayNetworking.registerGlobalReceiver(MessageFramework.Sync.TYPE, (payload, context) -> {
             ServerPlayer player = context.player();
             MinecraftServer server = player.server;
             MessageFramework.Sync.handle(payload, server::execute, player, context.responseSender()::disconnect);
         });
-        PayloadTypeRegistry.playC2S().register(MessageFramework.Request.TYPE, MessageFramework.Request.STREAM_CODEC);
-        PayloadTypeRegistry.playS2C().register(MessageFramework.Request.TYPE, MessageFramework.Request.STREAM_CODEC);
+        PayloadTypeRegistry.playC2S().register(MessageFramework.SyncDelta.TYPE, NetworkStats.track(MessageFramework.SyncDelta.TYPE.id(), MessageFramework.SyncDelta.STREAM_CODEC));
+        PayloadTypeRegistry.playS2C().register(MessageFramework.SyncDelta.TYPE, NetworkStats.track(MessageFramework.SyncDelta.TYPE.id(), MessageFramework.SyncDelta.STREAM_CODEC));
+        ServerPlayNetworking.registerGlobalReceiver(MessageFramework.SyncDelta.TYPE, (payload, context) -> {
+            ServerPlayer player = context.player();
+            MinecraftServer server = player.server;
+            MessageFramework.SyncDelta.handle(payload, server::execute, player, context.responseSender()::disconnect);
+        });
+        // Registered here since the server needs to know the type to send it
+        PayloadTypeRegistry.playC2S().register(MessageFramework.RequestFullSync.TYPE, NetworkStats.track(MessageFramework.RequestFullSync.TYPE.id(), MessageFramework.RequestFullSync.STREAM_CODEC));
+        PayloadTypeRegistry.playS2C().register(MessageFramework.RequestFullSync.TYPE, NetworkStats.track(MessageFramework.RequestFullSync.TYPE.id(), MessageFramework.RequestFullSync.STREAM_CODEC));
+        PayloadTypeRegistry.playC2S().register(MessageFramework.Request.TYPE, NetworkStats.track(MessageFramework.Request.TYPE.id(), MessageFramework.Request.STREAM_CODEC));
+        PayloadTypeRegistry.playS2C().register(MessageFramework.Request.TYPE, NetworkStats.track(MessageFramework.Request.TYPE.id(), MessageFramework.Request.STREAM_CODEC));
         ServerPlayNetworking.registerGlobalReceiver(MessageFramework.Request.TYPE, (payload, context) -> {
             ServerPlayer player = context.player();
             MinecraftServer server = player.server;
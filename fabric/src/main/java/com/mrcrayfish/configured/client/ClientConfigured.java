@@ -1,11 +1,16 @@
 package com.mrcrayfish.configured.client;
 
+import com.mrcrayfish.configured.Constants;
 import com.mrcrayfish.configured.impl.framework.message.MessageFramework;
+import com.mrcrayfish.configured.network.ChunkedTransfer;
+import com.mrcrayfish.configured.network.NetworkStats;
+import com.mrcrayfish.configured.network.message.MessageConfigChunk;
 import com.mrcrayfish.configured.network.message.MessageSessionData;
 import com.mrcrayfish.configured.platform.Services;
 import net.fabricmc.api.ClientModInitializer;
 import net.fabricmc.fabric.api.client.event.lifecycle.v1.ClientTickEvents;
 import net.fabricmc.fabric.api.client.keybinding.v1.KeyBindingHelper;
+import net.fabricmc.fabric.api.client.networking.v1.ClientPlayConnectionEvents;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
 import net.fabricmc.fabric.api.client.screen.v1.ScreenEvents;
 import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
@@ -27,6 +32,9 @@ public class ClientConfigured implements ClientModInitializer
             EditingTracker.instance().onScreenOpen(screen);
         });
 
+        ClientTickEvents.END_CLIENT_TICK.register(client -> ClientHandler.onClientTickEnd());
+        ClientPlayConnectionEvents.DISCONNECT.register((handler, client) -> client.execute(ClientHandler::onClientDisconnect));
+
         if(this.isModListInstalled())
         {
             KeyBindingHelper.registerKeyBinding(ClientHandler.KEY_OPEN_MOD_LIST);
@@ -39,20 +47,35 @@ public class ClientConfigured implements ClientModInitializer
             });
         }
 
-        PayloadTypeRegistry.playC2S().register(MessageSessionData.TYPE, MessageSessionData.STREAM_CODEC);
-        PayloadTypeRegistry.playS2C().register(MessageSessionData.TYPE, MessageSessionData.STREAM_CODEC);
+        PayloadTypeRegistry.playC2S().register(MessageSessionData.TYPE, NetworkStats.track(MessageSessionData.TYPE.id(), MessageSessionData.STREAM_CODEC));
+        PayloadTypeRegistry.playS2C().register(MessageSessionData.TYPE, NetworkStats.track(MessageSessionData.TYPE.id(), MessageSessionData.STREAM_CODEC));
         ClientPlayNetworking.registerGlobalReceiver(MessageSessionData.TYPE, (payload, context) -> {
             MessageSessionData.handle(payload, Minecraft.getInstance()::execute);
         });
 
+        ClientPlayNetworking.registerGlobalReceiver(MessageConfigChunk.TYPE, (payload, context) -> {
+            Minecraft mc = context.client();
+            mc.execute(() -> {
+                byte[] data = ChunkedTransfer.CLIENT.receive(ChunkedTransfer.SERVER_CONNECTION, payload);
+                if(data != null && !MessageFramework.handleChunked(payload.type(), data, true, mc.player, context.responseSender()::disconnect))
+                {
+                    Constants.LOG.warn("Received chunked payload of unknown type: {}", payload.type());
+                }
+            });
+        });
+
         if(Services.PLATFORM.isModLoaded("framework"))
         {
-            PayloadTypeRegistry.playC2S().register(MessageFramework.Response.TYPE, MessageFramework.Response.STREAM_CODEC);
-            PayloadTypeRegistry.playS2C().register(MessageFramework.Response.TYPE, MessageFramework.Response.STREAM_CODEC);
+            PayloadTypeRegistry.playC2S().register(MessageFramework.Response.TYPE, NetworkStats.track(MessageFramework.Response.TYPE.id(), MessageFramework.Response.STREAM_CODEC));
+            PayloadTypeRegistry.playS2C().register(MessageFramework.Response.TYPE, NetworkStats.track(MessageFramework.Response.TYPE.id(), MessageFramework.Response.STREAM_CODEC));
             ClientPlayNetworking.registerGlobalReceiver(MessageFramework.Response.TYPE, (payload, context) -> {
                 Minecraft mc = context.client();
                 MessageFramework.Response.handle(payload, mc::execute, mc.player, context.responseSender()::disconnect);
             });
+            ClientPlayNetworking.registerGlobalReceiver(MessageFramework.RequestFullSync.TYPE, (payload, context) -> {
+                Minecraft mc = context.client();
+                MessageFramework.RequestFullSync.handle(payload, mc::execute, mc.player, context.responseSender()::disconnect);
+            });
         }
     }
 
@@ -21,4 +21,10 @@ public class PlayerListMixin
     {
         Events.onPlayerLoggedIn(player);
     }
+
+    @Inject(method = "remove", at = @At(value = "HEAD"))
+    private void configuredRemovePlayer(ServerPlayer player, CallbackInfo ci)
+    {
+        Events.onPlayerLoggedOut(player);
+    }
 }
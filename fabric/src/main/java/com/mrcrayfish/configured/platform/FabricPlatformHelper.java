@@ -3,8 +3,14 @@ package com.mrcrayfish.configured.platform;
 import com.mrcrayfish.configured.Config;
 import com.mrcrayfish.configured.api.Environment;
 import com.mrcrayfish.configured.impl.framework.message.MessageFramework;
+import com.mrcrayfish.configured.network.ChunkedTransfer;
+import com.mrcrayfish.configured.network.ConfigData;
+import com.mrcrayfish.configured.network.ConfigDelta;
+import com.mrcrayfish.configured.network.ConfigManifest;
+import com.mrcrayfish.configured.network.NetworkStats;
 import com.mrcrayfish.configured.network.message.MessageSessionData;
 import com.mrcrayfish.configured.platform.services.IPlatformHelper;
+import com.mrcrayfish.configured.util.ConfigHelper;
 import net.fabricmc.api.EnvType;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
 import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
@@ -12,9 +18,13 @@ import net.fabricmc.fabric.api.networking.v1.ServerPlayNetworking;
 import net.fabricmc.loader.api.FabricLoader;
 import net.minecraft.client.multiplayer.ClientPacketListener;
 import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
 import net.minecraft.resources.ResourceLocation;
 import net.minecraft.server.level.ServerPlayer;
 
+import org.jetbrains.annotations.Nullable;
 import java.nio.file.Path;
 
 public class FabricPlatformHelper implements IPlatformHelper
@@ -66,31 +76,53 @@ public class FabricPlatformHelper implements IPlatformHelper
     {
         boolean developer = FabricLoader.getInstance().getEnvironmentType() == EnvType.SERVER && Config.isDeveloperEnabled() && Config.getDevelopers().contains(player.getStringUUID());
         boolean lan = player.getServer() != null && !player.getServer().isDedicatedServer();
-        ServerPlayNetworking.send(player, new MessageSessionData(developer, lan));
+        ServerPlayNetworking.send(player, new MessageSessionData(developer, lan, ConfigManifest.get(developer)));
     }
 
     @Override
-    public void sendFrameworkConfigToServer(ResourceLocation id, byte[] data)
+    public boolean hasConfigured(ServerPlayer player)
+    {
+        return ServerPlayNetworking.canSend(player, MessageSessionData.TYPE);
+    }
+
+    @Override
+    public void sendFrameworkConfigToServer(ResourceLocation id, ConfigData data)
+    {
+        if(!this.isModLoaded("framework"))
+            return;
+        this.sendToServer(new MessageFramework.Sync(id, data), MessageFramework.Sync.STREAM_CODEC);
+    }
+
+    @Override
+    public void sendFrameworkConfigDeltaToServer(ResourceLocation id, ConfigDelta delta)
+    {
+        if(!this.isModLoaded("framework"))
+            return;
+        this.sendToServer(new MessageFramework.SyncDelta(id, delta), MessageFramework.SyncDelta.STREAM_CODEC);
+    }
+
+    @Override
+    public void sendFrameworkConfigRequest(ResourceLocation id, long cachedHash)
     {
         if(!this.isModLoaded("framework"))
             return;
-        ClientPlayNetworking.send(new MessageFramework.Sync(id, data));
+        ClientPlayNetworking.send(new MessageFramework.Request(id, cachedHash));
     }
 
     @Override
-    public void sendFrameworkConfigRequest(ResourceLocation id)
+    public void sendFrameworkConfigResponse(ServerPlayer player, long hash, @Nullable ConfigData data)
     {
         if(!this.isModLoaded("framework"))
             return;
-        ClientPlayNetworking.send(new MessageFramework.Request(id));
+        this.sendToPlayer(player, new MessageFramework.Response(hash, data), MessageFramework.Response.STREAM_CODEC);
     }
 
     @Override
-    public void sendFrameworkConfigResponse(ServerPlayer player, byte[] data)
+    public void sendFrameworkFullSyncRequest(ServerPlayer player, ResourceLocation id)
     {
         if(!this.isModLoaded("framework"))
             return;
-        ServerPlayNetworking.send(player, new MessageFramework.Response(data));
+        ServerPlayNetworking.send(player, new MessageFramework.RequestFullSync(id));
     }
 
     @Override
@@ -98,4 +130,28 @@ public class FabricPlatformHelper implements IPlatformHelper
     {
         return ClientPlayNetworking.getReceived().contains(MessageSessionData.TYPE.id());
     }
+
+    /**
+     * Sends a payload to the server, in chunks if it's too large. See {@link ChunkedTransfer}.
+     */
+    private <T extends CustomPacketPayload> void sendToServer(T payload, StreamCodec<? super RegistryFriendlyByteBuf, T> codec)
+    {
+        ChunkedTransfer.CLIENT.send(ChunkedTransfer.SERVER_CONNECTION, ConfigHelper::isConfiguredInstalledOnServer, payload.type().id(), codec, payload, ClientPlayNetworking::send, ClientPlayNetworking::send);
+    }
+
+    /**
+     * Sends a payload to a player, in chunks if it's too large. See {@link ChunkedTransfer}.
+     */
+    private <T extends CustomPacketPayload> void sendToPlayer(ServerPlayer player, T payload, StreamCodec<? super RegistryFriendlyByteBuf, T> codec)
+    {
+        int size = ChunkedTransfer.SERVER.send(player.getUUID(), () -> !player.hasDisconnected(), payload.type().id(), codec, payload, message -> {
+            ServerPlayNetworking.send(player, message);
+        }, chunk -> {
+            ServerPlayNetworking.send(player, chunk);
+        });
+        if(size >= 0)
+        {
+            NetworkStats.recordSent(player, size);
+        }
+    }
 }
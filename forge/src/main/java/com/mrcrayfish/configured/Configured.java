@@ -7,6 +7,8 @@ import com.mrcrayfish.configured.network.ForgeNetwork;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraftforge.api.distmarker.Dist;
 import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.event.RegisterCommandsEvent;
+import net.minecraftforge.event.TickEvent;
 import net.minecraftforge.event.entity.player.PlayerEvent;
 import net.minecraftforge.eventbus.api.IEventBus;
 import net.minecraftforge.fml.DistExecutor;
@@ -36,6 +38,9 @@ public class Configured
         ModLoadingContext.get().registerExtensionPoint(IExtensionPoint.DisplayTest.class, () -> new IExtensionPoint.DisplayTest(() -> IExtensionPoint.DisplayTest.IGNORESERVERONLY, (a, b) -> true));
         DistExecutor.unsafeRunWhenOn(Dist.CLIENT, () -> () -> MinecraftForge.EVENT_BUS.register(EditingTracker.instance()));
         MinecraftForge.EVENT_BUS.addListener(this::onPlayerLoggedIn);
+        MinecraftForge.EVENT_BUS.addListener(this::onPlayerLoggedOut);
+        MinecraftForge.EVENT_BUS.addListener(this::onServerTick);
+        MinecraftForge.EVENT_BUS.addListener(this::onRegisterCommands);
     }
 
     private void onCommonSetup(FMLCommonSetupEvent event)
@@ -65,4 +70,25 @@ public class Configured
             Events.onPlayerLoggedIn(player);
         }
     }
+
+    public void onPlayerLoggedOut(PlayerEvent.PlayerLoggedOutEvent event)
+    {
+        if(event.getEntity() instanceof ServerPlayer player)
+        {
+            Events.onPlayerLoggedOut(player);
+        }
+    }
+
+    public void onServerTick(TickEvent.ServerTickEvent event)
+    {
+        if(event.phase == TickEvent.Phase.END)
+        {
+            Events.onServerTickEnd(event.getServer());
+        }
+    }
+
+    public void onRegisterCommands(RegisterCommandsEvent event)
+    {
+        Events.onRegisterCommands(event.getDispatcher());
+    }
 }
@@ -2,15 +2,18 @@ package com.mrcrayfish.configured.impl.forge;
 
 import com.electronwill.nightconfig.core.CommentedConfig;
 import com.electronwill.nightconfig.core.file.CommentedFileConfig;
-import com.electronwill.nightconfig.toml.TomlFormat;
 import com.mrcrayfish.configured.Constants;
+import com.mrcrayfish.configured.api.ConfigChangedEvent;
 import com.mrcrayfish.configured.api.ConfigType;
 import com.mrcrayfish.configured.api.IConfigEntry;
 import com.mrcrayfish.configured.api.IConfigValue;
 import com.mrcrayfish.configured.api.IModConfig;
 import com.mrcrayfish.configured.client.SessionData;
+import com.mrcrayfish.configured.network.ConfigData;
+import com.mrcrayfish.configured.network.ConfigDelta;
 import com.mrcrayfish.configured.network.ForgeNetwork;
 import com.mrcrayfish.configured.network.message.play.MessageSyncForgeConfig;
+import com.mrcrayfish.configured.network.message.play.MessageSyncForgeConfigDelta;
 import com.mrcrayfish.configured.util.ConfigHelper;
 import com.mrcrayfish.configured.util.ForgeConfigHelper;
 import net.minecraft.Util;
@@ -18,16 +21,17 @@ import net.minecraft.world.entity.player.Player;
 import net.minecraftforge.common.ForgeConfigSpec;
 import net.minecraftforge.fml.config.ModConfig;
 import net.minecraftforge.fml.event.config.ModConfigEvent;
-import net.minecraftforge.network.PacketDistributor;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
+import org.jetbrains.annotations.Nullable;
 import java.nio.file.Path;
 import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 public class ForgeConfig implements IModConfig
 {
@@ -53,9 +57,10 @@ public class ForgeConfig implements IModConfig
     public void update(IConfigEntry entry)
     {
         Set<IConfigValue<?>> changedValues = ConfigHelper.getChangedValues(entry);
+        Map<List<String>, Object> changes = new HashMap<>();
+        long baseHash = 0;
         if(!changedValues.isEmpty())
         {
-            CommentedConfig newConfig = CommentedConfig.copy(this.config.getConfigData());
             changedValues.forEach(value ->
             {
                 if(value instanceof ForgeValue<?> forge)
@@ -65,14 +70,32 @@ public class ForgeConfig implements IModConfig
                         List<?> converted = forgeList.getConverted();
                         if(converted != null)
                         {
-                            newConfig.set(forge.configValue.getPath(), converted);
+                            changes.put(forge.configValue.getPath(), converted);
                             return;
                         }
                     }
-                    newConfig.set(forge.configValue.getPath(), value.get());
+                    changes.put(forge.configValue.getPath(), value.get());
                 }
             });
-            this.config.getConfigData().putAll(newConfig);
+
+            // The hash of the config before the changes, so the server can check it has the same values
+            if(this.getType() == ConfigType.WORLD_SYNC && ConfigHelper.isPlayingGame())
+            {
+                baseHash = ConfigDelta.hash(this.config.getConfigData());
+            }
+
+            ConfigHelper.createBackup(this.config.getConfigData());
+
+            // Only rewrite the changed values in the file if possible, otherwise do a full write
+            if(!ConfigHelper.patchConfig(this.config.getConfigData(), changes))
+            {
+                CommentedConfig newConfig = CommentedConfig.copy(this.config.getConfigData());
+                changes.forEach(newConfig::set);
+                this.config.getConfigData().putAll(newConfig);
+            }
+
+            // Only the changed values need their cached value to be cleared
+            changedValues.forEach(IConfigValue::cleanCache);
         }
 
         if(this.getType() == ConfigType.WORLD_SYNC)
@@ -85,15 +108,17 @@ public class ForgeConfig implements IModConfig
             }
             else
             {
-                this.syncToServer();
+                this.syncToServer(changes, baseHash);
             }
 
         }
         else if(!changedValues.isEmpty())
         {
-            Constants.LOG.info("Sending config reloading event for {}", this.config.getFileName());
-            this.spec.afterReload();
-            ForgeConfigHelper.fireForgeConfigEvent(this.config, new ModConfigEvent.Reloading(this.config));
+            ConfigHelper.dispatchReload(this, () -> {
+                Constants.LOG.info("Sending config reloading event for {}", this.config.getFileName());
+                ForgeConfigHelper.fireForgeConfigEvent(this.config, new ModConfigEvent.Reloading(this.config));
+                ConfigChangedEvent.post(this.getModId(), this.getFileName(), changes.keySet());
+            });
         }
     }
 
@@ -144,6 +169,13 @@ public class ForgeConfig implements IModConfig
         }
     }
 
+    @Override
+    @Nullable
+    public Path getFilePath()
+    {
+        return ConfigHelper.getFilePath(this.config.getConfigData());
+    }
+
     @Override
     public boolean isChanged()
     {
@@ -164,16 +196,26 @@ public class ForgeConfig implements IModConfig
         if(ConfigHelper.isWorldConfig(this) && this.config.getConfigData() == null)
             return;
 
+        // Only the values that aren't already their default need to be restored
+        List<ForgeValueEntry> changed = this.allConfigValues.stream().filter(entry -> {
+            return !Objects.equals(entry.value.get(), entry.spec.getDefault());
+        }).toList();
+        if(changed.isEmpty())
+            return;
+
+        ConfigHelper.createBackup(this.config.getConfigData());
+
         // Creates a copy of the config data then pushes all at once to avoid multiple IO ops
         CommentedConfig newConfig = CommentedConfig.copy(this.config.getConfigData());
-        this.allConfigValues.forEach(entry -> newConfig.set(entry.value.getPath(), entry.spec.getDefault()));
+        changed.forEach(entry -> newConfig.set(entry.value.getPath(), entry.spec.getDefault()));
         this.config.getConfigData().putAll(newConfig);
 
-        // Finally clear cache of all config values
-        this.allConfigValues.forEach(pair -> pair.value.clearCache());
+        // Finally clear cache of the restored config values
+        changed.forEach(entry -> entry.value.clearCache());
+        ConfigChangedEvent.post(this.getModId(), this.getFileName(), changed.stream().map(entry -> entry.value.getPath()).collect(Collectors.toSet()));
     }
 
-    private void syncToServer()
+    private void syncToServer(Map<List<String>, Object> changes, long baseHash)
     {
         if(this.config == null)
             return;
@@ -192,17 +234,18 @@ public class ForgeConfig implements IModConfig
         if(!ConfigHelper.isOperator(player) || !SessionData.isDeveloper(player))
             return;
 
-        try
-        {
-            ByteArrayOutputStream stream = new ByteArrayOutputStream();
-            TomlFormat.instance().createWriter().write(this.config.getConfigData(), stream);
-            ForgeNetwork.getChannel().send(new MessageSyncForgeConfig(this.config.getFileName(), stream.toByteArray()), PacketDistributor.SERVER.noArg());
-            stream.close();
-        }
-        catch(IOException e)
+        if(changes.isEmpty())
+            return;
+
+        // Only send the changed values if possible. The server asks for the full config if its
+        // values are different to the ones the changes were made against.
+        ConfigDelta delta = ConfigDelta.create(baseHash, changes);
+        if(delta != null)
         {
-            Constants.LOG.error("Failed to close byte stream when sending config to server");
+            ForgeNetwork.sendToServer(ForgeNetwork.SYNC_FORGE_CONFIG_DELTA, MessageSyncForgeConfigDelta.STREAM_CODEC, new MessageSyncForgeConfigDelta(this.config.getFileName(), delta));
+            return;
         }
+        ForgeNetwork.sendToServer(ForgeNetwork.SYNC_FORGE_CONFIG, MessageSyncForgeConfig.STREAM_CODEC, new MessageSyncForgeConfig(this.config.getFileName(), ConfigData.of(this.config.getConfigData(), ForgeConfigHelper.getSchema(this.spec))));
     }
 
     protected static List<ForgeValueEntry> getAllConfigValues(ForgeConfigSpec spec)
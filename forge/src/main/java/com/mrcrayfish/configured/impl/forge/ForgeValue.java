@@ -122,6 +122,12 @@ public class ForgeValue<T> implements IConfigValue<T>
         return lastValue(this.configValue.getPath(), "");
     }
 
+    @Override
+    public List<String> getPath()
+    {
+        return this.configValue.getPath();
+    }
+
     @Override
     public void cleanCache()
     {
@@ -2,8 +2,14 @@ package com.mrcrayfish.configured.network;
 
 import com.mrcrayfish.configured.Constants;
 import com.mrcrayfish.configured.impl.framework.message.MessageFramework;
+import com.mrcrayfish.configured.network.handler.ForgeClientPlayHandler;
+import com.mrcrayfish.configured.network.handler.ForgeServerPlayHandler;
+import com.mrcrayfish.configured.network.message.MessageConfigChunk;
 import com.mrcrayfish.configured.network.message.MessageSessionData;
+import com.mrcrayfish.configured.network.message.play.MessageRequestFullSync;
 import com.mrcrayfish.configured.network.message.play.MessageSyncForgeConfig;
+import com.mrcrayfish.configured.network.message.play.MessageSyncForgeConfigDelta;
+import com.mrcrayfish.configured.util.ConfigHelper;
 import com.mrcrayfish.framework.api.Environment;
 import com.mrcrayfish.framework.api.util.TaskRunner;
 import com.mrcrayfish.framework.util.Utils;
@@ -11,13 +17,18 @@ import net.minecraft.client.Minecraft;
 import net.minecraft.core.RegistryAccess;
 import net.minecraft.network.FriendlyByteBuf;
 import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.codec.StreamCodec;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerPlayer;
 import net.minecraftforge.common.MinecraftForge;
+import net.minecraftforge.event.network.CustomPayloadEvent;
 import net.minecraftforge.event.server.ServerStartingEvent;
 import net.minecraftforge.event.server.ServerStoppedEvent;
 import net.minecraftforge.fml.ModList;
+import net.minecraftforge.network.Channel;
 import net.minecraftforge.network.ChannelBuilder;
 import net.minecraftforge.network.NetworkDirection;
+import net.minecraftforge.network.PacketDistributor;
 import net.minecraftforge.network.SimpleChannel;
 import org.jetbrains.annotations.Nullable;
 
@@ -30,26 +41,42 @@ import java.util.Optional;
  */
 public class ForgeNetwork
 {
+    /**
+     * The types of messages that can be sent in chunks. See {@link #sendToServer}.
+     */
+    public static final ResourceLocation SYNC_FORGE_CONFIG = new ResourceLocation(Constants.MOD_ID, "sync_forge_config");
+    public static final ResourceLocation SYNC_FORGE_CONFIG_DELTA = new ResourceLocation(Constants.MOD_ID, "sync_forge_config_delta");
+
+    /**
+     * Identifies messages without a type of their own in the network stats
+     */
+    private static final ResourceLocation REQUEST_FULL_SYNC = new ResourceLocation(Constants.MOD_ID, "request_full_sync");
+
     private static SimpleChannel channel;
     private static @Nullable WeakReference<RegistryAccess> access = null;
 
     public static void init()
     {
         channel = ChannelBuilder.named(new ResourceLocation(Constants.MOD_ID, "play"))
-            .clientAcceptedVersions((status, version) -> true)
-            .serverAcceptedVersions((status, version) -> true)
-            .networkProtocolVersion(1)
+            .clientAcceptedVersions(ForgeNetwork::acceptsVersion)
+            .serverAcceptedVersions(ForgeNetwork::acceptsVersion)
+            .networkProtocolVersion(Constants.PROTOCOL_VERSION)
             .simpleChannel();
 
         channel.play(protocol -> {
             protocol.clientbound(flow -> {
-                flow.add(MessageSessionData.class, MessageSessionData.STREAM_CODEC, (message, ctx) -> {
+                flow.add(MessageSessionData.class, NetworkStats.track(MessageSessionData.TYPE.id(), MessageSessionData.STREAM_CODEC), (message, ctx) -> {
                     MessageSessionData.handle(message, ctx::enqueueWork);
                     ctx.setPacketHandled(true);
                 });
+                flow.add(MessageRequestFullSync.class, NetworkStats.track(REQUEST_FULL_SYNC, MessageRequestFullSync.STREAM_CODEC), MessageRequestFullSync::handle);
+            });
+            protocol.serverbound(flow -> {
+                flow.add(MessageSyncForgeConfigDelta.class, NetworkStats.track(SYNC_FORGE_CONFIG_DELTA, MessageSyncForgeConfigDelta.STREAM_CODEC), MessageSyncForgeConfigDelta::handle);
             });
             protocol.bidirectional(flow -> {
-                flow.add(MessageSyncForgeConfig.class, MessageSyncForgeConfig.STREAM_CODEC, MessageSyncForgeConfig::handle);
+                flow.add(MessageSyncForgeConfig.class, NetworkStats.track(SYNC_FORGE_CONFIG, MessageSyncForgeConfig.STREAM_CODEC), MessageSyncForgeConfig::handle);
+                flow.add(MessageConfigChunk.class, NetworkStats.trackChunks(MessageConfigChunk.STREAM_CODEC), ForgeNetwork::handleChunk);
             });
         });
 
@@ -57,20 +84,28 @@ public class ForgeNetwork
         {
             channel.play(protocol -> {
                 protocol.serverbound(flow -> {
-                    flow.add(MessageFramework.Sync.class, MessageFramework.Sync.STREAM_CODEC, (message, ctx) -> {
+                    flow.add(MessageFramework.Sync.class, NetworkStats.track(MessageFramework.Sync.TYPE.id(), MessageFramework.Sync.STREAM_CODEC), (message, ctx) -> {
                         MessageFramework.Sync.handle(message, ctx::enqueueWork, ctx.getSender(), ctx.getConnection()::disconnect);
                         ctx.setPacketHandled(true);
                     });
-                    flow.add(MessageFramework.Request.class, MessageFramework.Request.STREAM_CODEC, (message, ctx) -> {
+                    flow.add(MessageFramework.SyncDelta.class, NetworkStats.track(MessageFramework.SyncDelta.TYPE.id(), MessageFramework.SyncDelta.STREAM_CODEC), (message, ctx) -> {
+                        MessageFramework.SyncDelta.handle(message, ctx::enqueueWork, ctx.getSender(), ctx.getConnection()::disconnect);
+                        ctx.setPacketHandled(true);
+                    });
+                    flow.add(MessageFramework.Request.class, NetworkStats.track(MessageFramework.Request.TYPE.id(), MessageFramework.Request.STREAM_CODEC), (message, ctx) -> {
                         MessageFramework.Request.handle(message, ctx::enqueueWork, ctx.getSender(), ctx.getConnection()::disconnect);
                         ctx.setPacketHandled(true);
                     });
                 });
                 protocol.clientbound(flow -> {
-                   flow.add(MessageFramework.Response.class, MessageFramework.Response.STREAM_CODEC, (message, ctx) -> {
+                   flow.add(MessageFramework.Response.class, NetworkStats.track(MessageFramework.Response.TYPE.id(), MessageFramework.Response.STREAM_CODEC), (message, ctx) -> {
                        MessageFramework.Response.handle(message, ctx::enqueueWork, ctx.getSender(), ctx.getConnection()::disconnect);
                        ctx.setPacketHandled(true);
                    });
+                   flow.add(MessageFramework.RequestFullSync.class, NetworkStats.track(MessageFramework.RequestFullSync.TYPE.id(), MessageFramework.RequestFullSync.STREAM_CODEC), (message, ctx) -> {
+                       MessageFramework.RequestFullSync.handle(message, ctx::enqueueWork, ctx.getSender(), ctx.getConnection()::disconnect);
+                       ctx.setPacketHandled(true);
+                   });
                 });
             });
         }
@@ -83,6 +118,91 @@ public class ForgeNetwork
         });
     }
 
+    /**
+     * Configured is optional on either side, but if both sides have it then the protocol versions
+     * must match exactly, otherwise messages would be decoded with the wrong format.
+     */
+    private static boolean acceptsVersion(Channel.VersionTest.Status status, int version)
+    {
+        return status != Channel.VersionTest.Status.PRESENT || version == Constants.PROTOCOL_VERSION;
+    }
+
+    /**
+     * Sends a message to the server, in chunks if it's too large. See {@link ChunkedTransfer}.
+     */
+    public static <T> void sendToServer(ResourceLocation type, StreamCodec<? super RegistryFriendlyByteBuf, T> codec, T message)
+    {
+        ChunkedTransfer.CLIENT.send(ChunkedTransfer.SERVER_CONNECTION, ConfigHelper::isConfiguredInstalledOnServer, type, codec, message, msg -> {
+            channel.send(msg, PacketDistributor.SERVER.noArg());
+        }, chunk -> {
+            channel.send(chunk, PacketDistributor.SERVER.noArg());
+        });
+    }
+
+    /**
+     * Sends a message to a player, in chunks if it's too large. See {@link ChunkedTransfer}.
+     */
+    public static <T> void sendToPlayer(ServerPlayer player, ResourceLocation type, StreamCodec<? super RegistryFriendlyByteBuf, T> codec, T message)
+    {
+        int size = ChunkedTransfer.SERVER.send(player.getUUID(), () -> !player.hasDisconnected(), type, codec, message, msg -> {
+            channel.send(msg, PacketDistributor.PLAYER.with(player));
+        }, chunk -> {
+            channel.send(chunk, PacketDistributor.PLAYER.with(player));
+        });
+        if(size >= 0)
+        {
+            NetworkStats.recordSent(player, size);
+        }
+    }
+
+    private static void handleChunk(MessageConfigChunk message, CustomPayloadEvent.Context ctx)
+    {
+        boolean framework = ModList.get().isLoaded("framework");
+        if(ctx.isServerSide())
+        {
+            ServerPlayer player = ctx.getSender();
+            if(player != null)
+            {
+                ctx.enqueueWork(() -> {
+                    if(!ServerPlayHelper.canEditServerConfigs(player))
+                        return;
+                    byte[] data = ChunkedTransfer.SERVER.receive(player.getUUID(), message);
+                    if(data == null)
+                        return;
+                    if(message.type().equals(SYNC_FORGE_CONFIG))
+                    {
+                        ForgeServerPlayHandler.handleSyncServerConfigMessage(player, ChunkedTransfer.decode(MessageSyncForgeConfig.STREAM_CODEC, data));
+                    }
+                    else if(message.type().equals(SYNC_FORGE_CONFIG_DELTA))
+                    {
+                        ForgeServerPlayHandler.handleSyncServerConfigDeltaMessage(player, ChunkedTransfer.decode(MessageSyncForgeConfigDelta.STREAM_CODEC, data));
+                    }
+                    else if(!framework || !MessageFramework.handleChunked(message.type(), data, false, player, ctx.getConnection()::disconnect))
+                    {
+                        Constants.LOG.warn("Received chunked message of unknown type: {}", message.type());
+                    }
+                });
+            }
+        }
+        else
+        {
+            ctx.enqueueWork(() -> {
+                byte[] data = ChunkedTransfer.CLIENT.receive(ChunkedTransfer.SERVER_CONNECTION, message);
+                if(data == null)
+                    return;
+                if(message.type().equals(SYNC_FORGE_CONFIG))
+                {
+                    ForgeClientPlayHandler.handleSyncServerConfigMessage(ctx.getConnection(), ChunkedTransfer.decode(MessageSyncForgeConfig.STREAM_CODEC, data));
+                }
+                else if(!framework || !MessageFramework.handleChunked(message.type(), data, true, null, ctx.getConnection()::disconnect))
+                {
+                    Constants.LOG.warn("Received chunked message of unknown type: {}", message.type());
+                }
+            });
+        }
+        ctx.setPacketHandled(true);
+    }
+
     private static RegistryFriendlyByteBuf wrapBuf(FriendlyByteBuf buf)
     {
         return RegistryFriendlyByteBuf.decorator(getRegistryAccess()).apply(buf);
@@ -2,17 +2,24 @@ package com.mrcrayfish.configured.network.handler;
 
 import com.electronwill.nightconfig.core.CommentedConfig;
 import com.electronwill.nightconfig.core.io.ParsingException;
-import com.electronwill.nightconfig.toml.TomlFormat;
 import com.mrcrayfish.configured.Constants;
+import com.mrcrayfish.configured.api.ConfigChangedEvent;
+import com.mrcrayfish.configured.network.ConfigData;
+import com.mrcrayfish.configured.network.ConfigSchema;
+import com.mrcrayfish.configured.network.ForgeNetwork;
+import com.mrcrayfish.configured.network.message.play.MessageRequestFullSync;
 import com.mrcrayfish.configured.network.message.play.MessageSyncForgeConfig;
+import com.mrcrayfish.configured.util.ConfigHelper;
 import com.mrcrayfish.configured.util.ForgeConfigHelper;
 import net.minecraft.client.Minecraft;
 import net.minecraft.network.Connection;
 import net.minecraft.network.chat.Component;
+import net.minecraftforge.common.ForgeConfigSpec;
 import net.minecraftforge.fml.config.ModConfig;
 import net.minecraftforge.fml.event.config.ModConfigEvent;
 
-import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.Set;
 
 /**
  * Author: MrCrayfish
@@ -42,21 +49,44 @@ public class ForgeClientPlayHandler
             return;
         }
 
+        ForgeConfigSpec spec = ForgeConfigHelper.findConfigSpec(config.getSpec());
+        ConfigSchema schema = spec != null ? ForgeConfigHelper.getSchema(spec) : null;
+        if(!message.data().isCompatible(schema))
+        {
+            Constants.LOG.error("Server sent data that doesn't match the spec of the config: {}", message.fileName());
+            connection.disconnect(Component.translatable("configured.multiplayer.disconnect.process_config"));
+            return;
+        }
+
         try
         {
-            CommentedConfig data = TomlFormat.instance().createParser().parse(new ByteArrayInputStream(message.data()));
+            CommentedConfig data = message.data().read(schema);
             if(!config.getSpec().isCorrect(data))
             {
                 Constants.LOG.error("Server sent an incorrect config: {}", message.fileName());
                 connection.disconnect(Component.translatable("configured.multiplayer.disconnect.process_config"));
                 return;
             }
+            Set<List<String>> changedPaths = ConfigHelper.getChangedPaths(config.getConfigData(), data);
             config.getSpec().acceptConfig(data);
             ForgeConfigHelper.fireForgeConfigEvent(config, new ModConfigEvent.Reloading(config));
+            ConfigChangedEvent.post(config.getModId(), config.getFileName(), changedPaths);
         }
         catch(ParsingException e)
         {
             throw new RuntimeException(e);
         }
     }
+
+    public static void handleRequestFullSyncMessage(MessageRequestFullSync message)
+    {
+        ModConfig config = ForgeConfigHelper.getForgeConfig(message.fileName());
+        if(config == null || config.getType() != ModConfig.Type.SERVER || config.getConfigData() == null)
+        {
+            Constants.LOG.warn("Server requested a full sync of a config that can't be sent: {}", message.fileName());
+            return;
+        }
+        Constants.LOG.debug("Server requested full sync of config: {}", message.fileName());
+        ForgeNetwork.sendToServer(ForgeNetwork.SYNC_FORGE_CONFIG, MessageSyncForgeConfig.STREAM_CODEC, new MessageSyncForgeConfig(message.fileName(), ConfigData.copyOf(config.getConfigData())));
+    }
 }
@@ -2,21 +2,35 @@ package com.mrcrayfish.configured.network.handler;
 
 import com.electronwill.nightconfig.core.CommentedConfig;
 import com.electronwill.nightconfig.core.io.ParsingException;
-import com.electronwill.nightconfig.toml.TomlFormat;
 import com.google.common.base.Joiner;
 import com.mrcrayfish.configured.Constants;
+import com.mrcrayfish.configured.api.ConfigChangedEvent;
 import com.mrcrayfish.configured.network.ForgeNetwork;
+import com.mrcrayfish.configured.network.message.play.MessageRequestFullSync;
 import com.mrcrayfish.configured.network.message.play.MessageSyncForgeConfig;
+import com.mrcrayfish.configured.network.message.play.MessageSyncForgeConfigDelta;
+import com.mrcrayfish.configured.network.ConfigData;
+import com.mrcrayfish.configured.network.ConfigDelta;
+import com.mrcrayfish.configured.network.ConfigProcessor;
+import com.mrcrayfish.configured.network.ConfigSchema;
+import com.mrcrayfish.configured.network.NetworkStats;
+import com.mrcrayfish.configured.network.RequestLimiter;
 import com.mrcrayfish.configured.network.ServerPlayHelper;
+import com.mrcrayfish.configured.network.SyncBroadcaster;
+import com.mrcrayfish.configured.util.ConfigHelper;
 import com.mrcrayfish.configured.util.ForgeConfigHelper;
 import net.minecraft.ChatFormatting;
+import net.minecraft.Util;
 import net.minecraft.network.chat.Component;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraftforge.common.ForgeConfigSpec;
 import net.minecraftforge.fml.config.ModConfig;
 import net.minecraftforge.network.PacketDistributor;
 
-import java.io.ByteArrayInputStream;
+import org.jetbrains.annotations.Nullable;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Author: MrCrayfish
@@ -32,20 +46,12 @@ public class ForgeServerPlayHandler
 
         Constants.LOG.debug("Received server config sync from player: {}", player.getName().getString());
 
-        ModConfig config = ForgeConfigHelper.getForgeConfig(message.fileName());
+        ModConfig config = getServerConfig(player, message.fileName());
         if(config == null)
-        {
-            Constants.LOG.warn("{} tried to update a config that doesn't exist!", player.getName().getString());
-            player.connection.disconnect(Component.translatable("configured.multiplayer.disconnect.bad_config_packet"));
             return;
-        }
 
-        if(config.getType() != ModConfig.Type.SERVER)
-        {
-            Constants.LOG.warn("{} tried to update a forge config that isn't a server type", player.getName().getString());
-            player.connection.disconnect(Component.translatable("configured.multiplayer.disconnect.bad_config_packet"));
+        if(!RequestLimiter.tryAcquire(player, ForgeNetwork.SYNC_FORGE_CONFIG, "forge:" + message.fileName()))
             return;
-        }
 
         ForgeConfigSpec spec = ForgeConfigHelper.findConfigSpec(config.getSpec());
         if(spec == null)
@@ -55,9 +61,18 @@ public class ForgeServerPlayHandler
             return;
         }
 
-        try
+        // The client has a different version of the spec, so ask for the config as TOML instead
+        ConfigSchema schema = ForgeConfigHelper.getSchema(spec);
+        if(!message.data().isCompatible(schema))
         {
-            CommentedConfig data = TomlFormat.instance().createParser().parse(new ByteArrayInputStream(message.data()));
+            Constants.LOG.debug("Config data for '{}' from {} doesn't match the spec, requesting full sync", message.fileName(), player.getName().getString());
+            ForgeNetwork.getChannel().send(new MessageRequestFullSync(message.fileName()), PacketDistributor.PLAYER.with(player));
+            return;
+        }
+
+        // Reading and correcting the data is done off the server thread, only applying it is not
+        ConfigProcessor.process(player.server, NetworkStats.timed(ForgeNetwork.SYNC_FORGE_CONFIG, player, () -> {
+            CommentedConfig data = message.data().read(schema);
             int result = spec.correct(data,
                     (action, path, incorrectValue, correctedValue) ->
                             Constants.LOG.warn("Incorrect key {} was corrected from {} to its default, {}. {}", DOT_JOINER.join(path), incorrectValue, correctedValue, incorrectValue == correctedValue ? "This seems to be an error." : ""),
@@ -67,24 +82,131 @@ public class ForgeServerPlayHandler
             {
                 Constants.LOG.info("Config data sent from {} needed to be corrected", player.getName().getString());
             }
+            return data;
+        }), data -> {
+            if(config.getConfigData() == null)
+            {
+                Constants.LOG.warn("Config '{}' was unloaded before the update from {} could be applied", message.fileName(), player.getName().getString());
+                return;
+            }
+
+            Set<List<String>> changedPaths = ConfigHelper.getChangedPaths(config.getConfigData(), data);
+            ConfigHelper.createBackup(config.getConfigData());
             config.getConfigData().putAll(data);
-        }
-        catch(ParsingException e)
+            ForgeConfigHelper.clearCaches(spec, config.getConfigData(), changedPaths);
+            ConfigChangedEvent.post(config.getModId(), config.getFileName(), changedPaths);
+            Constants.LOG.debug("Successfully processed config update for '" + message.fileName() + "'");
+
+            queueBroadcast(config);
+            ServerPlayHelper.sendMessageToOperators(Component.translatable("configured.chat.config_updated", player.getName(), config.getFileName()).withStyle(ChatFormatting.GRAY, ChatFormatting.ITALIC), player);
+        }, throwable -> {
+            NetworkStats.recordRejected(ForgeNetwork.SYNC_FORGE_CONFIG, player);
+            if(throwable instanceof ParsingException)
+            {
+                Constants.LOG.warn("{} sent malformed config data to the server", player.getName().getString());
+                player.connection.disconnect(Component.translatable("configured.multiplayer.disconnect.invalid_config_packet"));
+                ServerPlayHelper.sendMessageToOperators(Component.translatable("configured.chat.malformed_config_data", player.getName(), Component.literal(config.getFileName()).withStyle(ChatFormatting.GRAY)).withStyle(ChatFormatting.RED), player);
+                return;
+            }
+            Constants.LOG.error("Failed to process config update for '{}'", message.fileName(), throwable);
+        });
+    }
+
+    public static void handleSyncServerConfigDeltaMessage(ServerPlayer player, MessageSyncForgeConfigDelta message)
+    {
+        if(!ServerPlayHelper.canEditServerConfigs(player))
+            return;
+
+        Constants.LOG.debug("Received server config delta from player: {}", player.getName().getString());
+
+        ModConfig config = getServerConfig(player, message.fileName());
+        if(config == null)
+            return;
+
+        if(!RequestLimiter.tryAcquire(player, ForgeNetwork.SYNC_FORGE_CONFIG_DELTA, "forge:" + message.fileName()))
+            return;
+
+        long start = Util.getNanos();
+
+        ForgeConfigSpec spec = ForgeConfigHelper.findConfigSpec(config.getSpec());
+        if(spec == null || config.getConfigData() == null)
         {
-            Constants.LOG.warn("{} sent malformed config data to the server", player.getName().getString());
-            player.connection.disconnect(Component.translatable("configured.multiplayer.disconnect.invalid_config_packet"));
-            ServerPlayHelper.sendMessageToOperators(Component.translatable("configured.chat.malformed_config_data", player.getName(), Component.literal(config.getFileName()).withStyle(ChatFormatting.GRAY)).withStyle(ChatFormatting.RED), player);
+            Constants.LOG.warn("Unable to process server config update due to unknown spec for config: {}", message.fileName());
+            player.connection.disconnect(Component.translatable("configured.multiplayer.disconnect.bad_config_packet"));
             return;
         }
-        catch(Exception e)
+
+        // The client edited an outdated copy of the config, so ask for the full config instead
+        CommentedConfig data = config.getConfigData();
+        if(message.delta().baseHash() != ConfigDelta.getHash(data))
         {
-            e.printStackTrace();
+            Constants.LOG.debug("Config delta for '{}' from {} is out of date, requesting full sync", message.fileName(), player.getName().getString());
+            ForgeNetwork.getChannel().send(new MessageRequestFullSync(message.fileName()), PacketDistributor.PLAYER.with(player));
             return;
         }
 
-        Constants.LOG.debug("Successfully processed config update for '" + message.fileName() + "'");
+        // Only the changed values need to be validated
+        for(Map.Entry<List<String>, Object> entry : message.delta().changes().entrySet())
+        {
+            if(!(spec.getSpec().get(entry.getKey()) instanceof ForgeConfigSpec.ValueSpec valueSpec) || !valueSpec.test(entry.getValue()))
+            {
+                NetworkStats.recordRejected(ForgeNetwork.SYNC_FORGE_CONFIG_DELTA, player);
+                Constants.LOG.warn("{} sent an invalid value for key {} in config {}", player.getName().getString(), DOT_JOINER.join(entry.getKey()), message.fileName());
+                player.connection.disconnect(Component.translatable("configured.multiplayer.disconnect.invalid_config_packet"));
+                return;
+            }
+        }
+
+        Set<List<String>> changedPaths = ConfigHelper.getChangedPaths(data, message.delta().changes());
+        ConfigHelper.createBackup(data);
+        if(!ConfigHelper.patchConfig(data, message.delta().changes()))
+        {
+            CommentedConfig newData = CommentedConfig.copy(data);
+            message.delta().apply(newData);
+            data.putAll(newData);
+        }
+        ForgeConfigHelper.clearCaches(spec, data, changedPaths);
+        ConfigChangedEvent.post(config.getModId(), config.getFileName(), changedPaths);
+
+        Constants.LOG.debug("Successfully processed config delta for '" + message.fileName() + "'");
+        NetworkStats.recordProcessed(ForgeNetwork.SYNC_FORGE_CONFIG_DELTA, player, Util.getNanos() - start);
 
-        ForgeNetwork.getChannel().send(new MessageSyncForgeConfig(message.fileName(), message.data()), PacketDistributor.ALL.noArg());
+        queueBroadcast(config);
         ServerPlayHelper.sendMessageToOperators(Component.translatable("configured.chat.config_updated", player.getName(), config.getFileName()).withStyle(ChatFormatting.GRAY, ChatFormatting.ITALIC), player);
     }
+
+    /**
+     * Queues the current data of the config to be sent to the players with Configured
+     */
+    private static void queueBroadcast(ModConfig config)
+    {
+        String fileName = config.getFileName();
+        ForgeConfigSpec spec = ForgeConfigHelper.findConfigSpec(config.getSpec());
+        SyncBroadcaster.queue("forge:" + fileName, true, () -> new MessageSyncForgeConfig(fileName, spec != null ? ConfigData.of(config.getConfigData(), ForgeConfigHelper.getSchema(spec)) : ConfigData.of(config.getConfigData())), (target, message) -> {
+            ForgeNetwork.sendToPlayer(target, ForgeNetwork.SYNC_FORGE_CONFIG, MessageSyncForgeConfig.STREAM_CODEC, message);
+        });
+    }
+
+    /**
+     * Gets the server config with the given file name, otherwise disconnects the player
+     */
+    @Nullable
+    private static ModConfig getServerConfig(ServerPlayer player, String fileName)
+    {
+        ModConfig config = ForgeConfigHelper.getForgeConfig(fileName);
+        if(config == null)
+        {
+            Constants.LOG.warn("{} tried to update a config that doesn't exist!", player.getName().getString());
+            player.connection.disconnect(Component.translatable("configured.multiplayer.disconnect.bad_config_packet"));
+            return null;
+        }
+
+        if(config.getType() != ModConfig.Type.SERVER)
+        {
+            Constants.LOG.warn("{} tried to update a forge config that isn't a server type", player.getName().getString());
+            player.connection.disconnect(Component.translatable("configured.multiplayer.disconnect.bad_config_packet"));
+            return null;
+        }
+        return config;
+    }
 }
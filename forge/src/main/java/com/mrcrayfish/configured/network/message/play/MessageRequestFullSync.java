@@ -0,0 +1,34 @@
+package com.mrcrayfish.configured.network.message.play;
+
+import com.mrcrayfish.configured.network.handler.ForgeClientPlayHandler;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraftforge.event.network.CustomPayloadEvent;
+
+/**
+ * Sent by the server if a {@link MessageSyncForgeConfigDelta} could not be applied because the
+ * config of the client was out of date. The client responds by sending the full config.
+ *
+ * Author: MrCrayfish
+ */
+public record MessageRequestFullSync(String fileName)
+{
+    public static final StreamCodec<RegistryFriendlyByteBuf, MessageRequestFullSync> STREAM_CODEC = StreamCodec.ofMember(MessageRequestFullSync::encode, MessageRequestFullSync::decode);
+
+    public static void encode(MessageRequestFullSync message, FriendlyByteBuf buffer)
+    {
+        buffer.writeUtf(message.fileName);
+    }
+
+    public static MessageRequestFullSync decode(FriendlyByteBuf buffer)
+    {
+        return new MessageRequestFullSync(buffer.readUtf());
+    }
+
+    public static void handle(MessageRequestFullSync message, CustomPayloadEvent.Context ctx)
+    {
+        ctx.enqueueWork(() -> ForgeClientPlayHandler.handleRequestFullSyncMessage(message));
+        ctx.setPacketHandled(true);
+    }
+}
@@ -1,5 +1,7 @@
 package com.mrcrayfish.configured.network.message.play;
 
+import com.mrcrayfish.configured.network.ConfigData;
+import com.mrcrayfish.configured.network.ConfiguredCodecs;
 import com.mrcrayfish.configured.network.handler.ForgeClientPlayHandler;
 import com.mrcrayfish.configured.network.handler.ForgeServerPlayHandler;
 import net.minecraft.network.FriendlyByteBuf;
@@ -12,19 +14,19 @@ import net.minecraftforge.network.NetworkDirection;
 /**
  * Author: MrCrayfish
  */
-public record MessageSyncForgeConfig(String fileName, byte[] data)
+public record MessageSyncForgeConfig(String fileName, ConfigData data)
 {
     public static final StreamCodec<RegistryFriendlyByteBuf, MessageSyncForgeConfig> STREAM_CODEC = StreamCodec.ofMember(MessageSyncForgeConfig::encode, MessageSyncForgeConfig::decode);
 
     public static void encode(MessageSyncForgeConfig message, FriendlyByteBuf buffer)
     {
         buffer.writeUtf(message.fileName);
-        buffer.writeByteArray(message.data);
+        ConfiguredCodecs.CONFIG_DATA.encode(buffer, message.data);
     }
 
     public static MessageSyncForgeConfig decode(FriendlyByteBuf buffer)
     {
-        return new MessageSyncForgeConfig(buffer.readUtf(), buffer.readByteArray());
+        return new MessageSyncForgeConfig(buffer.readUtf(), ConfiguredCodecs.CONFIG_DATA.decode(buffer));
     }
 
     public static void handle(MessageSyncForgeConfig message, CustomPayloadEvent.Context ctx)
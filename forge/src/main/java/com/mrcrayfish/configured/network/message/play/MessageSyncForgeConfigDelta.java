@@ -0,0 +1,38 @@
+package com.mrcrayfish.configured.network.message.play;
+
+import com.mrcrayfish.configured.network.ConfigDelta;
+import com.mrcrayfish.configured.network.handler.ForgeServerPlayHandler;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraftforge.event.network.CustomPayloadEvent;
+
+/**
+ * Author: MrCrayfish
+ */
+public record MessageSyncForgeConfigDelta(String fileName, ConfigDelta delta)
+{
+    public static final StreamCodec<RegistryFriendlyByteBuf, MessageSyncForgeConfigDelta> STREAM_CODEC = StreamCodec.ofMember(MessageSyncForgeConfigDelta::encode, MessageSyncForgeConfigDelta::decode);
+
+    public static void encode(MessageSyncForgeConfigDelta message, FriendlyByteBuf buffer)
+    {
+        buffer.writeUtf(message.fileName);
+        ConfigDelta.STREAM_CODEC.encode(buffer, message.delta);
+    }
+
+    public static MessageSyncForgeConfigDelta decode(FriendlyByteBuf buffer)
+    {
+        return new MessageSyncForgeConfigDelta(buffer.readUtf(), ConfigDelta.STREAM_CODEC.decode(buffer));
+    }
+
+    public static void handle(MessageSyncForgeConfigDelta message, CustomPayloadEvent.Context ctx)
+    {
+        ServerPlayer player = ctx.getSender();
+        if(player != null)
+        {
+            ctx.enqueueWork(() -> ForgeServerPlayHandler.handleSyncServerConfigDeltaMessage(player, message));
+        }
+        ctx.setPacketHandled(true);
+    }
+}
@@ -3,6 +3,9 @@ package com.mrcrayfish.configured.platform;
 import com.mrcrayfish.configured.Config;
 import com.mrcrayfish.configured.api.Environment;
 import com.mrcrayfish.configured.impl.framework.message.MessageFramework;
+import com.mrcrayfish.configured.network.ConfigData;
+import com.mrcrayfish.configured.network.ConfigDelta;
+import com.mrcrayfish.configured.network.ConfigManifest;
 import com.mrcrayfish.configured.network.ForgeNetwork;
 import com.mrcrayfish.configured.network.message.MessageSessionData;
 import com.mrcrayfish.configured.platform.services.IPlatformHelper;
@@ -15,6 +18,7 @@ import net.minecraftforge.fml.loading.FMLLoader;
 import net.minecraftforge.fml.loading.FMLPaths;
 import net.minecraftforge.network.PacketDistributor;
 
+import org.jetbrains.annotations.Nullable;
 import java.nio.file.Path;
 
 public class ForgePlatformHelper implements IPlatformHelper
@@ -66,31 +70,53 @@ public class ForgePlatformHelper implements IPlatformHelper
     {
         boolean developer = FMLLoader.getDist().isDedicatedServer() && Config.isDeveloperEnabled() && Config.getDevelopers().contains(player.getStringUUID());
         boolean lan = player.getServer() != null && !player.getServer().isDedicatedServer();
-        ForgeNetwork.getChannel().send(new MessageSessionData(developer, lan), PacketDistributor.PLAYER.with(player));
+        ForgeNetwork.getChannel().send(new MessageSessionData(developer, lan, ConfigManifest.get(developer)), PacketDistributor.PLAYER.with(player));
     }
 
     @Override
-    public void sendFrameworkConfigToServer(ResourceLocation id, byte[] data)
+    public boolean hasConfigured(ServerPlayer player)
+    {
+        return ForgeNetwork.getChannel().isRemotePresent(player.connection.getConnection());
+    }
+
+    @Override
+    public void sendFrameworkConfigToServer(ResourceLocation id, ConfigData data)
+    {
+        if(!this.isModLoaded("framework"))
+            return;
+        ForgeNetwork.sendToServer(MessageFramework.Sync.TYPE.id(), MessageFramework.Sync.STREAM_CODEC, new MessageFramework.Sync(id, data));
+    }
+
+    @Override
+    public void sendFrameworkConfigDeltaToServer(ResourceLocation id, ConfigDelta delta)
+    {
+        if(!this.isModLoaded("framework"))
+            return;
+        ForgeNetwork.sendToServer(MessageFramework.SyncDelta.TYPE.id(), MessageFramework.SyncDelta.STREAM_CODEC, new MessageFramework.SyncDelta(id, delta));
+    }
+
+    @Override
+    public void sendFrameworkConfigRequest(ResourceLocation id, long cachedHash)
     {
         if(!this.isModLoaded("framework"))
             return;
-        ForgeNetwork.getChannel().send(new MessageFramework.Sync(id, data), PacketDistributor.SERVER.noArg());
+        ForgeNetwork.getChannel().send(new MessageFramework.Request(id, cachedHash), PacketDistributor.SERVER.noArg());
     }
 
     @Override
-    public void sendFrameworkConfigRequest(ResourceLocation id)
+    public void sendFrameworkConfigResponse(ServerPlayer player, long hash, @Nullable ConfigData data)
     {
         if(!this.isModLoaded("framework"))
             return;
-        ForgeNetwork.getChannel().send(new MessageFramework.Request(id), PacketDistributor.SERVER.noArg());
+        ForgeNetwork.sendToPlayer(player, MessageFramework.Response.TYPE.id(), MessageFramework.Response.STREAM_CODEC, new MessageFramework.Response(hash, data));
     }
 
     @Override
-    public void sendFrameworkConfigResponse(ServerPlayer player, byte[] data)
+    public void sendFrameworkFullSyncRequest(ServerPlayer player, ResourceLocation id)
     {
         if(!this.isModLoaded("framework"))
             return;
-        ForgeNetwork.getChannel().send(new MessageFramework.Response(data), PacketDistributor.PLAYER.with(player));
+        ForgeNetwork.getChannel().send(new MessageFramework.RequestFullSync(id), PacketDistributor.PLAYER.with(player));
     }
 
     @Override
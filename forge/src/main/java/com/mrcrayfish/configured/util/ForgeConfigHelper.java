@@ -6,6 +6,8 @@ import com.electronwill.nightconfig.core.UnmodifiableConfig;
 import com.electronwill.nightconfig.core.file.FileConfig;
 import com.electronwill.nightconfig.core.utils.UnmodifiableConfigWrapper;
 import com.google.common.collect.ImmutableList;
+import com.mrcrayfish.configured.network.ConfigDelta;
+import com.mrcrayfish.configured.network.ConfigSchema;
 import net.minecraftforge.common.ForgeConfigSpec;
 import net.minecraftforge.fml.config.ConfigTracker;
 import net.minecraftforge.fml.config.IConfigEvent;
@@ -20,7 +22,9 @@ import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -103,6 +107,32 @@ public class ForgeConfigHelper
         return gatherAllForgeConfigValues(((ForgeConfigSpec) config.getSpec()).getValues(), (ForgeConfigSpec) config.getSpec());
     }
 
+    /**
+     * Gets the schema of the values of the given spec, which is used to send the data of the config
+     * in binary form.
+     */
+    public static ConfigSchema getSchema(ForgeConfigSpec spec)
+    {
+        return ConfigSchema.of(spec, () -> gatherAllForgeConfigValues(spec.getValues(), spec).stream().collect(HashMap<List<String>, Object>::new, (map, pair) -> map.put(pair.getLeft().getPath(), pair.getRight().getDefault()), HashMap::putAll));
+    }
+
+    /**
+     * Clears the cached values of only the config values at the given paths, along with the cached
+     * hash of the data. Used after applying changes instead of clearing the cache of every value in
+     * the config.
+     */
+    public static void clearCaches(ForgeConfigSpec spec, UnmodifiableConfig data, Set<List<String>> paths)
+    {
+        ConfigDelta.invalidateHash(data);
+        for(List<String> path : paths)
+        {
+            if(spec.getValues().get(path) instanceof ForgeConfigSpec.ConfigValue<?> value)
+            {
+                value.clearCache();
+            }
+        }
+    }
+
     /**
      * A helper method to fire config event. Since Forge has hidden these calls (which is fine), the
      * only way to call them is to call them is by using reflection.
@@ -32,6 +32,11 @@ public class ConfigTest
     public ConfigTest()
     {
         ModLoadingContext.get().registerConfig(ModConfig.Type.CLIENT, testSpec, "configured_test_config.toml");
+        if(LargeConfigTest.SHAPE.values() > 0)
+        {
+            ModLoadingContext.get().registerConfig(ModConfig.Type.CLIENT, LargeConfigTest.createSpec(), "configured_test_large_client.toml");
+            ModLoadingContext.get().registerConfig(ModConfig.Type.SERVER, LargeConfigTest.createSpec(), "configured_test_large_server.toml");
+        }
     }
 
     public static class Test
@@ -12,7 +12,9 @@ import net.neoforged.fml.event.lifecycle.FMLCommonSetupEvent;
 import net.neoforged.fml.event.lifecycle.FMLLoadCompleteEvent;
 import net.neoforged.fml.loading.FMLLoader;
 import net.neoforged.neoforge.common.NeoForge;
+import net.neoforged.neoforge.event.RegisterCommandsEvent;
 import net.neoforged.neoforge.event.entity.player.PlayerEvent;
+import net.neoforged.neoforge.event.tick.ServerTickEvent;
 
 /**
  * Author: MrCrayfish
@@ -26,6 +28,9 @@ public class Configured
         bus.addListener(this::onLoadComplete);
         //ModLoadingContext.get().registerExtensionPoint(IExtensionPoint.DisplayTest.class, () -> new IExtensionPoint.DisplayTest(() -> IExtensionPoint.DisplayTest.IGNORESERVERONLY, (a, b) -> true));
         NeoForge.EVENT_BUS.addListener(this::onPlayerLoggedIn);
+        NeoForge.EVENT_BUS.addListener(this::onPlayerLoggedOut);
+        NeoForge.EVENT_BUS.addListener(this::onServerTick);
+        NeoForge.EVENT_BUS.addListener(this::onRegisterCommands);
     }
 
     private void onCommonSetup(FMLCommonSetupEvent event)
@@ -52,4 +57,22 @@ public class Configured
             Events.onPlayerLoggedIn(player);
         }
     }
+
+    public void onPlayerLoggedOut(PlayerEvent.PlayerLoggedOutEvent event)
+    {
+        if(event.getEntity() instanceof ServerPlayer player)
+        {
+            Events.onPlayerLoggedOut(player);
+        }
+    }
+
+    public void onServerTick(ServerTickEvent.Post event)
+    {
+        Events.onServerTickEnd(event.getServer());
+    }
+
+    public void onRegisterCommands(RegisterCommandsEvent event)
+    {
+        Events.onRegisterCommands(event.getDispatcher());
+    }
 }
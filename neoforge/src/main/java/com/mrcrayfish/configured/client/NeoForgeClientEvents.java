@@ -11,6 +11,8 @@ import net.neoforged.bus.api.EventPriority;
 import net.neoforged.bus.api.SubscribeEvent;
 import net.neoforged.fml.common.EventBusSubscriber;
 import net.neoforged.fml.common.Mod;
+import net.neoforged.neoforge.client.event.ClientPlayerNetworkEvent;
+import net.neoforged.neoforge.client.event.ClientTickEvent;
 import net.neoforged.neoforge.client.event.InputEvent;
 import net.neoforged.neoforge.client.event.RenderTooltipEvent;
 import net.neoforged.neoforge.client.event.ScreenEvent;
@@ -36,6 +38,18 @@ public class NeoForgeClientEvents
         }
     }
 
+    @SubscribeEvent
+    private static void onClientTick(ClientTickEvent.Post event)
+    {
+        ClientHandler.onClientTickEnd();
+    }
+
+    @SubscribeEvent
+    private static void onClientLoggingOut(ClientPlayerNetworkEvent.LoggingOut event)
+    {
+        ClientHandler.onClientDisconnect();
+    }
+
     @SubscribeEvent
     private static void onGatherTooltipComponents(RenderTooltipEvent.GatherComponents event)
     {
@@ -2,13 +2,17 @@ package com.mrcrayfish.configured.impl.neoforge;
 
 import com.electronwill.nightconfig.core.CommentedConfig;
 import com.electronwill.nightconfig.core.file.CommentedFileConfig;
-import com.electronwill.nightconfig.toml.TomlFormat;
 import com.mrcrayfish.configured.Constants;
+import com.mrcrayfish.configured.api.ConfigChangedEvent;
 import com.mrcrayfish.configured.api.ConfigType;
 import com.mrcrayfish.configured.api.IConfigEntry;
 import com.mrcrayfish.configured.api.IConfigValue;
 import com.mrcrayfish.configured.api.IModConfig;
 import com.mrcrayfish.configured.client.SessionData;
+import com.mrcrayfish.configured.network.ConfigData;
+import com.mrcrayfish.configured.network.ConfigDelta;
+import com.mrcrayfish.configured.network.NeoForgeNetwork;
+import com.mrcrayfish.configured.network.payload.SyncNeoForgeConfigDeltaPayload;
 import com.mrcrayfish.configured.network.payload.SyncNeoForgeConfigPayload;
 import com.mrcrayfish.configured.util.ConfigHelper;
 import com.mrcrayfish.configured.util.NeoForgeConfigHelper;
@@ -18,16 +22,17 @@ import net.neoforged.fml.config.ConfigFileTypeHandler;
 import net.neoforged.fml.config.IConfigEvent;
 import net.neoforged.fml.config.ModConfig;
 import net.neoforged.neoforge.common.ModConfigSpec;
-import net.neoforged.neoforge.network.PacketDistributor;
 
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
+import org.jetbrains.annotations.Nullable;
 import java.nio.file.Path;
 import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 public class NeoForgeConfig implements IModConfig
 {
@@ -56,9 +61,10 @@ public class NeoForgeConfig implements IModConfig
     public void update(IConfigEntry entry)
     {
         Set<IConfigValue<?>> changedValues = ConfigHelper.getChangedValues(entry);
+        Map<List<String>, Object> changes = new HashMap<>();
+        long baseHash = 0;
         if(!changedValues.isEmpty())
         {
-            CommentedConfig newConfig = CommentedConfig.copy(this.config.getConfigData());
             changedValues.forEach(value ->
             {
                 if(value instanceof NeoForgeValue<?> forge)
@@ -68,14 +74,32 @@ public class NeoForgeConfig implements IModConfig
                         List<?> converted = forgeList.getConverted();
                         if(converted != null)
                         {
-                            newConfig.set(forge.configValue.getPath(), converted);
+                            changes.put(forge.configValue.getPath(), converted);
                             return;
                         }
                     }
-                    newConfig.set(forge.configValue.getPath(), value.get());
+                    changes.put(forge.configValue.getPath(), value.get());
                 }
             });
-            this.config.getConfigData().putAll(newConfig);
+
+            // The hash of the config before the changes, so the server can check it has the same values
+            if(this.getType() == ConfigType.WORLD_SYNC && ConfigHelper.isPlayingGame())
+            {
+                baseHash = ConfigDelta.hash(this.config.getConfigData());
+            }
+
+            ConfigHelper.createBackup(this.config.getConfigData());
+
+            // Only rewrite the changed values in the file if possible, otherwise do a full write
+            if(!ConfigHelper.patchConfig(this.config.getConfigData(), changes))
+            {
+                CommentedConfig newConfig = CommentedConfig.copy(this.config.getConfigData());
+                changes.forEach(newConfig::set);
+                this.config.getConfigData().putAll(newConfig);
+            }
+
+            // Only the changed values need their cached value to be cleared
+            changedValues.forEach(IConfigValue::cleanCache);
         }
 
         if(this.getType() == ConfigType.WORLD_SYNC)
@@ -87,15 +111,17 @@ public class NeoForgeConfig implements IModConfig
             }
             else
             {
-                this.syncToServer();
+                this.syncToServer(changes, baseHash);
             }
 
         }
         else if(!changedValues.isEmpty())
         {
-            Constants.LOG.info("Sending config reloading event for {}", this.config.getFileName());
-            this.config.getSpec().afterReload();
-            IConfigEvent.reloading(this.config).post();
+            ConfigHelper.dispatchReload(this, () -> {
+                Constants.LOG.info("Sending config reloading event for {}", this.config.getFileName());
+                IConfigEvent.reloading(this.config).post();
+                ConfigChangedEvent.post(this.getModId(), this.getFileName(), changes.keySet());
+            });
         }
     }
 
@@ -145,6 +171,13 @@ public class NeoForgeConfig implements IModConfig
         }
     }
 
+    @Override
+    @Nullable
+    public Path getFilePath()
+    {
+        return ConfigHelper.getFilePath(this.config.getConfigData());
+    }
+
     @Override
     public boolean isChanged()
     {
@@ -165,16 +198,26 @@ public class NeoForgeConfig implements IModConfig
         if(ConfigHelper.isWorldConfig(this) && this.config.getConfigData() == null)
             return;
 
+        // Only the values that aren't already their default need to be restored
+        List<ForgeValueEntry> changed = this.allConfigValues.stream().filter(entry -> {
+            return !Objects.equals(entry.value.get(), entry.spec.getDefault());
+        }).toList();
+        if(changed.isEmpty())
+            return;
+
+        ConfigHelper.createBackup(this.config.getConfigData());
+
         // Creates a copy of the config data then pushes all at once to avoid multiple IO ops
         CommentedConfig newConfig = CommentedConfig.copy(this.config.getConfigData());
-        this.allConfigValues.forEach(entry -> newConfig.set(entry.value.getPath(), entry.spec.getDefault()));
+        changed.forEach(entry -> newConfig.set(entry.value.getPath(), entry.spec.getDefault()));
         this.config.getConfigData().putAll(newConfig);
 
-        // Finally clear cache of all config values
-        this.allConfigValues.forEach(pair -> pair.value.clearCache());
+        // Finally clear cache of the restored config values
+        changed.forEach(entry -> entry.value.clearCache());
+        ConfigChangedEvent.post(this.getModId(), this.getFileName(), changed.stream().map(entry -> entry.value.getPath()).collect(Collectors.toSet()));
     }
 
-    private void syncToServer()
+    private void syncToServer(Map<List<String>, Object> changes, long baseHash)
     {
         if(this.config == null)
             return;
@@ -193,17 +236,18 @@ public class NeoForgeConfig implements IModConfig
         if(!ConfigHelper.isOperator(player) || !SessionData.isDeveloper(player))
             return;
 
-        try
-        {
-            ByteArrayOutputStream stream = new ByteArrayOutputStream();
-            TomlFormat.instance().createWriter().write(this.config.getConfigData(), stream);
-            PacketDistributor.sendToServer(new SyncNeoForgeConfigPayload(this.config.getFileName(), stream.toByteArray()));
-            stream.close();
-        }
-        catch(IOException e)
+        if(changes.isEmpty())
+            return;
+
+        // Only send the changed values if possible. The server asks for the full config if its
+        // values are different to the ones the changes were made against.
+        ConfigDelta delta = ConfigDelta.create(baseHash, changes);
+        if(delta != null)
         {
-            Constants.LOG.error("Failed to close byte stream when sending config to server");
+            NeoForgeNetwork.sendToServer(new SyncNeoForgeConfigDeltaPayload(this.config.getFileName(), delta), SyncNeoForgeConfigDeltaPayload.STREAM_CODEC);
+            return;
         }
+        NeoForgeNetwork.sendToServer(new SyncNeoForgeConfigPayload(this.config.getFileName(), ConfigData.of(this.config.getConfigData(), NeoForgeConfigHelper.getSchema((ModConfigSpec) this.config.getSpec()))), SyncNeoForgeConfigPayload.STREAM_CODEC);
     }
 
     protected List<ForgeValueEntry> getAllConfigValues(ModConfig config)
@@ -121,6 +121,12 @@ public class NeoForgeValue<T> implements IConfigValue<T>
         return lastValue(this.configValue.getPath(), "");
     }
 
+    @Override
+    public List<String> getPath()
+    {
+        return this.configValue.getPath();
+    }
+
     @Override
     public void cleanCache()
     {
@@ -2,14 +2,27 @@ package com.mrcrayfish.configured.network;
 
 import com.mrcrayfish.configured.Constants;
 import com.mrcrayfish.configured.impl.framework.message.MessageFramework;
+import com.mrcrayfish.configured.network.handler.NeoForgeClientPlayHandler;
+import com.mrcrayfish.configured.network.handler.NeoForgeServerPlayHandler;
+import com.mrcrayfish.configured.network.message.MessageConfigChunk;
 import com.mrcrayfish.configured.network.message.MessageSessionData;
+import com.mrcrayfish.configured.network.payload.RequestFullSyncPayload;
+import com.mrcrayfish.configured.network.payload.SyncNeoForgeConfigDeltaPayload;
 import com.mrcrayfish.configured.network.payload.SyncNeoForgeConfigPayload;
+import com.mrcrayfish.configured.util.ConfigHelper;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.PacketFlow;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerPlayer;
 import net.neoforged.bus.api.SubscribeEvent;
 import net.neoforged.fml.ModList;
 import net.neoforged.fml.common.EventBusSubscriber;
 import net.neoforged.fml.common.Mod;
+import net.neoforged.neoforge.network.PacketDistributor;
 import net.neoforged.neoforge.network.event.RegisterPayloadHandlersEvent;
+import net.neoforged.neoforge.network.handling.IPayloadContext;
 import net.neoforged.neoforge.network.registration.PayloadRegistrar;
 
 /**
@@ -19,28 +32,109 @@ import net.neoforged.neoforge.network.registration.PayloadRegistrar;
 public class NeoForgeNetwork
 {
     public static final ResourceLocation ID = new ResourceLocation(Constants.MOD_ID, "play");
-    public static final int VERSION = 1;
-
     @SubscribeEvent
     private static void onRegisterPayloadHandler(RegisterPayloadHandlersEvent event)
     {
-        final PayloadRegistrar registrar = event.registrar(Constants.MOD_ID).optional().versioned(Integer.toString(VERSION));
-        registrar.playToClient(MessageSessionData.TYPE, MessageSessionData.STREAM_CODEC, (payload, context) -> {
+        final PayloadRegistrar registrar = event.registrar(Constants.MOD_ID).optional().versioned(Integer.toString(Constants.PROTOCOL_VERSION));
+        registrar.playToClient(MessageSessionData.TYPE, NetworkStats.track(MessageSessionData.TYPE.id(), MessageSessionData.STREAM_CODEC), (payload, context) -> {
             MessageSessionData.handle(payload, context::enqueueWork);
         });
-        registrar.playToClient(SyncNeoForgeConfigPayload.TYPE, SyncNeoForgeConfigPayload.STREAM_CODEC, SyncNeoForgeConfigPayload::handle);
+        registrar.playBidirectional(SyncNeoForgeConfigPayload.TYPE, NetworkStats.track(SyncNeoForgeConfigPayload.TYPE.id(), SyncNeoForgeConfigPayload.STREAM_CODEC), SyncNeoForgeConfigPayload::handle);
+        registrar.playToServer(SyncNeoForgeConfigDeltaPayload.TYPE, NetworkStats.track(SyncNeoForgeConfigDeltaPayload.TYPE.id(), SyncNeoForgeConfigDeltaPayload.STREAM_CODEC), SyncNeoForgeConfigDeltaPayload::handle);
+        registrar.playToClient(RequestFullSyncPayload.TYPE, NetworkStats.track(RequestFullSyncPayload.TYPE.id(), RequestFullSyncPayload.STREAM_CODEC), RequestFullSyncPayload::handle);
+        registrar.playBidirectional(MessageConfigChunk.TYPE, NetworkStats.trackChunks(MessageConfigChunk.STREAM_CODEC), NeoForgeNetwork::handleChunk);
 
         if(ModList.get().isLoaded("framework"))
         {
-            registrar.playToServer(MessageFramework.Sync.TYPE, MessageFramework.Sync.STREAM_CODEC, (payload, context) -> {
+            registrar.playToServer(MessageFramework.Sync.TYPE, NetworkStats.track(MessageFramework.Sync.TYPE.id(), MessageFramework.Sync.STREAM_CODEC), (payload, context) -> {
                 MessageFramework.Sync.handle(payload, context::enqueueWork, context.player(), context::disconnect);
             });
-            registrar.playToServer(MessageFramework.Request.TYPE, MessageFramework.Request.STREAM_CODEC, (payload, context) -> {
+            registrar.playToServer(MessageFramework.SyncDelta.TYPE, NetworkStats.track(MessageFramework.SyncDelta.TYPE.id(), MessageFramework.SyncDelta.STREAM_CODEC), (payload, context) -> {
+                MessageFramework.SyncDelta.handle(payload, context::enqueueWork, context.player(), context::disconnect);
+            });
+            registrar.playToClient(MessageFramework.RequestFullSync.TYPE, NetworkStats.track(MessageFramework.RequestFullSync.TYPE.id(), MessageFramework.RequestFullSync.STREAM_CODEC), (payload, context) -> {
+                MessageFramework.RequestFullSync.handle(payload, context::enqueueWork, context.player(), context::disconnect);
+            });
+            registrar.playToServer(MessageFramework.Request.TYPE, NetworkStats.track(MessageFramework.Request.TYPE.id(), MessageFramework.Request.STREAM_CODEC), (payload, context) -> {
                 MessageFramework.Request.handle(payload, context::enqueueWork, context.player(), context::disconnect);
             });
-            registrar.playToClient(MessageFramework.Response.TYPE, MessageFramework.Response.STREAM_CODEC, (payload, context) -> {
+            registrar.playToClient(MessageFramework.Response.TYPE, NetworkStats.track(MessageFramework.Response.TYPE.id(), MessageFramework.Response.STREAM_CODEC), (payload, context) -> {
                 MessageFramework.Response.handle(payload, context::enqueueWork, context.player(), context::disconnect);
             });
         }
     }
+    /**
+     * Sends a payload to the server, in chunks if it's too large. See {@link ChunkedTransfer}.
+     */
+    public static <T extends CustomPacketPayload> void sendToServer(T payload, StreamCodec<? super RegistryFriendlyByteBuf, T> codec)
+    {
+        ChunkedTransfer.CLIENT.send(ChunkedTransfer.SERVER_CONNECTION, ConfigHelper::isConfiguredInstalledOnServer, payload.type().id(), codec, payload, message -> {
+            PacketDistributor.sendToServer(message);
+        }, chunk -> {
+            PacketDistributor.sendToServer(chunk);
+        });
+    }
+
+    /**
+     * Sends a payload to a player, in chunks if it's too large. See {@link ChunkedTransfer}.
+     */
+    public static <T extends CustomPacketPayload> void sendToPlayer(ServerPlayer player, T payload, StreamCodec<? super RegistryFriendlyByteBuf, T> codec)
+    {
+        int size = ChunkedTransfer.SERVER.send(player.getUUID(), () -> !player.hasDisconnected(), payload.type().id(), codec, payload, message -> {
+            PacketDistributor.sendToPlayer(player, message);
+        }, chunk -> {
+            PacketDistributor.sendToPlayer(player, chunk);
+        });
+        if(size >= 0)
+        {
+            NetworkStats.recordSent(player, size);
+        }
+    }
+
+    private static void handleChunk(MessageConfigChunk payload, IPayloadContext context)
+    {
+        boolean framework = ModList.get().isLoaded("framework");
+        ResourceLocation type = payload.type();
+        if(context.flow() == PacketFlow.SERVERBOUND)
+        {
+            if(context.player() instanceof ServerPlayer player)
+            {
+                context.enqueueWork(() -> {
+                    if(!ServerPlayHelper.canEditServerConfigs(player))
+                        return;
+                    byte[] data = ChunkedTransfer.SERVER.receive(player.getUUID(), payload);
+                    if(data == null)
+                        return;
+                    if(type.equals(SyncNeoForgeConfigPayload.TYPE.id()))
+                    {
+                        NeoForgeServerPlayHandler.handleSyncServerConfigMessage(player, ChunkedTransfer.decode(SyncNeoForgeConfigPayload.STREAM_CODEC, data));
+                    }
+                    else if(type.equals(SyncNeoForgeConfigDeltaPayload.TYPE.id()))
+                    {
+                        NeoForgeServerPlayHandler.handleSyncServerConfigDeltaMessage(player, ChunkedTransfer.decode(SyncNeoForgeConfigDeltaPayload.STREAM_CODEC, data));
+                    }
+                    else if(!framework || !MessageFramework.handleChunked(type, data, false, player, context::disconnect))
+                    {
+                        Constants.LOG.warn("Received chunked payload of unknown type: {}", type);
+                    }
+                });
+            }
+        }
+        else
+        {
+            context.enqueueWork(() -> {
+                byte[] data = ChunkedTransfer.CLIENT.receive(ChunkedTransfer.SERVER_CONNECTION, payload);
+                if(data == null)
+                    return;
+                if(type.equals(SyncNeoForgeConfigPayload.TYPE.id()))
+                {
+                    NeoForgeClientPlayHandler.handleSyncServerConfigMessage(context::disconnect, ChunkedTransfer.decode(SyncNeoForgeConfigPayload.STREAM_CODEC, data));
+                }
+                else if(!framework || !MessageFramework.handleChunked(type, data, true, context.player(), context::disconnect))
+                {
+                    Constants.LOG.warn("Received chunked payload of unknown type: {}", type);
+                }
+            });
+        }
+    }
 }
@@ -2,16 +2,23 @@ package com.mrcrayfish.configured.network.handler;
 
 import com.electronwill.nightconfig.core.CommentedConfig;
 import com.electronwill.nightconfig.core.io.ParsingException;
-import com.electronwill.nightconfig.toml.TomlFormat;
 import com.mrcrayfish.configured.Constants;
+import com.mrcrayfish.configured.api.ConfigChangedEvent;
+import com.mrcrayfish.configured.network.ConfigData;
+import com.mrcrayfish.configured.network.ConfigSchema;
+import com.mrcrayfish.configured.network.NeoForgeNetwork;
+import com.mrcrayfish.configured.network.payload.RequestFullSyncPayload;
 import com.mrcrayfish.configured.network.payload.SyncNeoForgeConfigPayload;
+import com.mrcrayfish.configured.util.ConfigHelper;
 import com.mrcrayfish.configured.util.NeoForgeConfigHelper;
 import net.minecraft.client.Minecraft;
 import net.minecraft.network.chat.Component;
 import net.neoforged.fml.config.IConfigEvent;
 import net.neoforged.fml.config.ModConfig;
+import net.neoforged.neoforge.common.ModConfigSpec;
 
-import java.io.ByteArrayInputStream;
+import java.util.List;
+import java.util.Set;
 import java.util.function.Consumer;
 
 /**
@@ -42,21 +49,43 @@ public class NeoForgeClientPlayHandler
             return;
         }
 
+        ConfigSchema schema = config.getSpec() instanceof ModConfigSpec spec ? NeoForgeConfigHelper.getSchema(spec) : null;
+        if(!payload.data().isCompatible(schema))
+        {
+            Constants.LOG.error("Server sent data that doesn't match the spec of the config: {}", payload.fileName());
+            disconnect.accept(Component.translatable("configured.multiplayer.disconnect.process_config"));
+            return;
+        }
+
         try
         {
-            CommentedConfig data = TomlFormat.instance().createParser().parse(new ByteArrayInputStream(payload.data()));
+            CommentedConfig data = payload.data().read(schema);
             if(!config.getSpec().isCorrect(data))
             {
                 Constants.LOG.error("Server sent an incorrect config: {}", payload.fileName());
                 disconnect.accept(Component.translatable("configured.multiplayer.disconnect.process_config"));
                 return;
             }
+            Set<List<String>> changedPaths = ConfigHelper.getChangedPaths(config.getConfigData(), data);
             config.getSpec().acceptConfig(data);
             IConfigEvent.reloading(config).post();
+            ConfigChangedEvent.post(config.getModId(), config.getFileName(), changedPaths);
         }
         catch(ParsingException e)
         {
             throw new RuntimeException(e);
         }
     }
+
+    public static void handleRequestFullSyncMessage(RequestFullSyncPayload payload)
+    {
+        ModConfig config = NeoForgeConfigHelper.getModConfig(payload.fileName());
+        if(config == null || config.getType() != ModConfig.Type.SERVER || config.getConfigData() == null)
+        {
+            Constants.LOG.warn("Server requested a full sync of a config that can't be sent: {}", payload.fileName());
+            return;
+        }
+        Constants.LOG.debug("Server requested full sync of config: {}", payload.fileName());
+        NeoForgeNetwork.sendToServer(new SyncNeoForgeConfigPayload(payload.fileName(), ConfigData.copyOf(config.getConfigData())), SyncNeoForgeConfigPayload.STREAM_CODEC);
+    }
 }
@@ -2,20 +2,35 @@ package com.mrcrayfish.configured.network.handler;
 
 import com.electronwill.nightconfig.core.CommentedConfig;
 import com.electronwill.nightconfig.core.io.ParsingException;
-import com.electronwill.nightconfig.toml.TomlFormat;
 import com.google.common.base.Joiner;
 import com.mrcrayfish.configured.Constants;
+import com.mrcrayfish.configured.api.ConfigChangedEvent;
+import com.mrcrayfish.configured.network.ConfigData;
+import com.mrcrayfish.configured.network.ConfigDelta;
+import com.mrcrayfish.configured.network.ConfigProcessor;
+import com.mrcrayfish.configured.network.ConfigSchema;
+import com.mrcrayfish.configured.network.NetworkStats;
+import com.mrcrayfish.configured.network.RequestLimiter;
+import com.mrcrayfish.configured.network.NeoForgeNetwork;
 import com.mrcrayfish.configured.network.ServerPlayHelper;
+import com.mrcrayfish.configured.network.SyncBroadcaster;
+import com.mrcrayfish.configured.util.ConfigHelper;
+import com.mrcrayfish.configured.network.payload.RequestFullSyncPayload;
+import com.mrcrayfish.configured.network.payload.SyncNeoForgeConfigDeltaPayload;
 import com.mrcrayfish.configured.network.payload.SyncNeoForgeConfigPayload;
 import com.mrcrayfish.configured.util.NeoForgeConfigHelper;
 import net.minecraft.ChatFormatting;
+import net.minecraft.Util;
 import net.minecraft.network.chat.Component;
 import net.minecraft.server.level.ServerPlayer;
 import net.neoforged.fml.config.ModConfig;
 import net.neoforged.neoforge.common.ModConfigSpec;
 import net.neoforged.neoforge.network.PacketDistributor;
 
-import java.io.ByteArrayInputStream;
+import org.jetbrains.annotations.Nullable;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Author: MrCrayfish
@@ -31,32 +46,33 @@ public class NeoForgeServerPlayHandler
 
         Constants.LOG.debug("Received server config sync from player: {}", player.getName().getString());
 
-        ModConfig config = NeoForgeConfigHelper.getModConfig(payload.fileName());
+        ModConfig config = getServerConfig(player, payload.fileName());
         if(config == null)
-        {
-            Constants.LOG.warn("{} tried to update a config that doesn't exist!", player.getName().getString());
-            player.connection.disconnect(Component.translatable("configured.multiplayer.disconnect.bad_config_packet"));
             return;
-        }
 
-        if(config.getType() != ModConfig.Type.SERVER)
-        {
-            Constants.LOG.warn("{} tried to update a forge config that isn't a server type", player.getName().getString());
-            player.connection.disconnect(Component.translatable("configured.multiplayer.disconnect.bad_config_packet"));
+        if(!RequestLimiter.tryAcquire(player, SyncNeoForgeConfigPayload.TYPE.id(), "neoforge:" + payload.fileName()))
             return;
-        }
 
-        if(!(config.getSpec() instanceof ModConfigSpec))
+        if(!(config.getSpec() instanceof ModConfigSpec spec))
         {
             Constants.LOG.warn("Unable to process server config update due to unknown spec for config: {}", payload.fileName());
             player.connection.disconnect(Component.translatable("configured.multiplayer.disconnect.bad_config_packet"));
             return;
         }
 
-        try
+        // The client has a different version of the spec, so ask for the config as TOML instead
+        ConfigSchema schema = NeoForgeConfigHelper.getSchema(spec);
+        if(!payload.data().isCompatible(schema))
         {
-            CommentedConfig data = TomlFormat.instance().createParser().parse(new ByteArrayInputStream(payload.data()));
-            int result = ((ModConfigSpec) config.getSpec()).correct(data,
+            Constants.LOG.debug("Config data for '{}' from {} doesn't match the spec, requesting full sync", payload.fileName(), player.getName().getString());
+            PacketDistributor.sendToPlayer(player, new RequestFullSyncPayload(payload.fileName()));
+            return;
+        }
+
+        // Reading and correcting the data is done off the server thread, only applying it is not
+        ConfigProcessor.process(player.server, NetworkStats.timed(SyncNeoForgeConfigPayload.TYPE.id(), player, () -> {
+            CommentedConfig data = payload.data().read(schema);
+            int result = spec.correct(data,
                     (action, path, incorrectValue, correctedValue) ->
                             Constants.LOG.warn("Incorrect key {} was corrected from {} to its default, {}. {}", DOT_JOINER.join(path), incorrectValue, correctedValue, incorrectValue == correctedValue ? "This seems to be an error." : ""),
                     (action, path, incorrectValue, correctedValue) ->
@@ -65,24 +81,129 @@ public class NeoForgeServerPlayHandler
             {
                 Constants.LOG.info("Config data sent from {} needed to be corrected", player.getName().getString());
             }
+            return data;
+        }), data -> {
+            if(config.getConfigData() == null)
+            {
+                Constants.LOG.warn("Config '{}' was unloaded before the update from {} could be applied", payload.fileName(), player.getName().getString());
+                return;
+            }
+
+            Set<List<String>> changedPaths = ConfigHelper.getChangedPaths(config.getConfigData(), data);
+            ConfigHelper.createBackup(config.getConfigData());
             config.getConfigData().putAll(data);
-        }
-        catch(ParsingException e)
+            NeoForgeConfigHelper.clearCaches(spec, config.getConfigData(), changedPaths);
+            ConfigChangedEvent.post(config.getModId(), config.getFileName(), changedPaths);
+            Constants.LOG.debug("Successfully processed config update for '" + payload.fileName() + "'");
+
+            queueBroadcast(config);
+            ServerPlayHelper.sendMessageToOperators(Component.translatable("configured.chat.config_updated", player.getName(), config.getFileName()).withStyle(ChatFormatting.GRAY, ChatFormatting.ITALIC), player);
+        }, throwable -> {
+            NetworkStats.recordRejected(SyncNeoForgeConfigPayload.TYPE.id(), player);
+            if(throwable instanceof ParsingException)
+            {
+                Constants.LOG.warn("{} sent malformed config data to the server", player.getName().getString());
+                player.connection.disconnect(Component.translatable("configured.multiplayer.disconnect.invalid_config_packet"));
+                ServerPlayHelper.sendMessageToOperators(Component.translatable("configured.chat.malformed_config_data", player.getName(), Component.literal(config.getFileName()).withStyle(ChatFormatting.GRAY)).withStyle(ChatFormatting.RED), player);
+                return;
+            }
+            Constants.LOG.error("Failed to process config update for '{}'", payload.fileName(), throwable);
+        });
+    }
+
+    public static void handleSyncServerConfigDeltaMessage(ServerPlayer player, SyncNeoForgeConfigDeltaPayload payload)
+    {
+        if(!ServerPlayHelper.canEditServerConfigs(player))
+            return;
+
+        Constants.LOG.debug("Received server config delta from player: {}", player.getName().getString());
+
+        ModConfig config = getServerConfig(player, payload.fileName());
+        if(config == null)
+            return;
+
+        if(!RequestLimiter.tryAcquire(player, SyncNeoForgeConfigDeltaPayload.TYPE.id(), "neoforge:" + payload.fileName()))
+            return;
+
+        long start = Util.getNanos();
+
+        if(!(config.getSpec() instanceof ModConfigSpec spec) || config.getConfigData() == null)
         {
-            Constants.LOG.warn("{} sent malformed config data to the server", player.getName().getString());
-            player.connection.disconnect(Component.translatable("configured.multiplayer.disconnect.invalid_config_packet"));
-            ServerPlayHelper.sendMessageToOperators(Component.translatable("configured.chat.malformed_config_data", player.getName(), Component.literal(config.getFileName()).withStyle(ChatFormatting.GRAY)).withStyle(ChatFormatting.RED), player);
+            Constants.LOG.warn("Unable to process server config update due to unknown spec for config: {}", payload.fileName());
+            player.connection.disconnect(Component.translatable("configured.multiplayer.disconnect.bad_config_packet"));
             return;
         }
-        catch(Exception e)
+
+        // The client edited an outdated copy of the config, so ask for the full config instead
+        CommentedConfig data = config.getConfigData();
+        if(payload.delta().baseHash() != ConfigDelta.getHash(data))
         {
-            e.printStackTrace();
+            Constants.LOG.debug("Config delta for '{}' from {} is out of date, requesting full sync", payload.fileName(), player.getName().getString());
+            PacketDistributor.sendToPlayer(player, new RequestFullSyncPayload(payload.fileName()));
             return;
         }
 
-        Constants.LOG.debug("Successfully processed config update for '" + payload.fileName() + "'");
+        // Only the changed values need to be validated
+        for(Map.Entry<List<String>, Object> entry : payload.delta().changes().entrySet())
+        {
+            if(!(spec.getSpec().get(entry.getKey()) instanceof ModConfigSpec.ValueSpec valueSpec) || !valueSpec.test(entry.getValue()))
+            {
+                NetworkStats.recordRejected(SyncNeoForgeConfigDeltaPayload.TYPE.id(), player);
+                Constants.LOG.warn("{} sent an invalid value for key {} in config {}", player.getName().getString(), DOT_JOINER.join(entry.getKey()), payload.fileName());
+                player.connection.disconnect(Component.translatable("configured.multiplayer.disconnect.invalid_config_packet"));
+                return;
+            }
+        }
+
+        Set<List<String>> changedPaths = ConfigHelper.getChangedPaths(data, payload.delta().changes());
+        ConfigHelper.createBackup(data);
+        if(!ConfigHelper.patchConfig(data, payload.delta().changes()))
+        {
+            CommentedConfig newData = CommentedConfig.copy(data);
+            payload.delta().apply(newData);
+            data.putAll(newData);
+        }
+        NeoForgeConfigHelper.clearCaches(spec, data, changedPaths);
+        ConfigChangedEvent.post(config.getModId(), config.getFileName(), changedPaths);
 
-        PacketDistributor.sendToAllPlayers(new SyncNeoForgeConfigPayload(payload.fileName(), payload.data()));
+        Constants.LOG.debug("Successfully processed config delta for '" + payload.fileName() + "'");
+        NetworkStats.recordProcessed(SyncNeoForgeConfigDeltaPayload.TYPE.id(), player, Util.getNanos() - start);
+
+        queueBroadcast(config);
         ServerPlayHelper.sendMessageToOperators(Component.translatable("configured.chat.config_updated", player.getName(), config.getFileName()).withStyle(ChatFormatting.GRAY, ChatFormatting.ITALIC), player);
     }
+
+    /**
+     * Queues the current data of the config to be sent to the players with Configured
+     */
+    private static void queueBroadcast(ModConfig config)
+    {
+        String fileName = config.getFileName();
+        SyncBroadcaster.queue("neoforge:" + fileName, true, () -> new SyncNeoForgeConfigPayload(fileName, config.getSpec() instanceof ModConfigSpec spec ? ConfigData.of(config.getConfigData(), NeoForgeConfigHelper.getSchema(spec)) : ConfigData.of(config.getConfigData())), (target, message) -> {
+            NeoForgeNetwork.sendToPlayer(target, message, SyncNeoForgeConfigPayload.STREAM_CODEC);
+        });
+    }
+
+    /**
+     * Gets the server config with the given file name, otherwise disconnects the player
+     */
+    @Nullable
+    private static ModConfig getServerConfig(ServerPlayer player, String fileName)
+    {
+        ModConfig config = NeoForgeConfigHelper.getModConfig(fileName);
+        if(config == null)
+        {
+            Constants.LOG.warn("{} tried to update a config that doesn't exist!", player.getName().getString());
+            player.connection.disconnect(Component.translatable("configured.multiplayer.disconnect.bad_config_packet"));
+            return null;
+        }
+
+        if(config.getType() != ModConfig.Type.SERVER)
+        {
+            Constants.LOG.warn("{} tried to update a forge config that isn't a server type", player.getName().getString());
+            player.connection.disconnect(Component.translatable("configured.multiplayer.disconnect.bad_config_packet"));
+            return null;
+        }
+        return config;
+    }
 }
@@ -0,0 +1,38 @@
+package com.mrcrayfish.configured.network.payload;
+
+import com.mrcrayfish.configured.Constants;
+import com.mrcrayfish.configured.network.handler.NeoForgeClientPlayHandler;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.codec.ByteBufCodecs;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.resources.ResourceLocation;
+import net.neoforged.neoforge.network.handling.IPayloadContext;
+
+/**
+ * Sent by the server if a {@link SyncNeoForgeConfigDeltaPayload} could not be applied because the
+ * config of the client was out of date. The client responds by sending the full config.
+ *
+ * Author: MrCrayfish
+ */
+public record RequestFullSyncPayload(String fileName) implements CustomPacketPayload
+{
+    public static final CustomPacketPayload.Type<RequestFullSyncPayload> TYPE = new Type<>(new ResourceLocation(Constants.MOD_ID, "request_full_neoforge_config_sync"));
+
+    public static final StreamCodec<RegistryFriendlyByteBuf, RequestFullSyncPayload> STREAM_CODEC = StreamCodec.composite(
+        ByteBufCodecs.STRING_UTF8,
+        RequestFullSyncPayload::fileName,
+        RequestFullSyncPayload::new
+    );
+
+    public static void handle(RequestFullSyncPayload payload, IPayloadContext context)
+    {
+        context.enqueueWork(() -> NeoForgeClientPlayHandler.handleRequestFullSyncMessage(payload));
+    }
+
+    @Override
+    public Type<RequestFullSyncPayload> type()
+    {
+        return TYPE;
+    }
+}
@@ -0,0 +1,42 @@
+package com.mrcrayfish.configured.network.payload;
+
+import com.mrcrayfish.configured.Constants;
+import com.mrcrayfish.configured.network.ConfigDelta;
+import com.mrcrayfish.configured.network.handler.NeoForgeServerPlayHandler;
+import net.minecraft.network.RegistryFriendlyByteBuf;
+import net.minecraft.network.codec.ByteBufCodecs;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.level.ServerPlayer;
+import net.neoforged.neoforge.network.handling.IPayloadContext;
+
+/**
+ * Author: MrCrayfish
+ */
+public record SyncNeoForgeConfigDeltaPayload(String fileName, ConfigDelta delta) implements CustomPacketPayload
+{
+    public static final CustomPacketPayload.Type<SyncNeoForgeConfigDeltaPayload> TYPE = new Type<>(new ResourceLocation(Constants.MOD_ID, "sync_neoforge_config_delta"));
+
+    public static final StreamCodec<RegistryFriendlyByteBuf, SyncNeoForgeConfigDeltaPayload> STREAM_CODEC = StreamCodec.composite(
+        ByteBufCodecs.STRING_UTF8,
+        SyncNeoForgeConfigDeltaPayload::fileName,
+        ConfigDelta.STREAM_CODEC,
+        SyncNeoForgeConfigDeltaPayload::delta,
+        SyncNeoForgeConfigDeltaPayload::new
+    );
+
+    public static void handle(SyncNeoForgeConfigDeltaPayload payload, IPayloadContext context)
+    {
+        if(context.player() instanceof ServerPlayer serverPlayer)
+        {
+            context.enqueueWork(() -> NeoForgeServerPlayHandler.handleSyncServerConfigDeltaMessage(serverPlayer, payload));
+        }
+    }
+
+    @Override
+    public Type<SyncNeoForgeConfigDeltaPayload> type()
+    {
+        return TYPE;
+    }
+}
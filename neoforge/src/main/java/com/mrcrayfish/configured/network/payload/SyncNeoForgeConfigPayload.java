@@ -1,6 +1,7 @@
 package com.mrcrayfish.configured.network.payload;
 
 import com.mrcrayfish.configured.Constants;
+import com.mrcrayfish.configured.network.ConfigData;
 import com.mrcrayfish.configured.network.ConfiguredCodecs;
 import com.mrcrayfish.configured.network.handler.NeoForgeClientPlayHandler;
 import com.mrcrayfish.configured.network.handler.NeoForgeServerPlayHandler;
@@ -17,14 +18,14 @@ import net.neoforged.neoforge.network.handling.IPayloadContext;
 /**
  * Author: MrCrayfish
  */
-public record SyncNeoForgeConfigPayload(String fileName, byte[] data) implements CustomPacketPayload
+public record SyncNeoForgeConfigPayload(String fileName, ConfigData data) implements CustomPacketPayload
 {
     public static final CustomPacketPayload.Type<SyncNeoForgeConfigPayload> TYPE = new Type<>(new ResourceLocation(Constants.MOD_ID, "sync_neoforge_config"));
 
     public static final StreamCodec<RegistryFriendlyByteBuf, SyncNeoForgeConfigPayload> STREAM_CODEC = StreamCodec.composite(
         ByteBufCodecs.STRING_UTF8,
         SyncNeoForgeConfigPayload::fileName,
-        ConfiguredCodecs.BYTE_ARRAY,
+        ConfiguredCodecs.CONFIG_DATA,
         SyncNeoForgeConfigPayload::data,
         SyncNeoForgeConfigPayload::new
     );
@@ -3,6 +3,10 @@ package com.mrcrayfish.configured.platform;
 import com.mrcrayfish.configured.Config;
 import com.mrcrayfish.configured.api.Environment;
 import com.mrcrayfish.configured.impl.framework.message.MessageFramework;
+import com.mrcrayfish.configured.network.ConfigData;
+import com.mrcrayfish.configured.network.ConfigDelta;
+import com.mrcrayfish.configured.network.ConfigManifest;
+import com.mrcrayfish.configured.network.NeoForgeNetwork;
 import com.mrcrayfish.configured.network.message.MessageSessionData;
 import com.mrcrayfish.configured.platform.services.IPlatformHelper;
 import net.minecraft.client.multiplayer.ClientPacketListener;
@@ -15,6 +19,7 @@ import net.neoforged.fml.loading.FMLPaths;
 import net.neoforged.neoforge.network.PacketDistributor;
 import net.neoforged.neoforge.network.registration.NetworkRegistry;
 
+import org.jetbrains.annotations.Nullable;
 import java.nio.file.Path;
 
 public class NeoForgePlatformHelper implements IPlatformHelper
@@ -66,31 +71,53 @@ public class NeoForgePlatformHelper implements IPlatformHelper
     {
         boolean developer = FMLLoader.getDist().isDedicatedServer() && Config.isDeveloperEnabled() && Config.getDevelopers().contains(player.getStringUUID());
         boolean lan = player.getServer() != null && !player.getServer().isDedicatedServer();
-        PacketDistributor.sendToPlayer(player, new MessageSessionData(developer, lan));
+        PacketDistributor.sendToPlayer(player, new MessageSessionData(developer, lan, ConfigManifest.get(developer)));
     }
 
     @Override
-    public void sendFrameworkConfigToServer(ResourceLocation id, byte[] data)
+    public boolean hasConfigured(ServerPlayer player)
+    {
+        return NetworkRegistry.hasChannel(player.connection, MessageSessionData.TYPE.id());
+    }
+
+    @Override
+    public void sendFrameworkConfigToServer(ResourceLocation id, ConfigData data)
+    {
+        if(!this.isModLoaded("framework"))
+            return;
+        NeoForgeNetwork.sendToServer(new MessageFramework.Sync(id, data), MessageFramework.Sync.STREAM_CODEC);
+    }
+
+    @Override
+    public void sendFrameworkConfigDeltaToServer(ResourceLocation id, ConfigDelta delta)
+    {
+        if(!this.isModLoaded("framework"))
+            return;
+        NeoForgeNetwork.sendToServer(new MessageFramework.SyncDelta(id, delta), MessageFramework.SyncDelta.STREAM_CODEC);
+    }
+
+    @Override
+    public void sendFrameworkConfigRequest(ResourceLocation id, long cachedHash)
     {
         if(!this.isModLoaded("framework"))
             return;
-        PacketDistributor.sendToServer(new MessageFramework.Sync(id, data));
+        PacketDistributor.sendToServer(new MessageFramework.Request(id, cachedHash));
     }
 
     @Override
-    public void sendFrameworkConfigRequest(ResourceLocation id)
+    public void sendFrameworkConfigResponse(ServerPlayer player, long hash, @Nullable ConfigData data)
     {
         if(!this.isModLoaded("framework"))
             return;
-        PacketDistributor.sendToServer(new MessageFramework.Request(id));
+        NeoForgeNetwork.sendToPlayer(player, new MessageFramework.Response(hash, data), MessageFramework.Response.STREAM_CODEC);
     }
 
     @Override
-    public void sendFrameworkConfigResponse(ServerPlayer player, byte[] data)
+    public void sendFrameworkFullSyncRequest(ServerPlayer player, ResourceLocation id)
     {
         if(!this.isModLoaded("framework"))
             return;
-        PacketDistributor.sendToPlayer(player, new MessageFramework.Response(data));
+        PacketDistributor.sendToPlayer(player, new MessageFramework.RequestFullSync(id));
     }
 
     @Override
@@ -5,6 +5,8 @@ import com.electronwill.nightconfig.core.CommentedConfig;
 import com.electronwill.nightconfig.core.UnmodifiableConfig;
 import com.electronwill.nightconfig.core.file.FileConfig;
 import com.google.common.collect.ImmutableList;
+import com.mrcrayfish.configured.network.ConfigDelta;
+import com.mrcrayfish.configured.network.ConfigSchema;
 import net.neoforged.fml.config.ConfigFileTypeHandler;
 import net.neoforged.fml.config.ConfigTracker;
 import net.neoforged.fml.config.ModConfig;
@@ -16,7 +18,9 @@ import org.jetbrains.annotations.Nullable;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
 /**
@@ -99,6 +103,32 @@ public class NeoForgeConfigHelper
         return gatherAllConfigValues(((ModConfigSpec) config.getSpec()).getValues(), (ModConfigSpec) config.getSpec());
     }
 
+    /**
+     * Gets the schema of the values of the given spec, which is used to send the data of the config
+     * in binary form.
+     */
+    public static ConfigSchema getSchema(ModConfigSpec spec)
+    {
+        return ConfigSchema.of(spec, () -> gatherAllConfigValues(spec.getValues(), spec).stream().collect(HashMap<List<String>, Object>::new, (map, pair) -> map.put(pair.getLeft().getPath(), pair.getRight().getDefault()), HashMap::putAll));
+    }
+
+    /**
+     * Clears the cached values of only the config values at the given paths, along with the cached
+     * hash of the data. Used after applying changes instead of clearing the cache of every value in
+     * the config.
+     */
+    public static void clearCaches(ModConfigSpec spec, UnmodifiableConfig data, Set<List<String>> paths)
+    {
+        ConfigDelta.invalidateHash(data);
+        for(List<String> path : paths)
+        {
+            if(spec.getValues().get(path) instanceof ModConfigSpec.ConfigValue<?> value)
+            {
+                value.clearCache();
+            }
+        }
+    }
+
     public static void unload(ModConfig config)
     {
         if(config.getConfigData() != null)
@@ -32,6 +32,11 @@ public class ConfigTest
     public ConfigTest(ModContainer container, IEventBus bus)
     {
         container.registerConfig(ModConfig.Type.CLIENT, testSpec, "configured_test_config.toml");
+        if(LargeConfigTest.SHAPE.values() > 0)
+        {
+            container.registerConfig(ModConfig.Type.CLIENT, LargeConfigTest.createSpec(), "configured_test_large_client.toml");
+            container.registerConfig(ModConfig.Type.SERVER, LargeConfigTest.createSpec(), "configured_test_large_server.toml");
+        }
     }
 
     public static class Test
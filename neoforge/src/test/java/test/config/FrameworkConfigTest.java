@@ -4,6 +4,9 @@ import com.mrcrayfish.framework.api.config.BoolProperty;
 import com.mrcrayfish.framework.api.config.ConfigProperty;
 import com.mrcrayfish.framework.api.config.ConfigType;
 import com.mrcrayfish.framework.api.config.FrameworkConfig;
+import com.mrcrayfish.framework.api.config.ListProperty;
+
+import java.util.stream.IntStream;
 
 /**
  * Author: MrCrayfish
@@ -55,9 +58,27 @@ public class FrameworkConfigTest
     @FrameworkConfig(id = "config_test", name = "dedicated_server_read_only", type = ConfigType.DEDICATED_SERVER, readOnly = true)
     public static final Test DEDICATED_SERVER_READ_ONLY = new Test();
 
+    @FrameworkConfig(id = "config_test", name = "large_lists", type = ConfigType.CLIENT)
+    public static final LargeLists LARGE_LISTS = new LargeLists();
+
     public static class Test
     {
         @ConfigProperty(name = "test", comment = "Hello", gameRestart = true)
         public final BoolProperty test = BoolProperty.create(false);
     }
+
+    /**
+     * Lists with a large number of elements. The number of elements can be changed with the system
+     * property <code>configured.test.large.frameworkListSize</code> (default 1000).
+     */
+    public static class LargeLists
+    {
+        private static final int SIZE = Math.max(0, Integer.getInteger("configured.test.large.frameworkListSize", 1000));
+
+        @ConfigProperty(name = "blocks", comment = "A large list of block ids")
+        public final ListProperty<String> blocks = ListProperty.create(ListProperty.STRING, () -> IntStream.range(0, SIZE).mapToObj(i -> "minecraft:block_" + i).toList());
+
+        @ConfigProperty(name = "weights", comment = "A large list of numbers")
+        public final ListProperty<Integer> weights = ListProperty.create(ListProperty.INT, () -> IntStream.range(0, SIZE).boxed().toList());
+    }
 }
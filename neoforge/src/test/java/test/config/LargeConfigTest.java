@@ -0,0 +1,84 @@
+package test.config;
+
+import com.mrcrayfish.configured.test.LargeConfigGenerator;
+import net.minecraft.ChatFormatting;
+import net.neoforged.neoforge.common.ModConfigSpec;
+
+import java.util.List;
+
+/**
+ * Registers the large configs made by {@link LargeConfigGenerator} with ModConfigSpec, to test how
+ * Configured performs with configs the size of those found in big modpacks. The shape of the
+ * configs is read from system properties, see {@link LargeConfigGenerator.Shape#fromProperties()}.
+ *
+ * Author: MrCrayfish
+ */
+public class LargeConfigTest
+{
+    static final LargeConfigGenerator.Shape SHAPE = LargeConfigGenerator.Shape.fromProperties();
+
+    /**
+     * Creates a new spec with the shape set by the system properties
+     */
+    public static ModConfigSpec createSpec()
+    {
+        ModConfigSpec.Builder builder = new ModConfigSpec.Builder();
+        LargeConfigGenerator.generate(SHAPE, new LargeConfigGenerator.Builder()
+        {
+            @Override
+            public void push(String name, String comment)
+            {
+                builder.comment(comment).push(name);
+            }
+
+            @Override
+            public void pop()
+            {
+                builder.pop();
+            }
+
+            @Override
+            public void defineBoolean(String name, String comment, boolean defaultValue)
+            {
+                builder.comment(comment).define(name, defaultValue);
+            }
+
+            @Override
+            public void defineInt(String name, String comment, int defaultValue, int min, int max)
+            {
+                builder.comment(comment).defineInRange(name, defaultValue, min, max);
+            }
+
+            @Override
+            public void defineDouble(String name, String comment, double defaultValue, double min, double max)
+            {
+                builder.comment(comment).defineInRange(name, defaultValue, min, max);
+            }
+
+            @Override
+            public void defineLong(String name, String comment, long defaultValue, long min, long max)
+            {
+                builder.comment(comment).defineInRange(name, defaultValue, min, max);
+            }
+
+            @Override
+            public void defineString(String name, String comment, String defaultValue)
+            {
+                builder.comment(comment).define(name, defaultValue);
+            }
+
+            @Override
+            public void defineEnum(String name, String comment, ChatFormatting defaultValue)
+            {
+                builder.comment(comment).defineEnum(name, defaultValue);
+            }
+
+            @Override
+            public <T> void defineList(String name, String comment, List<T> defaultValue, Class<T> elementType)
+            {
+                builder.comment(comment).defineList(name, defaultValue, elementType::isInstance);
+            }
+        });
+        return builder.build();
+    }
+}